@@ -0,0 +1,24 @@
+package com.tecsup.petclinic;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * WebFlux + R2DBC variant of the pet and vet APIs, with the same
+ * contracts as PetController and VetController of the servlet application.
+ *
+ * @author jgomezm
+ *
+ */
+@SpringBootApplication
+public class PetClinicReactiveApplication {
+
+	/**
+	 * 
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		SpringApplication.run(PetClinicReactiveApplication.class, args);
+	}
+
+}
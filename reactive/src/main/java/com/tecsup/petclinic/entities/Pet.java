@@ -0,0 +1,38 @@
+package com.tecsup.petclinic.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+/**
+ * 
+ * @author jgomezm
+ *
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("pets")
+@Data
+public class Pet {
+
+	@Id
+	private Integer id;
+
+	@Column("name")
+	private String name;
+
+	@Column("type_id")
+	private int typeId;
+
+	@Column("owner_id")
+	private int ownerId;
+
+	@Column("birth_date")
+	private LocalDate birthDate;
+
+}
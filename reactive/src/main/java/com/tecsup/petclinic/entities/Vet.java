@@ -0,0 +1,40 @@
+package com.tecsup.petclinic.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Entidad Vet (Veterinario)
+ * 
+ * @author jgomezm
+ *
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("vets")
+@Data
+public class Vet {
+
+	@Id
+	private Integer id;
+
+	@Column("first_name")
+	private String firstName;
+
+	@Column("last_name")
+	private String lastName;
+
+	@Column("email")
+	private String email;
+
+	@Column("phone")
+	private String phone;
+
+	@Column("active")
+	private Boolean active;
+
+}
@@ -0,0 +1,44 @@
+package com.tecsup.petclinic.mapper;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.entities.Pet;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.NullValueMappingStrategy;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Same date format as the servlet PetMapper (yyyy-MM-dd, "" when null)
+ */
+@Mapper(componentModel = "spring", nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT)
+public interface PetMapper {
+
+	DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+
+	Pet mapToEntity(PetDTO petTO);
+
+	// The R2DBC entity has no version column
+	@Mapping(target = "version", ignore = true)
+	PetDTO mapToDto(Pet pet);
+
+	default LocalDate stringToDate(String dateStr) {
+
+		if (dateStr == null || dateStr.isEmpty()) {
+			return null;
+		}
+
+		try {
+			return LocalDate.parse(dateStr, DATE_FORMATTER);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	default String dateToString(LocalDate date) {
+		return date != null ? DATE_FORMATTER.format(date) : "";
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.tecsup.petclinic.mapper;
+
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.entities.Vet;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.NullValueMappingStrategy;
+
+/**
+ * Mapper para convertir entre Vet (Entity) y VetDTO
+ * 
+ * @author jgomezm
+ *
+ */
+@Mapper(componentModel = "spring", nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT)
+public interface VetMapper {
+
+	Vet mapToEntity(VetDTO vetDTO);
+
+	// La entidad R2DBC no lleva la columna version
+	@Mapping(target = "version", ignore = true)
+	VetDTO mapToDto(Vet vet);
+
+}
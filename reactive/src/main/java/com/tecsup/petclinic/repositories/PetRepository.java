@@ -0,0 +1,43 @@
+package com.tecsup.petclinic.repositories;
+
+import java.time.LocalDate;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.tecsup.petclinic.entities.Pet;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 
+ * @author jgomezm
+ *
+ */
+@Repository
+public interface PetRepository extends ReactiveCrudRepository<Pet, Integer> {
+
+	// All pets ordered by id, emitted as rows are read
+	@Query("SELECT * FROM pets ORDER BY id")
+	Flux<Pet> findAllOrderById();
+
+	// Fetch the next page of pets after the given id (keyset pagination)
+	@Query("SELECT * FROM pets WHERE id > :after ORDER BY id LIMIT :limit")
+	Flux<Pet> findPage(Integer after, int limit);
+
+	// Update a pet in one statement, keeping the birth date when none is given.
+	// Emits the number of rows updated (0 when the id does not exist)
+	@Modifying
+	@Query("UPDATE pets SET name = :name, type_id = :typeId, owner_id = :ownerId, "
+			+ "birth_date = COALESCE(:birthDate, birth_date), version = version + 1 WHERE id = :id")
+	Mono<Integer> updatePet(Integer id, String name, int typeId, int ownerId, LocalDate birthDate);
+
+	// Delete a pet in one statement, emits the number of rows deleted
+	@Modifying
+	@Query("DELETE FROM pets WHERE id = :id")
+	Mono<Integer> deletePet(Integer id);
+
+}
@@ -0,0 +1,42 @@
+package com.tecsup.petclinic.repositories;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.tecsup.petclinic.entities.Vet;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repositorio reactivo para la entidad Vet
+ * 
+ * @author jgomezm
+ *
+ */
+@Repository
+public interface VetRepository extends ReactiveCrudRepository<Vet, Integer> {
+
+	// Todos los veterinarios ordenados por id
+	@Query("SELECT * FROM vets ORDER BY id")
+	Flux<Vet> findAllOrderById();
+
+	// Siguiente página de veterinarios después del id dado (keyset pagination)
+	@Query("SELECT * FROM vets WHERE id > :after ORDER BY id LIMIT :limit")
+	Flux<Vet> findPage(Integer after, int limit);
+
+	// Actualiza un veterinario con un único UPDATE, emite las filas actualizadas
+	@Modifying
+	@Query("UPDATE vets SET first_name = :firstName, last_name = :lastName, email = :email, "
+			+ "phone = :phone, active = :active, version = version + 1 WHERE id = :id")
+	Mono<Integer> updateVet(Integer id, String firstName, String lastName, String email, String phone,
+							Boolean active);
+
+	// Elimina un veterinario con un único DELETE, emite las filas eliminadas
+	@Modifying
+	@Query("DELETE FROM vets WHERE id = :id")
+	Mono<Integer> deleteVet(Integer id);
+
+}
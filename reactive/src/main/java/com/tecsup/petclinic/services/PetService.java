@@ -0,0 +1,61 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Missing pets are signalled with a PetNotFoundException error
+ *
+ * @author jgomezm
+ *
+ */
+public interface PetService {
+
+    /**
+     *
+     * @param petDTO
+     * @return
+     */
+    Mono<PetDTO> create(PetDTO petDTO);
+
+    /**
+     * Update name, type, owner and (when given) birth date of an existing pet
+     *
+     * @param petDTO
+     * @return the pet, or PetNotFoundException
+     */
+    Mono<PetDTO> update(PetDTO petDTO);
+
+    /**
+     *
+     * @param id
+     * @return empty, or PetNotFoundException
+     */
+    Mono<Void> delete(Integer id);
+
+    /**
+     *
+     * @param id
+     * @return the pet, or PetNotFoundException
+     */
+    Mono<PetDTO> findById(Integer id);
+
+    /**
+     * Every pet in id order, read from the database as the subscriber requests them
+     *
+     * @return
+     */
+    Flux<PetDTO> findAll();
+
+    /**
+     * Fetch the next page of pets ordered by id (keyset pagination)
+     *
+     * @param after last id already read, or null to start from the beginning
+     * @param limit maximum number of pets to return
+     * @return
+     */
+    Flux<PetDTO> findPage(Integer after, int limit);
+
+}
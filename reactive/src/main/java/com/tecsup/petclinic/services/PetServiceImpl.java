@@ -0,0 +1,79 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.mapper.PetMapper;
+import com.tecsup.petclinic.repositories.PetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ *
+ * @author jgomezm
+ *
+ */
+@Service
+@Slf4j
+public class PetServiceImpl implements PetService {
+
+    PetRepository petRepository;
+    PetMapper petMapper;
+    int prefetch;
+
+    public PetServiceImpl(PetRepository petRepository, PetMapper petMapper,
+                          @Value("${petclinic.reactive.prefetch:256}") int prefetch) {
+        this.petRepository = petRepository;
+        this.petMapper = petMapper;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public Mono<PetDTO> create(PetDTO petDTO) {
+        return petRepository.save(petMapper.mapToEntity(petDTO)).map(petMapper::mapToDto);
+    }
+
+    @Override
+    public Mono<PetDTO> update(PetDTO petDTO) {
+        return petRepository.updatePet(petDTO.getId(), petDTO.getName(), petDTO.getTypeId(), petDTO.getOwnerId(),
+                        petMapper.stringToDate(petDTO.getBirthDate()))
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new PetNotFoundException("Record not found...!"))
+                        : petRepository.findById(petDTO.getId()).map(petMapper::mapToDto));
+    }
+
+    @Override
+    public Mono<Void> delete(Integer id) {
+        return petRepository.deletePet(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new PetNotFoundException("Record not found...!"))
+                        : Mono.empty());
+    }
+
+    @Override
+    public Mono<PetDTO> findById(Integer id) {
+        return petRepository.findById(id)
+                .map(petMapper::mapToDto)
+                .switchIfEmpty(Mono.error(() -> new PetNotFoundException("Record not found...!")));
+    }
+
+    /**
+     * At most `prefetch` rows are requested ahead of the subscriber,
+     * so a slow client slows the read down instead of buffering the table.
+     */
+    @Override
+    public Flux<PetDTO> findAll() {
+        return petRepository.findAllOrderById()
+                .limitRate(prefetch)
+                .map(petMapper::mapToDto);
+    }
+
+    @Override
+    public Flux<PetDTO> findPage(Integer after, int limit) {
+        return petRepository.findPage(after == null ? 0 : after, limit).map(petMapper::mapToDto);
+    }
+
+}
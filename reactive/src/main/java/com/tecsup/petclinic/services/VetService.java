@@ -0,0 +1,61 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.VetDTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Los veterinarios inexistentes se señalan con un error VetNotFoundException
+ *
+ * @author jgomezm
+ *
+ */
+public interface VetService {
+
+    /**
+     *
+     * @param vetDTO
+     * @return
+     */
+    Mono<VetDTO> create(VetDTO vetDTO);
+
+    /**
+     * Actualizar un veterinario existente con un único UPDATE
+     *
+     * @param vetDTO
+     * @return the vet, or VetNotFoundException
+     */
+    Mono<VetDTO> update(VetDTO vetDTO);
+
+    /**
+     *
+     * @param id
+     * @return empty, or VetNotFoundException
+     */
+    Mono<Void> delete(Integer id);
+
+    /**
+     *
+     * @param id
+     * @return the vet, or VetNotFoundException
+     */
+    Mono<VetDTO> findById(Integer id);
+
+    /**
+     * Every vet in id order, read from the database as the subscriber requests them
+     *
+     * @return
+     */
+    Flux<VetDTO> findAll();
+
+    /**
+     * Fetch the next page of vets ordered by id (keyset pagination)
+     *
+     * @param after last id already read, or null to start from the beginning
+     * @param limit maximum number of vets to return
+     * @return
+     */
+    Flux<VetDTO> findPage(Integer after, int limit);
+
+}
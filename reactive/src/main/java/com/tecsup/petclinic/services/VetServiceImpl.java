@@ -0,0 +1,76 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.mapper.VetMapper;
+import com.tecsup.petclinic.repositories.VetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementación reactiva del servicio de Vet
+ *
+ * @author jgomezm
+ *
+ */
+@Service
+@Slf4j
+public class VetServiceImpl implements VetService {
+
+    VetRepository vetRepository;
+    VetMapper vetMapper;
+    int prefetch;
+
+    public VetServiceImpl(VetRepository vetRepository, VetMapper vetMapper,
+                          @Value("${petclinic.reactive.prefetch:256}") int prefetch) {
+        this.vetRepository = vetRepository;
+        this.vetMapper = vetMapper;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public Mono<VetDTO> create(VetDTO vetDTO) {
+        return vetRepository.save(vetMapper.mapToEntity(vetDTO)).map(vetMapper::mapToDto);
+    }
+
+    @Override
+    public Mono<VetDTO> update(VetDTO vetDTO) {
+        return vetRepository.updateVet(vetDTO.getId(), vetDTO.getFirstName(), vetDTO.getLastName(),
+                        vetDTO.getEmail(), vetDTO.getPhone(), vetDTO.getActive())
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new VetNotFoundException("Record not found...!"))
+                        : Mono.just(vetDTO));
+    }
+
+    @Override
+    public Mono<Void> delete(Integer id) {
+        return vetRepository.deleteVet(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new VetNotFoundException("Record not found...!"))
+                        : Mono.empty());
+    }
+
+    @Override
+    public Mono<VetDTO> findById(Integer id) {
+        return vetRepository.findById(id)
+                .map(vetMapper::mapToDto)
+                .switchIfEmpty(Mono.error(() -> new VetNotFoundException("Record not found...!")));
+    }
+
+    @Override
+    public Flux<VetDTO> findAll() {
+        return vetRepository.findAllOrderById()
+                .limitRate(prefetch)
+                .map(vetMapper::mapToDto);
+    }
+
+    @Override
+    public Flux<VetDTO> findPage(Integer after, int limit) {
+        return vetRepository.findPage(after == null ? 0 : after, limit).map(vetMapper::mapToDto);
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.services.PetService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same contract as the servlet PetController. List endpoints also
+ * answer application/x-ndjson, one pet per line, written as the rows
+ * are read and only as fast as the client reads them.
+ *
+ * @author jgomezm
+ *
+ */
+@RestController
+@Slf4j
+public class PetController {
+
+	static final int DEFAULT_PAGE_SIZE = 50;
+
+	static final int MAX_PAGE_SIZE = 1000;
+
+	private PetService petService;
+
+	/**
+	 *
+	 * @param petService
+	 */
+	public PetController(PetService petService) {
+		this.petService = petService;
+	}
+
+	/**
+	 * Get all pets.
+	 * When after or limit is given, only one keyset page is returned
+	 * and the next page is advertised in the Link header.
+	 *
+	 * @param after
+	 * @param limit
+	 * @param request
+	 * @return
+	 */
+	@GetMapping(value = "/pets", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Mono<ResponseEntity<Flux<PetDTO>>> findAllPets(@RequestParam(required = false) Integer after,
+														 @RequestParam(required = false) Integer limit,
+														 ServerHttpRequest request) {
+
+		if (after == null && limit == null)
+			return Mono.just(ResponseEntity.ok(petService.findAll()));
+
+		int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+		return petService.findPage(after, pageSize).collectList().map(petsTO -> {
+			ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+			if (petsTO.size() == pageSize) {
+				String next = UriComponentsBuilder.fromUri(request.getURI())
+						.replaceQueryParam("after", petsTO.get(petsTO.size() - 1).getId())
+						.replaceQueryParam("limit", pageSize)
+						.toUriString();
+				response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+			}
+			return response.body(Flux.fromIterable(petsTO));
+		});
+	}
+
+	/**
+	 * Stream all pets, as a JSON array or as NDJSON
+	 *
+	 * @return
+	 */
+	@GetMapping(value = "/pets/stream", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<PetDTO> streamAllPets() {
+		return petService.findAll();
+	}
+
+	/**
+	 * Create pet
+	 *
+	 * @param petTO
+	 * @return
+	 */
+	@PostMapping(value = "/pets")
+	Mono<ResponseEntity<PetDTO>> create(@RequestBody PetDTO petTO) {
+		return petService.create(petTO).map(newPetTO -> ResponseEntity.status(HttpStatus.CREATED).body(newPetTO));
+	}
+
+	/**
+	 * Find pet by id
+	 *
+	 * @param id
+	 * @return
+	 */
+	@GetMapping(value = "/pets/{id}")
+	Mono<ResponseEntity<PetDTO>> findById(@PathVariable Integer id) {
+		return petService.findById(id)
+				.map(ResponseEntity::ok)
+				.onErrorResume(PetNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+	}
+
+	/**
+	 * Update pet
+	 *
+	 * @param petTO
+	 * @param id
+	 * @return
+	 */
+	@PutMapping(value = "/pets/{id}")
+	Mono<ResponseEntity<PetDTO>> update(@RequestBody PetDTO petTO, @PathVariable Integer id) {
+
+		petTO.setId(id);
+
+		return petService.update(petTO)
+				.map(ResponseEntity::ok)
+				.onErrorResume(PetNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+	}
+
+	/**
+	 * Delete pet by id
+	 *
+	 * @param id
+	 * @return
+	 */
+	@DeleteMapping(value = "/pets/{id}")
+	Mono<ResponseEntity<String>> delete(@PathVariable Integer id) {
+		return petService.delete(id)
+				.thenReturn(ResponseEntity.ok(" Delete ID :" + id))
+				.onErrorResume(PetNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+	}
+
+}
@@ -0,0 +1,148 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.services.VetService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same contract as the servlet VetController. List endpoints also
+ * answer application/x-ndjson, one vet per line, written as the rows
+ * are read and only as fast as the client reads them.
+ *
+ * @author jgomezm
+ *
+ */
+@RestController
+@Slf4j
+public class VetController {
+
+	static final int DEFAULT_PAGE_SIZE = 50;
+
+	static final int MAX_PAGE_SIZE = 1000;
+
+	private VetService vetService;
+
+	/**
+	 *
+	 * @param vetService
+	 */
+	public VetController(VetService vetService) {
+		this.vetService = vetService;
+	}
+
+	/**
+	 * Obtener todos los veterinarios.
+	 * When after or limit is given, only one keyset page is returned
+	 * and the next page is advertised in the Link header.
+	 *
+	 * @param after
+	 * @param limit
+	 * @param request
+	 * @return
+	 */
+	@GetMapping(value = "/vets", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Mono<ResponseEntity<Flux<VetDTO>>> findAllVets(@RequestParam(required = false) Integer after,
+														 @RequestParam(required = false) Integer limit,
+														 ServerHttpRequest request) {
+
+		if (after == null && limit == null)
+			return Mono.just(ResponseEntity.ok(vetService.findAll()));
+
+		int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+		return vetService.findPage(after, pageSize).collectList().map(vetsTO -> {
+			ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+			if (vetsTO.size() == pageSize) {
+				String next = UriComponentsBuilder.fromUri(request.getURI())
+						.replaceQueryParam("after", vetsTO.get(vetsTO.size() - 1).getId())
+						.replaceQueryParam("limit", pageSize)
+						.toUriString();
+				response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+			}
+			return response.body(Flux.fromIterable(vetsTO));
+		});
+	}
+
+	/**
+	 * Todos los veterinarios, como arreglo JSON o NDJSON
+	 *
+	 * @return
+	 */
+	@GetMapping(value = "/vets/stream", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<VetDTO> streamAllVets() {
+		return vetService.findAll();
+	}
+
+	/**
+	 * Crear veterinario
+	 *
+	 * @param vetTO
+	 * @return
+	 */
+	@PostMapping(value = "/vets")
+	Mono<ResponseEntity<VetDTO>> create(@RequestBody VetDTO vetTO) {
+		return vetService.create(vetTO).map(newVetTO -> ResponseEntity.status(HttpStatus.CREATED).body(newVetTO));
+	}
+
+	/**
+	 * Buscar veterinario por ID
+	 *
+	 * @param id
+	 * @return
+	 */
+	@GetMapping(value = "/vets/{id}")
+	Mono<ResponseEntity<VetDTO>> findById(@PathVariable Integer id) {
+		return vetService.findById(id)
+				.map(ResponseEntity::ok)
+				.onErrorResume(VetNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+	}
+
+	/**
+	 * Actualizar veterinario
+	 *
+	 * @param vetTO
+	 * @param id
+	 * @return
+	 */
+	@PutMapping(value = "/vets/{id}")
+	Mono<ResponseEntity<VetDTO>> update(@RequestBody VetDTO vetTO, @PathVariable Integer id) {
+
+		vetTO.setId(id);
+
+		return vetService.update(vetTO)
+				.map(ResponseEntity::ok)
+				.onErrorResume(VetNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+	}
+
+	/**
+	 * Eliminar veterinario por ID
+	 *
+	 * @param id
+	 * @return
+	 */
+	@DeleteMapping(value = "/vets/{id}")
+	Mono<ResponseEntity<String>> delete(@PathVariable Integer id) {
+		return vetService.delete(id)
+				.thenReturn(ResponseEntity.ok("Delete ID: " + id))
+				.onErrorResume(VetNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+	}
+
+}
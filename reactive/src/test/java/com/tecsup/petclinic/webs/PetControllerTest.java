@@ -0,0 +1,175 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * 
+ */
+@AutoConfigureWebTestClient
+@SpringBootTest
+@Slf4j
+public class PetControllerTest {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	public void testFindAllPets() {
+
+		final int ID_FIRST_RECORD = 1;
+
+		webTestClient.get().uri("/pets")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(MediaType.APPLICATION_JSON)
+				.expectBody()
+				.jsonPath("$[0].id").isEqualTo(ID_FIRST_RECORD);
+	}
+
+	/**
+	 *
+	 */
+	@Test
+	public void testFindPetsPage() {
+
+		webTestClient.get().uri("/pets?after=3&limit=2")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().value(HttpHeaders.LINK, containsString("after=5"))
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(2)
+				.jsonPath("$[0].id").isEqualTo(4)
+				.jsonPath("$[1].id").isEqualTo(5);
+	}
+
+	/**
+	 * NDJSON, read one pet at a time with a bounded demand
+	 */
+	@Test
+	public void testStreamAllPets() {
+
+		Flux<PetDTO> pets = webTestClient.get().uri("/pets/stream")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(PetDTO.class)
+				.getResponseBody();
+
+		StepVerifier.create(pets, 2)
+				.expectNextMatches(pet -> pet.getId() == 1 && pet.getName().equals("Leo"))
+				.expectNextMatches(pet -> pet.getId() == 2)
+				.thenCancel()
+				.verify();
+	}
+
+	/**
+	 *
+	 */
+	@Test
+	public void testFindPetOK() {
+
+		webTestClient.get().uri("/pets/1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.id").isEqualTo(1)
+				.jsonPath("$.name").isEqualTo("Leo")
+				.jsonPath("$.typeId").isEqualTo(1)
+				.jsonPath("$.ownerId").isEqualTo(1)
+				.jsonPath("$.birthDate").isEqualTo("2000-09-07");
+	}
+
+	/**
+	 *
+	 */
+	@Test
+	public void testFindPetKO() {
+
+		webTestClient.get().uri("/pets/666")
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	/**
+	 *
+	 */
+	@Test
+	public void testCreateUpdateDeletePet() {
+
+		PetDTO newPetTO = PetDTO.builder()
+				.name("Beethoven")
+				.typeId(1)
+				.ownerId(1)
+				.birthDate("2020-05-20")
+				.build();
+
+		// CREATE
+		PetDTO created = webTestClient.post().uri("/pets")
+				.bodyValue(newPetTO)
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody(PetDTO.class)
+				.returnResult().getResponseBody();
+
+		Integer id = created.getId();
+
+		// UPDATE (birth date kept when not given)
+		PetDTO upPetTO = PetDTO.builder().name("Beethoven2").typeId(2).ownerId(2).build();
+
+		webTestClient.put().uri("/pets/" + id)
+				.bodyValue(upPetTO)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.id").isEqualTo(id)
+				.jsonPath("$.name").isEqualTo("Beethoven2")
+				.jsonPath("$.typeId").isEqualTo(2)
+				.jsonPath("$.birthDate").isEqualTo("2020-05-20");
+
+		// DELETE
+		webTestClient.delete().uri("/pets/" + id)
+				.exchange()
+				.expectStatus().isOk();
+
+		webTestClient.get().uri("/pets/" + id)
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	/**
+	 *
+	 */
+	@Test
+	public void testUpdatePetKO() {
+
+		webTestClient.put().uri("/pets/1000")
+				.bodyValue(PetDTO.builder().name("Ghost").typeId(1).ownerId(1).build())
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	/**
+	 *
+	 */
+	@Test
+	public void testDeletePetKO() {
+
+		webTestClient.delete().uri("/pets/1000")
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+}
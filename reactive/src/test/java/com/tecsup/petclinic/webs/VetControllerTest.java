@@ -0,0 +1,89 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.dtos.VetDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Pruebas de integración para el VetController reactivo
+ * 
+ * @author jgomezm
+ */
+@AutoConfigureWebTestClient
+@SpringBootTest
+@Slf4j
+public class VetControllerTest {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	public void testFindAllVets() {
+
+		webTestClient.get().uri("/vets")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(MediaType.APPLICATION_JSON)
+				.expectBody()
+				.jsonPath("$[0].id").isEqualTo(1);
+	}
+
+	@Test
+	public void testFindVetKO() {
+
+		webTestClient.get().uri("/vets/666")
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	public void testCreateUpdateDeleteVet() {
+
+		VetDTO newVetDTO = VetDTO.builder()
+				.firstName("Ana")
+				.lastName("Torres")
+				.email("ana.torres@petclinic.com")
+				.phone("555-1234")
+				.active(true)
+				.build();
+
+		// CREATE
+		VetDTO created = webTestClient.post().uri("/vets")
+				.bodyValue(newVetDTO)
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody(VetDTO.class)
+				.returnResult().getResponseBody();
+
+		Integer id = created.getId();
+
+		// UPDATE
+		newVetDTO.setLastName("Torres2");
+
+		webTestClient.put().uri("/vets/" + id)
+				.bodyValue(newVetDTO)
+				.exchange()
+				.expectStatus().isOk();
+
+		webTestClient.get().uri("/vets/" + id)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.lastName").isEqualTo("Torres2");
+
+		// DELETE
+		webTestClient.delete().uri("/vets/" + id)
+				.exchange()
+				.expectStatus().isOk();
+
+		webTestClient.delete().uri("/vets/" + id)
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+}
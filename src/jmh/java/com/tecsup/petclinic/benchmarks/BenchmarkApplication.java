@@ -0,0 +1,56 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.PetClinicApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application inside a benchmark fork.
+ *
+ * Settings are passed as command line arguments so they win over the
+ * profile files (application-h2.yml turns on show-sql and INFO logging,
+ * which would otherwise be measured along with the queries).
+ *
+ * @author jgomezm
+ *
+ */
+final class BenchmarkApplication {
+
+	private BenchmarkApplication() {
+	}
+
+	/**
+	 *
+	 * @param properties extra key=value properties
+	 * @return a context without the web server
+	 */
+	static ConfigurableApplicationContext start(String... properties) {
+		return run(WebApplicationType.NONE, properties);
+	}
+
+	/**
+	 *
+	 * @param properties extra key=value properties
+	 * @return a context with Tomcat listening on a random port (local.server.port)
+	 */
+	static ConfigurableApplicationContext startWeb(String... properties) {
+		return run(WebApplicationType.SERVLET, properties);
+	}
+
+	private static ConfigurableApplicationContext run(WebApplicationType webApplicationType, String... properties) {
+
+		List<String> args = new ArrayList<>(List.of("--logging.level.root=WARN", "--spring.jpa.show-sql=false",
+				"--server.port=0"));
+		for (String property : properties)
+			args.add("--" + property);
+
+		return new SpringApplicationBuilder(PetClinicApplication.class)
+				.web(webApplicationType)
+				.run(args.toArray(new String[0]));
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.repositories.PetRepository;
+import com.tecsup.petclinic.services.PetService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The datasource and Hibernate tuning of a profile against the library
+ * defaults (no JDBC batching, no statement ordering, no IN list padding
+ * and, on MySQL, no driver statement cache nor batch rewriting).
+ *
+ * H2 is measured by default. To compare the MySQL profile start the
+ * database of application-mysql.yml and add -p profile=mysql:
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes="DataSourceTuningBenchmark -p profile=mysql"
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataSourceTuningBenchmark {
+
+	private static final int ROWS = 10_000;
+
+	private static final int UPDATES = 100;
+
+	private static final int MAX_IDS = 100;
+
+	private static final int PAGE_SIZE = 50;
+
+	@Param({ "h2" })
+	public String profile;
+
+	@Param({ "tuned", "defaults" })
+	public String tuning;
+
+	private ConfigurableApplicationContext context;
+
+	private PetRepository petRepository;
+
+	private PetService petService;
+
+	private TransactionTemplate transactionTemplate;
+
+	private int[] ids;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+
+		List<String> properties = new ArrayList<>(List.of("spring.profiles.active=" + profile));
+		if ("defaults".equals(tuning)) {
+			properties.addAll(List.of(
+					"spring.jpa.properties.hibernate.jdbc.batch_size=0",
+					"spring.jpa.properties.hibernate.order_inserts=false",
+					"spring.jpa.properties.hibernate.order_updates=false",
+					"spring.jpa.properties.hibernate.query.in_clause_parameter_padding=false"));
+			// H2 rejects unknown connection settings, these only exist for MySQL Connector/J
+			if (!"h2".equals(profile))
+				properties.addAll(List.of(
+						"spring.datasource.hikari.data-source-properties.useServerPrepStmts=false",
+						"spring.datasource.hikari.data-source-properties.cachePrepStmts=false",
+						"spring.datasource.hikari.data-source-properties.rewriteBatchedStatements=false"));
+		}
+
+		context = BenchmarkApplication.start(properties.toArray(new String[0]));
+		petRepository = context.getBean(PetRepository.class);
+		petService = context.getBean(PetService.class);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+		JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+		PetSearchBenchmark.seed(jdbcTemplate, ROWS);
+		ids = jdbcTemplate.queryForList("SELECT id FROM pets", Integer.class).stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	// 100 managed pets changed in one transaction: one UPDATE per row, batched or not
+	@Benchmark
+	public int updateFlush() {
+		return transactionTemplate.execute(status -> {
+			List<Pet> pets = petRepository.findAllById(randomIds(UPDATES));
+			pets.forEach(pet -> pet.setName(pet.getName().length() > 20 ? "Bench" : pet.getName() + "x"));
+			return pets.size();
+		});
+	}
+
+	// IN lists of 1..100 ids: one query plan and statement per size, or per power of two when padded
+	@Benchmark
+	public List<Pet> findAllById() {
+		return petRepository.findAllById(randomIds(1 + ThreadLocalRandom.current().nextInt(MAX_IDS)));
+	}
+
+	// Concurrent short reads competing for the pool
+	@Benchmark
+	@Threads(16)
+	public List<PetDTO> concurrentPages() {
+		return petService.findPage(ids[ThreadLocalRandom.current().nextInt(ids.length)], PAGE_SIZE);
+	}
+
+	private List<Integer> randomIds(int count) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		List<Integer> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			result.add(ids[random.nextInt(ids.length)]);
+		return result;
+	}
+
+}
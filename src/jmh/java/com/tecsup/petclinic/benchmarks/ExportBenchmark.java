@@ -0,0 +1,107 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.services.ExportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Time to export the whole pets table (1M rows by default, seeded as in
+ * PetSearchBenchmark) to a stream that only counts the bytes. Each run
+ * prints the size of the export: MB/s = size / time. Run with -prof gc to
+ * check that the allocation per row stays flat with the table size.
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=ExportBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ExportBenchmark {
+
+	@Param("1000000")
+	public int rows;
+
+	@Param({ "CSV", "NDJSON" })
+	public ExportService.Format format;
+
+	@Param({ "false", "true" })
+	public boolean gzip;
+
+	private ConfigurableApplicationContext context;
+
+	private ExportService exportService;
+
+	private long bytes;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start();
+		exportService = context.getBean(ExportService.class);
+		PetSearchBenchmark.seed(context.getBean(JdbcTemplate.class), rows);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.out.printf("%nexport size: %.1f MB%n", bytes / 1e6);
+		context.close();
+	}
+
+	@Benchmark
+	public long export() throws IOException {
+
+		CountingOutputStream counter = new CountingOutputStream();
+		if (gzip) {
+			GZIPOutputStream out = new GZIPOutputStream(counter, 64 * 1024) {
+				{
+					def.setLevel(Deflater.BEST_SPEED);
+				}
+			};
+			exportService.export("pets", format, out);
+			out.finish();
+		} else {
+			exportService.export("pets", format, counter);
+		}
+		bytes = counter.count;
+		return bytes;
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+
+		long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.services.ForeignKeyValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking an owner_id: ForeignKeyValidator (bits) against a
+ * HashSet of Integer and the primary key lookup the insert would do,
+ * over the 10k owners seeded by PetSearchBenchmark; about a third of
+ * the ids checked exist.
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=ForeignKeyBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class ForeignKeyBenchmark {
+
+	private static final int IDS = 1 << 14;
+
+	private ConfigurableApplicationContext context;
+
+	private ForeignKeyValidator foreignKeys;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private Set<Integer> boxed;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start();
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		PetSearchBenchmark.seed(jdbcTemplate, 0);
+
+		foreignKeys = context.getBean(ForeignKeyValidator.class);
+		foreignKeys.rebuild();
+		boxed = new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM owners", Integer.class));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	// Ids 1000..33766 by steps of 2: owners are 1000..10999
+	private int nextId() {
+		next = (next + 2) & (2 * IDS - 1);
+		return next + 1_000;
+	}
+
+	@Benchmark
+	public boolean validator() {
+		return foreignKeys.exists(ForeignKeyValidator.OWNERS, nextId());
+	}
+
+	@Benchmark
+	public boolean boxedSet() {
+		return boxed.contains(nextId());
+	}
+
+	@Benchmark
+	public boolean database() {
+		return !jdbcTemplate.queryForList("SELECT 1 FROM owners WHERE id = ?", Integer.class, nextId()).isEmpty();
+	}
+
+}
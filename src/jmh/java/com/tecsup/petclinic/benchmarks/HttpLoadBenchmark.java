@@ -0,0 +1,102 @@
+package com.tecsup.petclinic.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of GET /pets and GET /vets over HTTP, with Tomcat on platform
+ * threads (default) and on virtual threads (profile virtual, Java 21+).
+ *
+ * Each operation sends `concurrency` requests at once and waits for all
+ * of them, so the score is the time to serve one wave of concurrent
+ * requests; requests/s = concurrency / score.
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=HttpLoadBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpLoadBenchmark {
+
+	@Param({ "platform", "virtual" })
+	public String threads;
+
+	@Param({ "50", "200", "800" })
+	public int concurrency;
+
+	@Param({ "/pets", "/vets" })
+	public String path;
+
+	private ConfigurableApplicationContext context;
+
+	private ExecutorService clientExecutor;
+
+	private HttpClient client;
+
+	private HttpRequest request;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		String profiles = "virtual".equals(threads) ? "h2,virtual" : "h2";
+		context = BenchmarkApplication.startWeb("spring.profiles.active=" + profiles);
+
+		String port = context.getEnvironment().getProperty("local.server.port");
+
+		clientExecutor = Executors.newFixedThreadPool(Math.min(concurrency, 64));
+		client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.executor(clientExecutor)
+				.build();
+		request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		clientExecutor.shutdownNow();
+		context.close();
+	}
+
+	@Benchmark
+	public int wave() {
+
+		CompletableFuture<?>[] responses = new CompletableFuture<?>[concurrency];
+		for (int i = 0; i < concurrency; i++)
+			responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+
+		CompletableFuture.allOf(responses).join();
+
+		int ok = 0;
+		for (CompletableFuture<?> response : responses)
+			if (((HttpResponse<?>) response.join()).statusCode() == 200)
+				ok++;
+		return ok;
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.ImportJobDTO;
+import com.tecsup.petclinic.services.ImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to import a CSV file of pets (200k rows by default) through
+ * ImportService, with the owner_id and type_id checks, one parser thread
+ * against one per CPU. Each run prints the rows/sec reported by the job.
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=ImportBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ImportBenchmark {
+
+	@Param("200000")
+	public int rows;
+
+	// 0: one parser thread per CPU
+	@Param({ "1", "0" })
+	public int parallelism;
+
+	private ConfigurableApplicationContext context;
+
+	private ImportService importService;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private Path file;
+
+	private int lastId;
+
+	private long rowsPerSecond;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		context = BenchmarkApplication.start("petclinic.import.parallelism=" + parallelism);
+		importService = context.getBean(ImportService.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+		// Owners 1000.. only, the pets come from the file
+		PetSearchBenchmark.seed(jdbcTemplate, 0);
+		lastId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM pets", Integer.class);
+
+		Random random = new Random(42);
+		file = Files.createTempFile("import-bench-", "-pets.csv");
+		try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+			writer.write("name,birth_date,type_id,owner_id\n");
+			for (int i = 0; i < rows; i++)
+				writer.write("Import" + i + ",2020-01-" + (10 + random.nextInt(20)) + "," + (1 + random.nextInt(6))
+						+ "," + (1_000 + random.nextInt(1_000)) + "\n");
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void clear() {
+		jdbcTemplate.update("DELETE FROM pets WHERE id > ?", lastId);
+		jdbcTemplate.update("DELETE FROM import_checkpoints");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		System.out.printf("%nrows/s: %d%n", rowsPerSecond);
+		context.close();
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public long importPets() {
+		ImportJobDTO job = importService.run("pets", file);
+		if (job.getImported() != rows)
+			throw new IllegalStateException(job.toString());
+		rowsPerSecond = job.getRowsPerSecond();
+		return job.getImported();
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.entities.Vet;
+import com.tecsup.petclinic.mapper.PetMapper;
+import com.tecsup.petclinic.mapper.VetMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List mapping cost of PetMapper and VetMapper, as done by every list endpoint.
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=MapperListBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperListBenchmark {
+
+	@Param({ "10", "1000", "10000" })
+	public int size;
+
+	private PetMapper petMapper;
+
+	private VetMapper vetMapper;
+
+	private List<Pet> pets;
+
+	private List<PetDTO> petDTOs;
+
+	private List<Vet> vets;
+
+	private List<VetDTO> vetDTOs;
+
+	@Setup
+	public void setUp() {
+		petMapper = PetMapper.INSTANCE;
+		vetMapper = VetMapper.INSTANCE;
+
+		pets = new ArrayList<>(size);
+		vets = new ArrayList<>(size);
+		for (int i = 1; i <= size; i++) {
+			pets.add(new Pet(i, "Pet" + i, 1 + i % 8, 1 + i % 10, LocalDate.of(2000, 1, 1).plusDays(i)));
+
+			Vet vet = new Vet();
+			vet.setId(i);
+			vet.setFirstName("First" + i);
+			vet.setLastName("Last" + i);
+			vet.setEmail("vet" + i + "@petclinic.com");
+			vet.setPhone("555-" + i);
+			vet.setActive(i % 5 != 0);
+			vets.add(vet);
+		}
+		petDTOs = petMapper.mapToDtoList(pets);
+		vetDTOs = vetMapper.mapToDtoList(vets);
+	}
+
+	@Benchmark
+	public List<PetDTO> petsToDto() {
+		return petMapper.mapToDtoList(pets);
+	}
+
+	@Benchmark
+	public List<Pet> petsToEntity() {
+		return petMapper.mapToEntityList(petDTOs);
+	}
+
+	@Benchmark
+	public List<VetDTO> vetsToDto() {
+		return vetMapper.mapToDtoList(vets);
+	}
+
+	@Benchmark
+	public List<Vet> vetsToEntity() {
+		return vetMapper.mapToEntityList(vetDTOs);
+	}
+
+}
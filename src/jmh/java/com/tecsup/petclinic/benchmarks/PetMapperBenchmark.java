@@ -0,0 +1,89 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.mapper.PetMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pet mapping throughput: the legacy SimpleDateFormat conversion
+ * (one formatter per call, java.util.Date) against the cached
+ * DateTimeFormatter / LocalDate path now used by PetMapper.
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=PetMapperBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PetMapperBenchmark {
+
+	private static final String BIRTH_DATE = "2000-09-07";
+
+	private PetMapper mapper;
+
+	private Pet pet;
+
+	private PetDTO petDTO;
+
+	private Date legacyBirthDate;
+
+	@Setup
+	public void setUp() throws ParseException {
+		mapper = PetMapper.INSTANCE;
+		pet = new Pet(1, "Leo", 1, 1, LocalDate.parse(BIRTH_DATE));
+		petDTO = new PetDTO(1, "Leo", 1, 1, BIRTH_DATE);
+		legacyBirthDate = new SimpleDateFormat("yyyy-MM-dd").parse(BIRTH_DATE);
+	}
+
+	@Benchmark
+	public Date legacyStringToDate() throws ParseException {
+		return new SimpleDateFormat("yyyy-MM-dd").parse(BIRTH_DATE);
+	}
+
+	@Benchmark
+	public String legacyDateToString() {
+		return new SimpleDateFormat("yyyy-MM-dd").format(legacyBirthDate);
+	}
+
+	@Benchmark
+	public LocalDate stringToDate() {
+		return mapper.stringToDate(BIRTH_DATE);
+	}
+
+	@Benchmark
+	public String dateToString() {
+		return mapper.dateToString(pet.getBirthDate());
+	}
+
+	@Benchmark
+	public PetDTO mapToDto() {
+		return mapper.mapToDto(pet);
+	}
+
+	@Benchmark
+	public Pet mapToEntity() {
+		return mapper.mapToEntity(petDTO);
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.PetSearchCriteria;
+import com.tecsup.petclinic.services.PetService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /pets/search query latency against a seeded pets table
+ * (1M rows by default, spread over 10k owners and the 8 pet types).
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=PetSearchBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class PetSearchBenchmark {
+
+	private static final int LIMIT = 50;
+
+	private static final int OWNERS = 10_000;
+
+	private static final int SEED_CHUNK = 10_000;
+
+	@Param("1000000")
+	public int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private PetService petService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start();
+		petService = context.getBean(PetService.class);
+		seed(context.getBean(JdbcTemplate.class), rows);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<PetDTO> byNamePrefix() {
+		return petService.search(PetSearchCriteria.builder().name("Ka").build(), null, LIMIT);
+	}
+
+	@Benchmark
+	public List<PetDTO> byOwnerAndNamePrefix() {
+		return petService.search(PetSearchCriteria.builder().ownerId(4242).name("K").build(), null, LIMIT);
+	}
+
+	@Benchmark
+	public List<PetDTO> byTypeAndBirthRange() {
+		return petService.search(PetSearchCriteria.builder()
+				.typeId(3)
+				.bornFrom(LocalDate.of(2010, 1, 1))
+				.bornTo(LocalDate.of(2010, 12, 31))
+				.build(), null, LIMIT);
+	}
+
+	@Benchmark
+	public List<PetDTO> byAllCriteria() {
+		return petService.search(PetSearchCriteria.builder()
+				.name("K")
+				.typeId(2)
+				.ownerId(4242)
+				.bornFrom(LocalDate.of(2000, 1, 1))
+				.bornTo(LocalDate.of(2020, 12, 31))
+				.build(), null, LIMIT);
+	}
+
+	static void seed(JdbcTemplate jdbcTemplate, int rows) {
+
+		Random random = new Random(42);
+
+		List<Object[]> owners = new ArrayList<>(SEED_CHUNK);
+		for (int id = 1_000; id < 1_000 + OWNERS; id++) {
+			owners.add(new Object[] { id, "Owner" + id, "Bench" + id });
+			if (owners.size() == SEED_CHUNK) {
+				jdbcTemplate.batchUpdate("INSERT INTO owners (id, first_name, last_name) VALUES (?, ?, ?)", owners);
+				owners.clear();
+			}
+		}
+		if (!owners.isEmpty())
+			jdbcTemplate.batchUpdate("INSERT INTO owners (id, first_name, last_name) VALUES (?, ?, ?)", owners);
+
+		List<Object[]> pets = new ArrayList<>(SEED_CHUNK);
+		for (int i = 0; i < rows; i++) {
+			pets.add(new Object[] {
+					randomName(random),
+					Date.valueOf(LocalDate.of(1995, 1, 1).plusDays(random.nextInt(30 * 365))),
+					1 + random.nextInt(8),
+					1_000 + random.nextInt(OWNERS) });
+			if (pets.size() == SEED_CHUNK) {
+				jdbcTemplate.batchUpdate("INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?)", pets);
+				pets.clear();
+			}
+		}
+		if (!pets.isEmpty())
+			jdbcTemplate.batchUpdate("INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?)", pets);
+	}
+
+	private static String randomName(Random random) {
+		char[] name = new char[6];
+		name[0] = (char) ('A' + random.nextInt(26));
+		for (int i = 1; i < name.length; i++)
+			name[i] = (char) ('a' + random.nextInt(26));
+		return new String(name);
+	}
+
+}
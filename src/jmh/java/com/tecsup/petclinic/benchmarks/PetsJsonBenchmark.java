@@ -0,0 +1,75 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecsup.petclinic.dtos.PetDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of the GET /pets payload: the whole list at once
+ * (GET /pets) against one pet at a time (GET /pets/stream).
+ * The output is discarded so only serialization is measured.
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=PetsJsonBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PetsJsonBenchmark {
+
+	@Param({ "13", "1000", "10000" })
+	public int size;
+
+	private ObjectMapper objectMapper;
+
+	private List<PetDTO> pets;
+
+	@Setup
+	public void setUp() {
+		// Same defaults as the ObjectMapper Spring Boot builds for the controllers
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+		pets = new ArrayList<>(size);
+		for (int i = 1; i <= size; i++)
+			pets.add(new PetDTO(i, "Pet" + i, 1 + i % 8, 1 + i % 10, "2000-09-07"));
+	}
+
+	@Benchmark
+	public void writeList() throws IOException {
+		objectMapper.writeValue(OutputStream.nullOutputStream(), pets);
+	}
+
+	@Benchmark
+	public void writeStream() throws IOException {
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+			generator.writeStartArray();
+			for (PetDTO pet : pets)
+				generator.writeObject(pet);
+			generator.writeEndArray();
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.entities.Vet;
+import com.tecsup.petclinic.mapper.PetMapper;
+import com.tecsup.petclinic.mapper.VetMapper;
+import com.tecsup.petclinic.services.PetService;
+import com.tecsup.petclinic.services.VetService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List views read as managed entities and mapped with MapStruct (the
+ * previous GET /pets and /vets path, here as a JPQL query of the
+ * benchmark) against DTO projections in a read-only transaction (the
+ * current one).
+ *
+ * Compare gc.alloc.rate.norm, the bytes allocated per call, added by
+ * the gc profiler of the benchmarks profile.
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=ProjectionReadBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionReadBenchmark {
+
+	private static final int ROWS = 10_000;
+
+	@Param({ "50", "1000" })
+	public int size;
+
+	private ConfigurableApplicationContext context;
+
+	private EntityManager entityManager;
+
+	private PetMapper petMapper;
+
+	private VetMapper vetMapper;
+
+	private PetService petService;
+
+	private VetService vetService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start();
+		entityManager = context.getBean(EntityManager.class);
+		petMapper = context.getBean(PetMapper.class);
+		vetMapper = context.getBean(VetMapper.class);
+		petService = context.getBean(PetService.class);
+		vetService = context.getBean(VetService.class);
+
+		JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+		PetSearchBenchmark.seed(jdbcTemplate, ROWS);
+
+		List<Object[]> vets = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++)
+			vets.add(new Object[] { "First" + i, "Last" + i, "vet" + i + "@petclinic.com", "555-" + i, i % 5 != 0 });
+		jdbcTemplate.batchUpdate("INSERT INTO vets (first_name, last_name, email, phone, active) VALUES (?, ?, ?, ?, ?)", vets);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<PetDTO> petsEntities() {
+		return petMapper.mapToDtoList(entityManager.createQuery("SELECT p FROM pets p ORDER BY p.id", Pet.class)
+				.setMaxResults(size).getResultList());
+	}
+
+	@Benchmark
+	public List<PetDTO> petsProjection() {
+		return petService.findPage(null, size);
+	}
+
+	@Benchmark
+	public List<VetDTO> vetsEntities() {
+		return vetMapper.mapToDtoList(entityManager.createQuery("SELECT v FROM vets v ORDER BY v.id", Vet.class)
+				.setMaxResults(size).getResultList());
+	}
+
+	@Benchmark
+	public List<VetDTO> vetsProjection() {
+		return vetService.findPage(null, size);
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.SearchHitDTO;
+import com.tecsup.petclinic.services.SearchIndex;
+import com.tecsup.petclinic.services.SearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /search latency on the Lucene index against the LIKE '%x%' scan it
+ * replaces, over a seeded pets table (100k rows by default, see
+ * PetSearchBenchmark.seed for the names).
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=SearchIndexBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class SearchIndexBenchmark {
+
+	private static final int LIMIT = 10;
+
+	@Param("100000")
+	public int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private SearchService searchService;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start();
+		searchService = context.getBean(SearchService.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		PetSearchBenchmark.seed(jdbcTemplate, rows);
+		context.getBean(SearchIndex.class).rebuild();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<SearchHitDTO> exactWord() {
+		return searchService.search("franklin", null, LIMIT);
+	}
+
+	@Benchmark
+	public List<SearchHitDTO> prefix() {
+		return searchService.search("kab", SearchIndex.PET, LIMIT);
+	}
+
+	@Benchmark
+	public List<SearchHitDTO> typo() {
+		return searchService.search("frankiln", null, LIMIT);
+	}
+
+	@Benchmark
+	public List<SearchHitDTO> twoWords() {
+		return searchService.search("geroge franklin", null, LIMIT);
+	}
+
+	@Benchmark
+	public List<String> likeScan() {
+		return jdbcTemplate.queryForList("SELECT name FROM pets WHERE LOWER(name) LIKE ? LIMIT " + LIMIT,
+				String.class, "%kab%");
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.tecsup.petclinic.benchmarks;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.services.PetService;
+import com.tecsup.petclinic.services.VetService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PetServiceImpl and VetServiceImpl against the embedded H2 database
+ * seeded by schema.sql/data.sql. The CRUD benchmarks create, update and
+ * delete one row each call, so the tables keep their size.
+ *
+ * mvn -P benchmarks test-compile exec:exec -Djmh.includes=ServiceCrudBenchmark
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceCrudBenchmark {
+
+	private static final int PAGE_SIZE = 50;
+
+	private ConfigurableApplicationContext context;
+
+	private PetService petService;
+
+	private VetService vetService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start();
+		petService = context.getBean(PetService.class);
+		vetService = context.getBean(VetService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	// Served from the pets cache after the first call
+	@Benchmark
+	public PetDTO petFindById() throws PetNotFoundException {
+		return petService.findById(1);
+	}
+
+	@Benchmark
+	public List<PetDTO> petFindPage() {
+		return petService.findPage(null, PAGE_SIZE);
+	}
+
+	@Benchmark
+	public PetDTO petCreateUpdateDelete() throws PetNotFoundException {
+		PetDTO pet = petService.create(PetDTO.builder().name("Bench").typeId(1).ownerId(1).birthDate("2020-01-01").build());
+		pet.setName("Bench2");
+		pet = petService.update(pet);
+		petService.delete(pet.getId());
+		return pet;
+	}
+
+	// Served from the vets cache after the first call
+	@Benchmark
+	public VetDTO vetFindById() throws VetNotFoundException {
+		return vetService.findById(1);
+	}
+
+	@Benchmark
+	public List<VetDTO> vetFindPage() {
+		return vetService.findPage(null, PAGE_SIZE);
+	}
+
+	@Benchmark
+	public VetDTO vetCreateUpdateDelete() throws VetNotFoundException {
+		VetDTO vet = vetService.create(VetDTO.builder().firstName("Bench").lastName("Mark")
+				.email("bench@petclinic.com").phone("555-0000").active(true).build());
+		vet.setLastName("Mark2");
+		vet = vetService.update(vet);
+		vetService.delete(vet.getId());
+		return vet;
+	}
+
+}
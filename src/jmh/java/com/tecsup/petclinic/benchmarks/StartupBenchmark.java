@@ -0,0 +1,69 @@
+package com.tecsup.petclinic.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of the web application: one start per fresh JVM, until the
+ * application is ready to serve requests on its port.
+ *
+ *   default  h2 profile: H2 console, indexes warmed up at startup
+ *   fast     h2,fast profiles: no H2 console, nothing warmed up, deferred JPA bootstrap
+ *   aot      as fast, with the bean definitions generated by the aot Maven profile
+ *
+ * aot needs the generated classes in target/classes:
+ *
+ * mvn -P aot,benchmarks -DskipTests package exec:exec -Djmh.includes="StartupBenchmark -p mode=default,fast,aot"
+ *
+ * The CDS archive only applies to the packaged jar, see the cds profile in the README.
+ *
+ * @author jgomezm
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+	@Param({ "default", "fast" })
+	public String mode;
+
+	private ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		if ("aot".equals(mode))
+			System.setProperty("spring.aot.enabled", "true");
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public ConfigurableApplicationContext start() {
+		context = "default".equals(mode)
+				? BenchmarkApplication.startWeb()
+				: BenchmarkApplication.startWeb("spring.profiles.active=h2,fast");
+		return context;
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.tecsup.petclinic.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Local (Caffeine) caches for entities and lookup tables.
+ *
+ * Entity caches use spring.cache.caffeine.spec. The types lookup table
+ * almost never changes, so it gets its own longer-lived spec from
+ * petclinic.cache.lookup-spec. Specialties are kept in SpecialtyCatalog.
+ *
+ * @author jgomezm
+ *
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	public static final String PETS = "pets";
+
+	public static final String PETS_BY_TYPE = "petsByType";
+
+	public static final String VETS = "vets";
+
+	public static final String VETS_BY_ACTIVE = "vetsByActive";
+
+	public static final String VETS_BY_LAST_NAME = "vetsByLastName";
+
+	public static final String TYPES = "types";
+
+	@Bean
+	CacheManagerCustomizer<CaffeineCacheManager> lookupCaches(@Value("${petclinic.cache.lookup-spec}") String lookupSpec) {
+		return cacheManager -> {
+			cacheManager.registerCustomCache(TYPES, Caffeine.from(lookupSpec).build());
+		};
+	}
+
+}
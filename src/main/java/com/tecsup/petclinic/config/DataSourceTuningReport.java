@@ -0,0 +1,104 @@
+package com.tecsup.petclinic.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.spi.QueryEngine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Logs the effective connection pool and Hibernate JDBC settings once at
+ * startup, as key=value pairs, so the tuning of the active profile can be
+ * checked from the log instead of by reading the merged yml files.
+ *
+ * Skipped when petclinic.startup.warm-up is off: reading the settings
+ * would start Hibernate before the first request needs it, so the
+ * datasource and the EntityManagerFactory are only resolved here.
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+@Slf4j
+public class DataSourceTuningReport {
+
+	private final ObjectProvider<DataSource> dataSource;
+
+	private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+	private final boolean warmUp;
+
+	public DataSourceTuningReport(ObjectProvider<DataSource> dataSource,
+								  ObjectProvider<EntityManagerFactory> entityManagerFactory,
+								  @Value("${petclinic.startup.warm-up:true}") boolean warmUp) {
+		this.dataSource = dataSource;
+		this.entityManagerFactory = entityManagerFactory;
+		this.warmUp = warmUp;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void report() {
+		if (!warmUp)
+			return;
+		log.info("op=datasource.tuning {}", pool());
+		log.info("op=hibernate.tuning {}", hibernate());
+	}
+
+	String pool() {
+
+		HikariDataSource hikari = unwrap();
+		if (hikari == null)
+			return "pool=" + dataSource.getObject().getClass().getSimpleName();
+
+		// Passwords are never part of the driver properties reported here
+		Map<Object, Object> driverProperties = new TreeMap<>(hikari.getDataSourceProperties());
+		driverProperties.keySet().removeIf(key -> key.toString().toLowerCase().contains("password"));
+
+		return "pool=" + hikari.getPoolName()
+				+ " max_pool_size=" + hikari.getMaximumPoolSize()
+				+ " min_idle=" + hikari.getMinimumIdle()
+				+ " connection_timeout_ms=" + hikari.getConnectionTimeout()
+				+ " max_lifetime_ms=" + hikari.getMaxLifetime()
+				+ " keepalive_ms=" + hikari.getKeepaliveTime()
+				+ " driver_properties=" + driverProperties;
+	}
+
+	String hibernate() {
+
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.getObject().unwrap(SessionFactoryImplementor.class);
+		SessionFactoryOptions options = sessionFactory.getSessionFactoryOptions();
+		Map<String, Object> properties = sessionFactory.getProperties();
+
+		return "dialect=" + sessionFactory.getJdbcServices().getDialect().getClass().getSimpleName()
+				+ " jdbc_batch_size=" + options.getJdbcBatchSize()
+				+ " order_inserts=" + options.isOrderInsertsEnabled()
+				+ " order_updates=" + options.isOrderUpdatesEnabled()
+				+ " in_clause_padding=" + options.inClauseParameterPaddingEnabled()
+				+ " plan_cache_max_size=" + properties.getOrDefault(AvailableSettings.QUERY_PLAN_CACHE_MAX_SIZE,
+						QueryEngine.DEFAULT_QUERY_PLAN_MAX_COUNT)
+				+ " fetch_batch_size=" + options.getDefaultBatchFetchSize()
+				+ " show_sql=" + properties.getOrDefault(AvailableSettings.SHOW_SQL, false);
+	}
+
+	private HikariDataSource unwrap() {
+		DataSource dataSource = this.dataSource.getObject();
+		try {
+			return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.tecsup.petclinic.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Checks that the virtual profile really runs on virtual threads.
+ *
+ * spring.threads.virtual.enabled is silently ignored before Java 21,
+ * so say it at startup instead of leaving the platform-thread pool in place unnoticed.
+ *
+ * @author jgomezm
+ *
+ */
+@Configuration
+@Profile("virtual")
+@Slf4j
+public class VirtualThreadsConfig {
+
+	static final int MIN_JAVA_VERSION = 21;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void checkJavaVersion() {
+
+		int version = Runtime.version().feature();
+
+		if (version < MIN_JAVA_VERSION)
+			log.warn("Profile 'virtual' needs Java {}+, running on Java {}: requests use platform threads",
+					MIN_JAVA_VERSION, version);
+		else
+			log.info("Profile 'virtual': requests and async tasks run on virtual threads");
+	}
+
+}
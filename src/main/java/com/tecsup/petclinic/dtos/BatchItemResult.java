@@ -0,0 +1,32 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch request
+ * 
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class BatchItemResult {
+
+	public enum Status { CREATED, UPDATED, DELETED, NOT_FOUND, FAILED }
+
+	// Position of the item in the request
+	private int index;
+
+	private Integer id;
+
+	private Status status;
+
+	private String message;
+
+}
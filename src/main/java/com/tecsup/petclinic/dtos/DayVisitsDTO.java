@@ -0,0 +1,33 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+
+/**
+ * Number of visits on a day, built by an aggregate query
+ * 
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class DayVisitsDTO {
+
+	private String day;
+
+	private long visits;
+
+	/**
+	 * Used by the aggregate queries of VisitRepository (JPQL constructor expression)
+	 */
+	public DayVisitsDTO(LocalDate day, Long visits) {
+		this(day.toString(), visits);
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Progress of a CSV import, as reported by /imports/{id}
+ * 
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ImportJobDTO {
+
+	public enum Status { RUNNING, COMPLETED, FAILED }
+
+	private String id;
+
+	private String entity;
+
+	private String file;
+
+	private Status status;
+
+	// Lines of a previous run that were already committed, skipped by this one
+	private long resumedAt;
+
+	// Lines read after the header, including the skipped ones
+	private long lines;
+
+	// Rows of the whole file, previous runs included
+	private long imported;
+
+	private long rejected;
+
+	// Lines read by this run per second
+	private long rowsPerSecond;
+
+	// The first rejected rows, as "line N: reason"
+	private List<String> errors;
+
+	private String message;
+
+}
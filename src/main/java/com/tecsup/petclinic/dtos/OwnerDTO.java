@@ -0,0 +1,40 @@
+package com.tecsup.petclinic.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+
+/**
+ * pets is only filled (and serialized) by the owner-with-pets view
+ * 
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class OwnerDTO {
+
+	private Integer id;
+
+	private String firstName;
+
+	private String lastName;
+
+	private String address;
+
+	private String city;
+
+	private String telephone;
+
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private List<PetDTO> pets;
+
+}
@@ -0,0 +1,28 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Number of pets of an owner, built by an aggregate query
+ * 
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class OwnerPetCountDTO {
+
+	private Integer ownerId;
+
+	private String firstName;
+
+	private String lastName;
+
+	private long petCount;
+
+}
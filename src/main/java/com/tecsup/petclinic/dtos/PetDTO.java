@@ -1,10 +1,12 @@
 package com.tecsup.petclinic.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 
 /**
  * 
@@ -28,4 +30,20 @@ public class PetDTO {
 
 	private String birthDate;
 
+	// Sent in the ETag / If-Match headers, not in the body
+	@JsonIgnore
+	private Integer version;
+
+	public PetDTO(Integer id, String name, int typeId, int ownerId, String birthDate) {
+		this(id, name, typeId, ownerId, birthDate, null);
+	}
+
+	/**
+	 * Used by the projection queries of PetRepository (JPQL constructor expression).
+	 * A missing birth date is "", as PetMapper.dateToString writes it
+	 */
+	public PetDTO(Integer id, String name, int typeId, int ownerId, LocalDate birthDate) {
+		this(id, name, typeId, ownerId, birthDate == null ? "" : birthDate.toString());
+	}
+
 }
@@ -0,0 +1,24 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Number of visits of the pets of a type, built by an aggregate query
+ * 
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class PetTypeVisitsDTO {
+
+	private Integer typeId;
+
+	private long visits;
+
+}
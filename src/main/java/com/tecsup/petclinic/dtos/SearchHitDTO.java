@@ -0,0 +1,28 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * A pet, owner or vet found by /search, e.g. type vet, id 3, label Linda Douglas
+ * 
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class SearchHitDTO {
+
+	private String type;
+
+	private Integer id;
+
+	private String label;
+
+	private float score;
+
+}
@@ -0,0 +1,30 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class SpecialtyDTO {
+
+	private Integer id;
+
+	private String name;
+
+	private String office;
+
+	private Integer openHour;
+
+	private Integer closeHour;
+
+}
@@ -1,5 +1,6 @@
 package com.tecsup.petclinic.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -30,4 +31,15 @@ public class VetDTO {
 	
 	private Boolean active;
 
+	// Viaja en las cabeceras ETag / If-Match, no en el cuerpo
+	@JsonIgnore
+	private Integer version;
+
+	/**
+	 * Usado por las consultas de proyección de VetRepository
+	 */
+	public VetDTO(Integer id, String firstName, String lastName, String email, String phone, Boolean active) {
+		this(id, firstName, lastName, email, phone, active, null);
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+
+/**
+ * Visits and revenue of a vet in a month, e.g. month 2024-01.
+ * vetId is null for the visits of deleted vets.
+ * 
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class VetMonthRevenueDTO {
+
+	private Integer vetId;
+
+	private String month;
+
+	private long visits;
+
+	private BigDecimal revenue;
+
+	/**
+	 * Used by the aggregate queries of VisitRepository (JPQL constructor expression)
+	 */
+	public VetMonthRevenueDTO(Integer vetId, Integer year, Integer month, Long visits, BigDecimal revenue) {
+		this(vetId, YearMonth.of(year, month).toString(), visits, revenue == null ? BigDecimal.ZERO : revenue);
+	}
+
+}
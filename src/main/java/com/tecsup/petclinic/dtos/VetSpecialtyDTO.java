@@ -0,0 +1,52 @@
+package com.tecsup.petclinic.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A vet in a specialty. Filled from the vet side (/vets/{id}/specialties,
+ * with the specialty name) or from the specialty side (/specialties/{id}/vets,
+ * with the vet name); the fields of the other side are left out.
+ *
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VetSpecialtyDTO {
+
+	private Integer vetId;
+
+	private String firstName;
+
+	private String lastName;
+
+	private Integer specialtyId;
+
+	private String specialtyName;
+
+	private Integer yearsExperience;
+
+	private Boolean primary;
+
+	private String certificationDate;
+
+	/**
+	 * Used by the ranking query (JPQL constructor expression)
+	 */
+	public VetSpecialtyDTO(Integer vetId, String firstName, String lastName, Integer specialtyId,
+						   Integer yearsExperience, Boolean primary, LocalDate certificationDate) {
+		this(vetId, firstName, lastName, specialtyId, null, yearsExperience, primary,
+				certificationDate == null ? null : certificationDate.toString());
+	}
+
+}
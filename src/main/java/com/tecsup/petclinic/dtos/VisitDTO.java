@@ -0,0 +1,38 @@
+package com.tecsup.petclinic.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+
+/**
+ * 
+ * @author jgomezm
+ *
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class VisitDTO {
+
+	private Long id;
+
+	private Integer petId;
+
+	private Integer vetId;
+
+	private String visitDate;
+
+	// HH:mm, the start of a slot; the first free one when left out of a booking
+	private String visitTime;
+
+	private String description;
+
+	private BigDecimal cost;
+
+}
@@ -2,25 +2,37 @@ package com.tecsup.petclinic.entities;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import lombok.Data;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Set;
 
 /**
+ * equals/hashCode use the id only and toString skips the pets,
+ * so neither of them can load the lazy collection.
  * 
  * @author jgomezm
  *
  */
 @NoArgsConstructor
 @Entity(name = "owners")
-@Data
+@Getter
+@Setter
+@ToString
 public class Owner {
 
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
-	private Long id;
+	private Integer id;
 
 	@Column(name = "first_name")
 	private String firstName;
@@ -37,8 +49,24 @@ public class Owner {
 	@Column(name = "telephone")
 	private String telephone;
 
-//	@OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-//	@ToString.Exclude
-//	// @EqualsAndHashCode.Exclude
-//	private Set<Pet> pets;
-}
\ No newline at end of file
+	// Read-only view of pets.owner_id, pets are still written through Pet.ownerId
+	@OneToMany(fetch = FetchType.LAZY)
+	@JoinColumn(name = "owner_id", insertable = false, updatable = false)
+	@OrderBy("id")
+	@ToString.Exclude
+	private Set<Pet> pets;
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof Owner))
+			return false;
+		return id != null && id.equals(((Owner) o).getId());
+	}
+
+	@Override
+	public int hashCode() {
+		return Owner.class.hashCode();
+	}
+}
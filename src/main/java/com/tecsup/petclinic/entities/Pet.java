@@ -1,23 +1,28 @@
 package com.tecsup.petclinic.entities;
 
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import jakarta.persistence.*;
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.Set;
 
 /**
+ * equals/hashCode use the id only and toString skips the visits,
+ * so neither of them can load the lazy collection.
  * 
  * @author jgomezm
  *
  */
 @NoArgsConstructor
 @Entity(name = "pets")
-@Data
+@Getter
+@Setter
+@ToString
 public class Pet {
 
 	@Id
@@ -35,12 +40,18 @@ public class Pet {
 
 	@DateTimeFormat(pattern = "yyyy-MM-dd")
 	@Column(name = "birth_date")
-	private Date birthDate;
+	private LocalDate birthDate;
 
+	// Bumped by every update, published as the ETag of /pets/{id}
+	@Version
+	@Column(name = "version")
+	private Integer version;
 
+
+	// Loaded for up to 100 pets per query when several collections are touched
 	@OneToMany(mappedBy = "pet", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+	@BatchSize(size = 100)
 	@ToString.Exclude
-	//@EqualsAndHashCode.Exclude
 	private Set<Visit> visits;
 
 //	@ManyToOne(fetch = FetchType.LAZY)
@@ -53,7 +64,7 @@ public class Pet {
 //	@ToString.Exclude
 //	private Owner owner;
 
-	public Pet(Integer id, String name, int type_id, int owner_id, Date birthDate) {
+	public Pet(Integer id, String name, int type_id, int owner_id, LocalDate birthDate) {
 		super();
 		this.id = id;
 		this.name = name;
@@ -63,11 +74,27 @@ public class Pet {
 
 	}
 
-	public Pet(String name, int type_id, int owner_id, Date birthDate) {
+	public Pet(String name, int type_id, int owner_id, LocalDate birthDate) {
 		super();
 		this.name = name;
 		this.typeId = type_id;
 		this.ownerId = owner_id;
 		this.birthDate = birthDate;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof Pet))
+			return false;
+		// getId() so an uninitialized proxy is compared without being loaded
+		return id != null && id.equals(((Pet) o).getId());
+	}
+
+	@Override
+	public int hashCode() {
+		// Constant, so the hash does not change when the id is assigned on persist
+		return Pet.class.hashCode();
+	}
+}
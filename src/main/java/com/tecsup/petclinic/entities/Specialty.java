@@ -1,25 +1,26 @@
 package com.tecsup.petclinic.entities;
 
-import java.util.Set;
+import com.tecsup.petclinic.services.SpecialtyChangeListener;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.ManyToMany;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.ToString;
 
 /**
+ * Vets are reached through VetSpecialty (vet_specialties), which
+ * carries the experience of each vet in the specialty.
  * 
  * @author jgomezm
  *
  */
 @NoArgsConstructor
 @Entity(name = "specialties")
+@EntityListeners(SpecialtyChangeListener.class)
 @Data
 public class Specialty {
 
@@ -30,8 +31,13 @@ public class Specialty {
 	@Column(name = "name")
 	private String name;
 
-	//@ManyToMany(mappedBy = "specialties", fetch = FetchType.LAZY)
-	//@ToString.Exclude
-	//@EqualsAndHashCode.Exclude
-	//private Set<Vet> vets;
-}
\ No newline at end of file
+	@Column(name = "office")
+	private String office;
+
+	@Column(name = "h_open")
+	private Integer openHour;
+
+	@Column(name = "h_close")
+	private Integer closeHour;
+
+}
@@ -34,4 +34,9 @@ public class Vet {
 	@Column(name = "active")
 	private Boolean active;
 
+	// Se incrementa en cada actualización; es el ETag de /vets/{id}
+	@Version
+	@Column(name = "version")
+	private Integer version;
+
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.tecsup.petclinic.entities;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad VetSpecialty: especialidad de un veterinario (vet_specialties)
+ *
+ * Solo guarda los ids; veterinarios y especialidades se resuelven por
+ * join o desde SpecialtyCatalog.
+ * 
+ * @author jgomezm
+ *
+ */
+@NoArgsConstructor
+@Entity(name = "vet_specialties")
+@Data
+public class VetSpecialty {
+
+	@EmbeddedId
+	private VetSpecialtyId id;
+
+	@Column(name = "certification_date")
+	private LocalDate certificationDate;
+
+	@Column(name = "years_experience")
+	private Integer yearsExperience;
+
+	@Column(name = "is_primary")
+	private Boolean primary;
+
+	@Column(name = "notes")
+	private String notes;
+
+}
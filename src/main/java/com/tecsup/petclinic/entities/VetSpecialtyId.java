@@ -0,0 +1,31 @@
+package com.tecsup.petclinic.entities;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clave de vet_specialties
+ * 
+ * @author jgomezm
+ *
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+@Data
+public class VetSpecialtyId implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Column(name = "vet_id")
+	private Integer vetId;
+
+	@Column(name = "specialty_id")
+	private Integer specialtyId;
+
+}
@@ -1,20 +1,27 @@
 package com.tecsup.petclinic.entities;
 
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalTime;
 
 /**
+ * equals/hashCode use the id only and toString skips the pet,
+ * so neither of them can load the lazy association.
  * 
  * @author jgomezm
  *
  */
 @NoArgsConstructor
 @Entity(name = "visits")
-@Data
+@Getter
+@Setter
+@ToString
 public class Visit {
 
 	@Id
@@ -24,11 +31,35 @@ public class Visit {
 	@Column(name = "visit_date")
 	private LocalDate visitDate;
 
+	// Start of the slot, see VetAvailabilityIndex
+	@Column(name = "visit_time")
+	private LocalTime visitTime;
+
 	@Column(name = "description")
 	private String description;
 
+	@Column(name = "vet_id")
+	private Integer vetId;
+
+	@Column(name = "cost")
+	private BigDecimal cost;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "pet_id")
-	//@ToString.Exclude
+	@ToString.Exclude
 	private Pet pet;
-}
\ No newline at end of file
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof Visit))
+			return false;
+		return id != null && id.equals(((Visit) o).getId());
+	}
+
+	@Override
+	public int hashCode() {
+		return Visit.class.hashCode();
+	}
+}
@@ -0,0 +1,24 @@
+package com.tecsup.petclinic.exceptions;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * A write points to an owner, type or vet that does not exist.
+ * Thrown before the write is sent, as the foreign key violation the
+ * database would have raised, so callers handle both the same way.
+ * 
+ * @author jgomezm
+ *
+ */
+public class InvalidReferenceException extends DataIntegrityViolationException {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public InvalidReferenceException(String message) {
+		super(message);
+	}
+
+}
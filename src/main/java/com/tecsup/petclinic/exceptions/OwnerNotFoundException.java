@@ -0,0 +1,19 @@
+package com.tecsup.petclinic.exceptions;
+
+/**
+ * 
+ * @author jgomezm
+ *
+ */
+public class OwnerNotFoundException extends Exception {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public OwnerNotFoundException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.tecsup.petclinic.exceptions;
+
+/**
+ * Excepción para cuando no se encuentra una Especialidad
+ * 
+ * @author jgomezm
+ *
+ */
+public class SpecialtyNotFoundException extends Exception {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public SpecialtyNotFoundException(String message) {
+		super(message);
+	}
+
+}
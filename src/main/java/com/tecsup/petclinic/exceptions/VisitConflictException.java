@@ -0,0 +1,20 @@
+package com.tecsup.petclinic.exceptions;
+
+/**
+ * The vet already has a visit that day, or cannot take visits
+ * 
+ * @author jgomezm
+ *
+ */
+public class VisitConflictException extends Exception {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public VisitConflictException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.tecsup.petclinic.logging;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Summary logging for finder and list paths.
+ *
+ * Each call writes one key=value line (operation, row count, elapsed time)
+ * instead of one line per row. At DEBUG every summary is written, at INFO
+ * only one out of petclinic.logging.sample-rate. Rows themselves are only
+ * written at TRACE, and only when petclinic.logging.trace-entities is on.
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+public class QueryLogger {
+
+	private final boolean traceEntities;
+
+	private final int sampleRate;
+
+	private final AtomicLong calls = new AtomicLong();
+
+	public QueryLogger(@Value("${petclinic.logging.trace-entities:false}") boolean traceEntities,
+					   @Value("${petclinic.logging.sample-rate:1}") int sampleRate) {
+		this.traceEntities = traceEntities;
+		this.sampleRate = Math.max(1, sampleRate);
+	}
+
+	/**
+	 *
+	 * @return start mark to pass to rows/summary
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Log the result of a finder and hand the rows back unchanged
+	 *
+	 * @param log logger of the calling class
+	 * @param operation
+	 * @param start value returned by start()
+	 * @param rows
+	 * @return rows
+	 */
+	public <T> List<T> rows(Logger log, String operation, long start, List<T> rows) {
+
+		summary(log, operation, start, rows.size());
+
+		if (traceEntities && log.isTraceEnabled())
+			rows.forEach(row -> log.trace("op={} row={}", operation, row));
+
+		return rows;
+	}
+
+	/**
+	 * Log a row count for paths that never hold the rows in a list
+	 *
+	 * @param log logger of the calling class
+	 * @param operation
+	 * @param start value returned by start()
+	 * @param count
+	 */
+	public void summary(Logger log, String operation, long start, long count) {
+
+		if (log.isDebugEnabled()) {
+			log.debug("op={} rows={} took_us={}", operation, count, elapsedMicros(start));
+		} else if (log.isInfoEnabled() && sampled()) {
+			log.info("op={} rows={} took_us={}", operation, count, elapsedMicros(start));
+		}
+	}
+
+	/**
+	 *
+	 * @return true when per-row trace lines are enabled
+	 */
+	public boolean isTracing(Logger log) {
+		return traceEntities && log.isTraceEnabled();
+	}
+
+	private boolean sampled() {
+		return sampleRate == 1 || calls.getAndIncrement() % sampleRate == 0;
+	}
+
+	private static long elapsedMicros(long start) {
+		return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+	}
+
+}
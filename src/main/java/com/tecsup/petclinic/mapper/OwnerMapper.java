@@ -0,0 +1,33 @@
+package com.tecsup.petclinic.mapper;
+
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.entities.Owner;
+import org.mapstruct.IterableMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+import org.mapstruct.NullValueMappingStrategy;
+
+import java.util.List;
+
+/**
+ * pets is only mapped by mapToDtoWithPets, so list views never touch
+ * the lazy collection
+ */
+@Mapper(componentModel = "spring", nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT,
+		uses = PetMapper.class)
+public interface OwnerMapper {
+
+	@Mapping(target = "pets", ignore = true)
+	Owner mapToEntity(OwnerDTO ownerDTO);
+
+	@Named("summary")
+	@Mapping(target = "pets", ignore = true)
+	OwnerDTO mapToDto(Owner owner);
+
+	OwnerDTO mapToDtoWithPets(Owner owner);
+
+	@IterableMapping(qualifiedByName = "summary")
+	List<OwnerDTO> mapToDtoList(List<Owner> ownerList);
+
+}
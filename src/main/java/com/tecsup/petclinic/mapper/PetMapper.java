@@ -2,15 +2,14 @@ package com.tecsup.petclinic.mapper;
 
 import com.tecsup.petclinic.dtos.PetDTO;
 import com.tecsup.petclinic.entities.Pet;
-import lombok.extern.slf4j.Slf4j;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.NullValueMappingStrategy;
 import org.mapstruct.factory.Mappers;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 
@@ -19,35 +18,41 @@ public interface PetMapper {
 
 	PetMapper INSTANCE = Mappers.getMapper(PetMapper.class);
 
+	/**
+	 * yyyy-MM-dd, immutable and thread-safe so it is shared by every conversion
+	 */
+	DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+
 	//@Mapping(target = "name", source = "name")
 	@Mapping(source = "birthDate", target = "birthDate")
 	Pet mapToEntity(PetDTO petTO);
 
-    default Date stringToDate(String dateStr) {
-        System.out.println("Converting string to date: " + dateStr);
+	/**
+	 * Unparseable dates are mapped to null, as before.
+	 *
+	 * @param dateStr
+	 * @return
+	 */
+    default LocalDate stringToDate(String dateStr) {
 
         if (dateStr == null || dateStr.isEmpty()) {
             return null;
         }
 
-        Date date = null;
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
         try {
-            date = dateFormat.parse(dateStr);
-        } catch (ParseException e) {
-            e.printStackTrace();
+            return LocalDate.parse(dateStr, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
         }
-        return date;
 	}
 
 	@Mapping(source = "birthDate", target = "birthDate")
 	PetDTO mapToDto(Pet pet);
 
-	default String dateToString(Date date) {
+	default String dateToString(LocalDate date) {
 
 		if (date != null ) {
-			SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-			return dateFormat.format(date);
+			return DATE_FORMATTER.format(date);
 		} else {
 			return "";
 		}
@@ -0,0 +1,37 @@
+package com.tecsup.petclinic.mapper;
+
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
+import com.tecsup.petclinic.entities.Specialty;
+import com.tecsup.petclinic.entities.VetSpecialty;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.NullValueMappingStrategy;
+
+import java.util.List;
+
+/**
+ * Mapper para Specialty y VetSpecialty; las fechas usan los métodos de PetMapper
+ * 
+ * @author jgomezm
+ *
+ */
+@Mapper(componentModel = "spring", nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT,
+		uses = PetMapper.class)
+public interface SpecialtyMapper {
+
+	Specialty mapToEntity(SpecialtyDTO specialtyDTO);
+
+	SpecialtyDTO mapToDto(Specialty specialty);
+
+	// el nombre de la especialidad se completa desde SpecialtyCatalog
+	@Mapping(source = "id.vetId", target = "vetId")
+	@Mapping(source = "id.specialtyId", target = "specialtyId")
+	@Mapping(target = "firstName", ignore = true)
+	@Mapping(target = "lastName", ignore = true)
+	@Mapping(target = "specialtyName", ignore = true)
+	VetSpecialtyDTO mapToDto(VetSpecialty vetSpecialty);
+
+	List<VetSpecialtyDTO> mapToVetSpecialtyDtoList(List<VetSpecialty> vetSpecialties);
+
+}
@@ -0,0 +1,57 @@
+package com.tecsup.petclinic.mapper;
+
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.entities.Visit;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.NullValueMappingStrategy;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Dates are converted with the PetMapper methods (yyyy-MM-dd), times as HH:mm
+ */
+@Mapper(componentModel = "spring", nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT,
+		uses = PetMapper.class)
+public interface VisitMapper {
+
+	DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+	// pet.id is read from the proxy, the pet itself is not loaded
+	@Mapping(source = "pet.id", target = "petId")
+	VisitDTO mapToDto(Visit visit);
+
+	// the pet is set by the caller from petId
+	@Mapping(target = "pet", ignore = true)
+	Visit mapToEntity(VisitDTO visitDTO);
+
+	List<VisitDTO> mapToDtoList(Collection<Visit> visits);
+
+	/**
+	 * Unparseable times are mapped to null, like dates
+	 *
+	 * @param timeStr HH:mm or HH:mm:ss
+	 * @return
+	 */
+	default LocalTime stringToTime(String timeStr) {
+
+		if (timeStr == null || timeStr.isEmpty()) {
+			return null;
+		}
+
+		try {
+			return LocalTime.parse(timeStr);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	default String timeToString(LocalTime time) {
+		return time != null ? TIME_FORMATTER.format(time) : "";
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.tecsup.petclinic.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the not-found results returned by the controllers, as
+ * petclinic.not.found{exception, operation} (petclinic_not_found_total
+ * in Prometheus).
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+public class NotFoundMetrics {
+
+	public static final String NAME = "petclinic.not.found";
+
+	private final MeterRegistry registry;
+
+	public NotFoundMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 *
+	 * @param e the not-found exception, e.g. PetNotFoundException
+	 * @param operation controller operation, e.g. pets.findById
+	 */
+	public void record(Exception e, String operation) {
+		Counter.builder(NAME)
+				.description("Requests answered with 404 because the record does not exist")
+				.tag("exception", e.getClass().getSimpleName())
+				.tag("operation", operation)
+				.register(registry)
+				.increment();
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.tecsup.petclinic.repositories;
+
+/**
+ * LIKE patterns for prefix searches.
+ *
+ * A fixed prefix followed by % can be answered with a range scan on an
+ * index, so wildcards typed by the user are escaped with ESCAPE.
+ *
+ * @author jgomezm
+ *
+ */
+public final class LikePatterns {
+
+	public static final char ESCAPE = '\\';
+
+	private LikePatterns() {
+	}
+
+	/**
+	 *
+	 * @param prefix
+	 * @return prefix with %, _ and \ escaped, followed by %
+	 */
+	public static String startingWith(String prefix) {
+		return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.tecsup.petclinic.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tecsup.petclinic.dtos.OwnerPetCountDTO;
+import com.tecsup.petclinic.entities.Owner;
+
+/**
+ * Served by OwnerController, not exported by Spring Data REST
+ * 
+ * @author jgomezm
+ *
+ */
+@Repository
+@RepositoryRestResource(exported = false)
+public interface OwnerRepository extends JpaRepository<Owner, Integer> {
+
+	// Fetch owners whose last name starts with the given prefix (range scan on idx_owners_last_name)
+	List<Owner> findByLastNameStartingWithOrderByLastNameAscFirstNameAsc(String lastName);
+
+	@Override
+	List<Owner> findAll();
+
+	// Fetch an owner and its pets in one query
+	@Query("SELECT o FROM owners o LEFT JOIN FETCH o.pets WHERE o.id = :id")
+	Optional<Owner> findWithPetsById(@Param("id") Integer id);
+
+	// Pets per owner, counted by the database
+	@Query("SELECT new com.tecsup.petclinic.dtos.OwnerPetCountDTO(o.id, o.firstName, o.lastName, COUNT(p.id)) "
+			+ "FROM owners o LEFT JOIN o.pets p "
+			+ "GROUP BY o.id, o.firstName, o.lastName ORDER BY o.id")
+	List<OwnerPetCountDTO> countPets();
+
+	// Pets per owner for the owners whose last name matches a LikePatterns.startingWith pattern
+	@Query("SELECT new com.tecsup.petclinic.dtos.OwnerPetCountDTO(o.id, o.firstName, o.lastName, COUNT(p.id)) "
+			+ "FROM owners o LEFT JOIN o.pets p WHERE o.lastName LIKE :pattern ESCAPE '\\' "
+			+ "GROUP BY o.id, o.firstName, o.lastName ORDER BY o.id")
+	List<OwnerPetCountDTO> countPetsByLastNameLike(@Param("pattern") String pattern);
+
+	// Update an owner in one statement, returns the number of rows updated
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE owners o SET o.firstName = :firstName, o.lastName = :lastName, o.address = :address, "
+			+ "o.city = :city, o.telephone = :telephone WHERE o.id = :id")
+	int updateOwner(@Param("id") Integer id, @Param("firstName") String firstName, @Param("lastName") String lastName,
+					@Param("address") String address, @Param("city") String city, @Param("telephone") String telephone);
+
+	// Delete an owner in one statement (pets go with it, ON DELETE CASCADE), returns the number of rows deleted
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM owners o WHERE o.id = :id")
+	int deleteOwner(@Param("id") Integer id);
+
+}
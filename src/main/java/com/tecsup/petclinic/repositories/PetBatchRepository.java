@@ -0,0 +1,131 @@
+package com.tecsup.petclinic.repositories;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.tecsup.petclinic.entities.Pet;
+
+/**
+ * JDBC batch writes for pets.
+ *
+ * Hibernate cannot batch inserts for IDENTITY ids, so bulk writes go
+ * through plain batched statements; generated ids are read back from
+ * the batch.
+ *
+ * @author jgomezm
+ *
+ */
+@Repository
+public class PetBatchRepository {
+
+	private static final String INSERT_SQL =
+			"INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?)";
+
+	private static final String UPDATE_SQL =
+			"UPDATE pets SET name = ?, type_id = ?, owner_id = ?, birth_date = COALESCE(?, birth_date), "
+			+ "version = version + 1 WHERE id = ?";
+
+	private static final String DELETE_SQL = "DELETE FROM pets WHERE id = ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public PetBatchRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Insert all pets in one JDBC batch and set their generated ids
+	 *
+	 * @param pets
+	 */
+	public void insertAll(List<Pet> pets) {
+
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+
+		jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						Pet pet = pets.get(i);
+						ps.setString(1, pet.getName());
+						setDate(ps, 2, pet);
+						ps.setInt(3, pet.getTypeId());
+						ps.setInt(4, pet.getOwnerId());
+					}
+
+					@Override
+					public int getBatchSize() {
+						return pets.size();
+					}
+				}, keyHolder);
+
+		List<Map<String, Object>> keys = keyHolder.getKeyList();
+		for (int i = 0; i < pets.size(); i++)
+			pets.get(i).setId(((Number) keys.get(i).values().iterator().next()).intValue());
+	}
+
+	/**
+	 * Update all pets in one JDBC batch
+	 *
+	 * @param pets
+	 * @return affected rows per pet
+	 */
+	public int[] updateAll(List<Pet> pets) {
+
+		return jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				Pet pet = pets.get(i);
+				ps.setString(1, pet.getName());
+				ps.setInt(2, pet.getTypeId());
+				ps.setInt(3, pet.getOwnerId());
+				setDate(ps, 4, pet);
+				ps.setObject(5, pet.getId(), Types.INTEGER);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return pets.size();
+			}
+		});
+	}
+
+	/**
+	 * Delete all pets in one JDBC batch
+	 *
+	 * @param ids
+	 * @return affected rows per id
+	 */
+	public int[] deleteAll(List<Integer> ids) {
+
+		return jdbcTemplate.batchUpdate(DELETE_SQL, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				ps.setObject(1, ids.get(i), Types.INTEGER);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return ids.size();
+			}
+		});
+	}
+
+	private static void setDate(PreparedStatement ps, int index, Pet pet) throws SQLException {
+		if (pet.getBirthDate() != null)
+			ps.setDate(index, Date.valueOf(pet.getBirthDate()));
+		else
+			ps.setNull(index, Types.DATE);
+	}
+
+}
@@ -1,34 +1,107 @@
 package com.tecsup.petclinic.repositories;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.tecsup.petclinic.config.CacheConfig;
+import com.tecsup.petclinic.dtos.PetDTO;
 import com.tecsup.petclinic.entities.Pet;
 
+import jakarta.persistence.QueryHint;
+
 /**
+ * Served by PetController, not exported by Spring Data REST: writes
+ * through /api would skip the cache evictions of PetService.
  * 
  * @author jgomezm
  *
  */
 @Repository
+@RepositoryRestResource(exported = false)
 public interface PetRepository 
-	extends JpaRepository<Pet, Integer> {
+	extends JpaRepository<Pet, Integer>, JpaSpecificationExecutor<Pet> {
 
 	// Fetch pets by name
 	List<Pet> findByName(String name);
 
 	// Fetch pets by typeId
+	@Cacheable(CacheConfig.PETS_BY_TYPE)
 	List<Pet> findByTypeId(int typeId);
 
 	// Fetch pets by ownerId
 	List<Pet> findByOwnerId(int ownerId);
 
 	// Fetch pets by Id
+	@Override
+	@Cacheable(cacheNames = CacheConfig.PETS, unless = "#result == null")
+	Optional<Pet> findById(Integer id);
+
+	// Fetch the stored row, bypassing the cache (e.g. right after updatePet)
+	@Query("SELECT p FROM pets p WHERE p.id = :id")
+	Optional<Pet> findStoredById(@Param("id") Integer id);
 
 	@Override
 	List<Pet> findAll();
 
+	// Fetch a pet and its visits in one query
+	@Query("SELECT p FROM pets p LEFT JOIN FETCH p.visits WHERE p.id = :id")
+	Optional<Pet> findWithVisitsById(@Param("id") Integer id);
+
+	// Fetch several pets and their visits in one query
+	@Query("SELECT DISTINCT p FROM pets p LEFT JOIN FETCH p.visits WHERE p.id IN :ids")
+	List<Pet> findWithVisitsByIdIn(@Param("ids") Collection<Integer> ids);
+
+	// Read-only list views: rows go straight into PetDTO, no managed entity is created
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	@Query("SELECT new com.tecsup.petclinic.dtos.PetDTO(p.id, p.name, p.typeId, p.ownerId, p.birthDate) "
+			+ "FROM pets p ORDER BY p.id")
+	List<PetDTO> findAllDtos();
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	@Query("SELECT new com.tecsup.petclinic.dtos.PetDTO(p.id, p.name, p.typeId, p.ownerId, p.birthDate) "
+			+ "FROM pets p WHERE p.id > :after ORDER BY p.id")
+	List<PetDTO> findDtoPage(@Param("after") Integer after, Limit limit);
+
+	// Stream all pets ordered by id, reading from a JDBC cursor
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("SELECT p FROM pets p ORDER BY p.id")
+	Stream<Pet> streamAll();
+
+	// Update a pet in one statement, keeping the birth date when none is given, and bump its version.
+	// With a version, only that version is updated (optimistic check).
+	// Returns the number of rows updated (0 when the id does not exist or the version is stale)
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE pets p SET p.name = :name, p.typeId = :typeId, p.ownerId = :ownerId, "
+			+ "p.birthDate = COALESCE(:birthDate, p.birthDate), p.version = p.version + 1 "
+			+ "WHERE p.id = :id AND (:version IS NULL OR p.version = :version)")
+	int updatePet(@Param("id") Integer id, @Param("name") String name, @Param("typeId") int typeId,
+				  @Param("ownerId") int ownerId, @Param("birthDate") LocalDate birthDate,
+				  @Param("version") Integer version);
+
+	// Delete a pet in one statement, returns the number of rows deleted
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM pets p WHERE p.id = :id")
+	int deletePet(@Param("id") Integer id);
+
 }
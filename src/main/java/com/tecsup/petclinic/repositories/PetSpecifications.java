@@ -0,0 +1,64 @@
+package com.tecsup.petclinic.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.tecsup.petclinic.dtos.PetSearchCriteria;
+import com.tecsup.petclinic.entities.Pet;
+
+/**
+ * Specifications used to build the pet search query.
+ *
+ * Only the filters that are present end up in the WHERE clause, so each
+ * combination can use its matching index (see schema.sql).
+ *
+ * @author jgomezm
+ *
+ */
+public final class PetSpecifications {
+
+	private PetSpecifications() {
+	}
+
+	/**
+	 *
+	 * @param criteria
+	 * @param after last id already read, or null
+	 * @return
+	 */
+	public static Specification<Pet> matching(PetSearchCriteria criteria, Integer after) {
+
+		List<Specification<Pet>> specs = new ArrayList<>();
+
+		if (criteria.getName() != null && !criteria.getName().isEmpty())
+			specs.add(nameStartsWith(criteria.getName()));
+		if (criteria.getTypeId() != null)
+			specs.add(hasType(criteria.getTypeId()));
+		if (criteria.getOwnerId() != null)
+			specs.add(hasOwner(criteria.getOwnerId()));
+		if (criteria.getBornFrom() != null)
+			specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("birthDate"), criteria.getBornFrom()));
+		if (criteria.getBornTo() != null)
+			specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("birthDate"), criteria.getBornTo()));
+		if (after != null)
+			specs.add((root, query, cb) -> cb.greaterThan(root.get("id"), after));
+
+		return Specification.allOf(specs);
+	}
+
+	public static Specification<Pet> nameStartsWith(String prefix) {
+		String pattern = LikePatterns.startingWith(prefix);
+		return (root, query, cb) -> cb.like(root.get("name"), pattern, LikePatterns.ESCAPE);
+	}
+
+	public static Specification<Pet> hasType(int typeId) {
+		return (root, query, cb) -> cb.equal(root.get("typeId"), typeId);
+	}
+
+	public static Specification<Pet> hasOwner(int ownerId) {
+		return (root, query, cb) -> cb.equal(root.get("ownerId"), ownerId);
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.tecsup.petclinic.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+
+import com.tecsup.petclinic.config.CacheConfig;
+import com.tecsup.petclinic.entities.PetType;
+
+/**
+ * Repository para la tabla de consulta types
+ * No se exporta por Spring Data REST: las escrituras por /api no invalidarían la caché.
+ * 
+ * @author jgomezm
+ *
+ */
+@Repository
+@RepositoryRestResource(exported = false)
+public interface PetTypeRepository 
+	extends JpaRepository<PetType, Integer> {
+
+	// Fetch type by Id
+	@Override
+	@Cacheable(cacheNames = CacheConfig.TYPES, unless = "#result == null")
+	Optional<PetType> findById(Integer id);
+
+	// Fetch all types
+	@Override
+	@Cacheable(cacheNames = CacheConfig.TYPES, key = "'all'")
+	List<PetType> findAll();
+
+}
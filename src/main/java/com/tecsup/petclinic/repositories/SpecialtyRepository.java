@@ -0,0 +1,22 @@
+package com.tecsup.petclinic.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+
+import com.tecsup.petclinic.entities.Specialty;
+
+/**
+ * Repository para la tabla de consulta specialties
+ * Las lecturas se hacen desde SpecialtyCatalog; aquí solo se escribe.
+ * No se exporta por Spring Data REST: las escrituras por /api no refrescarían el catálogo.
+ * 
+ * @author jgomezm
+ *
+ */
+@Repository
+@RepositoryRestResource(exported = false)
+public interface SpecialtyRepository 
+	extends JpaRepository<Specialty, Integer> {
+
+}
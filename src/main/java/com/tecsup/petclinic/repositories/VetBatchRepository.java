@@ -0,0 +1,121 @@
+package com.tecsup.petclinic.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.tecsup.petclinic.entities.Vet;
+
+/**
+ * Escrituras JDBC por lotes para veterinarios.
+ *
+ * Con ids IDENTITY Hibernate no agrupa los INSERT, por eso las cargas
+ * masivas usan sentencias batch; los ids generados se leen del lote.
+ *
+ * @author jgomezm
+ *
+ */
+@Repository
+public class VetBatchRepository {
+
+	private static final String INSERT_SQL =
+			"INSERT INTO vets (first_name, last_name, email, phone, active) VALUES (?, ?, ?, ?, COALESCE(?, TRUE))";
+
+	private static final String UPDATE_SQL =
+			"UPDATE vets SET first_name = ?, last_name = ?, email = ?, phone = ?, active = ?, "
+			+ "version = version + 1 WHERE id = ?";
+
+	private static final String DELETE_SQL = "DELETE FROM vets WHERE id = ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public VetBatchRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Insertar todos los veterinarios en un solo lote y asignar sus ids
+	 * @param vets
+	 */
+	public void insertAll(List<Vet> vets) {
+
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+
+		jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						Vet vet = vets.get(i);
+						ps.setString(1, vet.getFirstName());
+						ps.setString(2, vet.getLastName());
+						ps.setString(3, vet.getEmail());
+						ps.setString(4, vet.getPhone());
+						ps.setObject(5, vet.getActive(), Types.BOOLEAN);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return vets.size();
+					}
+				}, keyHolder);
+
+		List<Map<String, Object>> keys = keyHolder.getKeyList();
+		for (int i = 0; i < vets.size(); i++)
+			vets.get(i).setId(((Number) keys.get(i).values().iterator().next()).intValue());
+	}
+
+	/**
+	 * Actualizar todos los veterinarios en un solo lote
+	 * @param vets
+	 * @return filas afectadas por veterinario
+	 */
+	public int[] updateAll(List<Vet> vets) {
+
+		return jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				Vet vet = vets.get(i);
+				ps.setString(1, vet.getFirstName());
+				ps.setString(2, vet.getLastName());
+				ps.setString(3, vet.getEmail());
+				ps.setString(4, vet.getPhone());
+				ps.setObject(5, vet.getActive(), Types.BOOLEAN);
+				ps.setObject(6, vet.getId(), Types.INTEGER);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return vets.size();
+			}
+		});
+	}
+
+	/**
+	 * Eliminar todos los veterinarios en un solo lote
+	 * @param ids
+	 * @return filas afectadas por id
+	 */
+	public int[] deleteAll(List<Integer> ids) {
+
+		return jdbcTemplate.batchUpdate(DELETE_SQL, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				ps.setObject(1, ids.get(i), Types.INTEGER);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return ids.size();
+			}
+		});
+	}
+
+}
@@ -1,19 +1,37 @@
 package com.tecsup.petclinic.repositories;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.tecsup.petclinic.config.CacheConfig;
+import com.tecsup.petclinic.dtos.VetDTO;
 import com.tecsup.petclinic.entities.Vet;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository para la entidad Vet
+ * No se exporta por Spring Data REST: las escrituras por /api no invalidarían la caché
+ * de VetService.
  * 
  * @author jgomezm
  *
  */
 @Repository
+@RepositoryRestResource(exported = false)
 public interface VetRepository 
 	extends JpaRepository<Vet, Integer> {
 
@@ -21,16 +39,63 @@ public interface VetRepository
 	List<Vet> findByFirstName(String firstName);
 
 	// Fetch vets by lastName
+	@Cacheable(CacheConfig.VETS_BY_LAST_NAME)
 	List<Vet> findByLastName(String lastName);
 
 	// Fetch vets by email
 	List<Vet> findByEmail(String email);
 
 	// Fetch vets by active status
+	@Cacheable(CacheConfig.VETS_BY_ACTIVE)
 	List<Vet> findByActive(Boolean active);
 
+	// Fetch vets by Id
+	@Override
+	@Cacheable(cacheNames = CacheConfig.VETS, unless = "#result == null")
+	Optional<Vet> findById(Integer id);
+
+	// Fetch the stored row, bypassing the cache (e.g. right after updateVet)
+	@Query("SELECT v FROM vets v WHERE v.id = :id")
+	Optional<Vet> findStoredById(@Param("id") Integer id);
+
 	// Fetch all vets
 	@Override
 	List<Vet> findAll();
 
-}
\ No newline at end of file
+	// Listados de solo lectura: las filas van directo a VetDTO, sin entidades administradas
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	@Query("SELECT new com.tecsup.petclinic.dtos.VetDTO(v.id, v.firstName, v.lastName, v.email, v.phone, v.active) "
+			+ "FROM vets v ORDER BY v.id")
+	List<VetDTO> findAllDtos();
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	@Query("SELECT new com.tecsup.petclinic.dtos.VetDTO(v.id, v.firstName, v.lastName, v.email, v.phone, v.active) "
+			+ "FROM vets v WHERE v.id > :after ORDER BY v.id")
+	List<VetDTO> findDtoPage(@Param("after") Integer after, Limit limit);
+
+	// Stream all vets ordered by id, reading from a JDBC cursor
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("SELECT v FROM vets v ORDER BY v.id")
+	Stream<Vet> streamAll();
+
+	// Update a vet in one statement and bump its version; with a version, only that version is updated.
+	// Returns the number of rows updated (0 when the id does not exist or the version is stale)
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE vets v SET v.firstName = :firstName, v.lastName = :lastName, v.email = :email, "
+			+ "v.phone = :phone, v.active = :active, v.version = v.version + 1 "
+			+ "WHERE v.id = :id AND (:version IS NULL OR v.version = :version)")
+	int updateVet(@Param("id") Integer id, @Param("firstName") String firstName, @Param("lastName") String lastName,
+				  @Param("email") String email, @Param("phone") String phone, @Param("active") Boolean active,
+				  @Param("version") Integer version);
+
+	// Delete a vet in one statement, returns the number of rows deleted
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM vets v WHERE v.id = :id")
+	int deleteVet(@Param("id") Integer id);
+
+}
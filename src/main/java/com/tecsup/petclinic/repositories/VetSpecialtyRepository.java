@@ -0,0 +1,40 @@
+package com.tecsup.petclinic.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
+import com.tecsup.petclinic.entities.VetSpecialty;
+import com.tecsup.petclinic.entities.VetSpecialtyId;
+
+/**
+ * Repository para vet_specialties
+ * 
+ * @author jgomezm
+ *
+ */
+@Repository
+@RepositoryRestResource(exported = false)
+public interface VetSpecialtyRepository 
+	extends JpaRepository<VetSpecialty, VetSpecialtyId> {
+
+	// Specialties of a vet, primary first (primary key prefix)
+	@Query("SELECT vs FROM vet_specialties vs WHERE vs.id.vetId = :vetId "
+			+ "ORDER BY vs.primary DESC, vs.yearsExperience DESC, vs.id.specialtyId")
+	List<VetSpecialty> findByVetId(@Param("vetId") Integer vetId);
+
+	// Vets of a specialty, most experienced first, in one join: the vet_specialties columns
+	// all come from idx_vet_specialties_rank, the names from vets by primary key
+	@Query("SELECT new com.tecsup.petclinic.dtos.VetSpecialtyDTO(v.id, v.firstName, v.lastName, vs.id.specialtyId, "
+			+ "vs.yearsExperience, vs.primary, vs.certificationDate) "
+			+ "FROM vet_specialties vs JOIN vets v ON v.id = vs.id.vetId "
+			+ "WHERE vs.id.specialtyId = :specialtyId "
+			+ "ORDER BY vs.yearsExperience DESC, v.id")
+	List<VetSpecialtyDTO> findRankedBySpecialtyId(@Param("specialtyId") Integer specialtyId);
+
+}
@@ -0,0 +1,60 @@
+package com.tecsup.petclinic.repositories;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+
+import com.tecsup.petclinic.dtos.DayVisitsDTO;
+import com.tecsup.petclinic.dtos.PetTypeVisitsDTO;
+import com.tecsup.petclinic.dtos.VetMonthRevenueDTO;
+import com.tecsup.petclinic.entities.Visit;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Visits are written here; histories are read through PetRepository.
+ * The aggregates over a date range are read from idx_visits_date_vet_cost.
+ * 
+ * @author jgomezm
+ *
+ */
+@Repository
+@RepositoryRestResource(exported = false)
+public interface VisitRepository 
+	extends JpaRepository<Visit, Long> {
+
+	// Served by uq_visits_vet_slot
+	boolean existsByVetIdAndVisitDateAndVisitTime(Integer vetId, LocalDate visitDate, LocalTime visitTime);
+
+	// Visits and revenue per vet and month between two days (inclusive)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	@Query("SELECT new com.tecsup.petclinic.dtos.VetMonthRevenueDTO(v.vetId, YEAR(v.visitDate), MONTH(v.visitDate), "
+			+ "COUNT(v), SUM(v.cost)) FROM visits v WHERE v.visitDate BETWEEN :from AND :to "
+			+ "GROUP BY v.vetId, YEAR(v.visitDate), MONTH(v.visitDate) "
+			+ "ORDER BY YEAR(v.visitDate), MONTH(v.visitDate), v.vetId")
+	List<VetMonthRevenueDTO> revenueByVetAndMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	// Visits per pet type between two days (inclusive)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	@Query("SELECT new com.tecsup.petclinic.dtos.PetTypeVisitsDTO(p.typeId, COUNT(v)) "
+			+ "FROM visits v JOIN v.pet p WHERE v.visitDate BETWEEN :from AND :to "
+			+ "GROUP BY p.typeId ORDER BY p.typeId")
+	List<PetTypeVisitsDTO> countByPetType(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	// Days with the most visits between two days (inclusive), busiest first
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	@Query("SELECT new com.tecsup.petclinic.dtos.DayVisitsDTO(v.visitDate, COUNT(v)) "
+			+ "FROM visits v WHERE v.visitDate BETWEEN :from AND :to "
+			+ "GROUP BY v.visitDate ORDER BY COUNT(v) DESC, v.visitDate")
+	List<DayVisitsDTO> busiestDays(@Param("from") LocalDate from, @Param("to") LocalDate to, Limit limit);
+
+}
@@ -0,0 +1,47 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.DayVisitsDTO;
+import com.tecsup.petclinic.dtos.PetTypeVisitsDTO;
+import com.tecsup.petclinic.dtos.VetMonthRevenueDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Visit aggregates. Without a range they are read from the in-memory
+ * rollups; with one, the database groups the visits of the range.
+ *
+ * @author jgomezm
+ *
+ */
+public interface AnalyticsService {
+
+    /**
+     * Visits and revenue per vet and month
+     *
+     * @param from inclusive, null for no lower bound
+     * @param to inclusive, null for no upper bound
+     * @return by month then vet
+     */
+    List<VetMonthRevenueDTO> revenueByVetAndMonth(LocalDate from, LocalDate to);
+
+    /**
+     * Visits per pet type
+     *
+     * @param from inclusive, null for no lower bound
+     * @param to inclusive, null for no upper bound
+     * @return by type id
+     */
+    List<PetTypeVisitsDTO> visitsByPetType(LocalDate from, LocalDate to);
+
+    /**
+     * Days with the most visits
+     *
+     * @param from inclusive, null for no lower bound
+     * @param to inclusive, null for no upper bound
+     * @param limit number of days
+     * @return busiest first, earliest first on ties
+     */
+    List<DayVisitsDTO> busiestDays(LocalDate from, LocalDate to, int limit);
+
+}
@@ -0,0 +1,105 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.DayVisitsDTO;
+import com.tecsup.petclinic.dtos.PetTypeVisitsDTO;
+import com.tecsup.petclinic.dtos.VetMonthRevenueDTO;
+import com.tecsup.petclinic.logging.QueryLogger;
+import com.tecsup.petclinic.repositories.VisitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Dashboards ask without a range and are answered by VisitRollups, which
+ * never reads the visits table once built. A range goes to the GROUP BY
+ * queries of VisitRepository, which read it from idx_visits_date_vet_cost.
+ *
+ * @author jgomezm
+ *
+ */
+@Service
+@Slf4j
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    // Open bounds of a range given on one side only (the DATE range of MySQL)
+    static final LocalDate FIRST_DAY = LocalDate.of(1000, 1, 1);
+
+    static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+
+    VisitRepository visitRepository;
+    VisitRollups rollups;
+    QueryLogger queryLogger;
+
+    public AnalyticsServiceImpl(VisitRepository visitRepository, VisitRollups rollups, QueryLogger queryLogger) {
+        this.visitRepository = visitRepository;
+        this.rollups = rollups;
+        this.queryLogger = queryLogger;
+    }
+
+    /**
+     *
+     * @param from
+     * @param to
+     * @return
+     */
+    @Override
+    public List<VetMonthRevenueDTO> revenueByVetAndMonth(LocalDate from, LocalDate to) {
+
+        long start = queryLogger.start();
+
+        if (from == null && to == null)
+            return queryLogger.rows(log, "analytics.revenue.rollup", start, rollups.revenueByVetAndMonth());
+
+        return queryLogger.rows(log, "analytics.revenue.range", start,
+                visitRepository.revenueByVetAndMonth(orFirst(from), orLast(to)));
+    }
+
+    /**
+     *
+     * @param from
+     * @param to
+     * @return
+     */
+    @Override
+    public List<PetTypeVisitsDTO> visitsByPetType(LocalDate from, LocalDate to) {
+
+        long start = queryLogger.start();
+
+        if (from == null && to == null)
+            return queryLogger.rows(log, "analytics.visitsByType.rollup", start, rollups.countByPetType());
+
+        return queryLogger.rows(log, "analytics.visitsByType.range", start,
+                visitRepository.countByPetType(orFirst(from), orLast(to)));
+    }
+
+    /**
+     *
+     * @param from
+     * @param to
+     * @param limit
+     * @return
+     */
+    @Override
+    public List<DayVisitsDTO> busiestDays(LocalDate from, LocalDate to, int limit) {
+
+        long start = queryLogger.start();
+
+        if (from == null && to == null)
+            return queryLogger.rows(log, "analytics.busiestDays.rollup", start, rollups.busiestDays(limit));
+
+        return queryLogger.rows(log, "analytics.busiestDays.range", start,
+                visitRepository.busiestDays(orFirst(from), orLast(to), Limit.of(limit)));
+    }
+
+    private static LocalDate orFirst(LocalDate from) {
+        return from == null ? FIRST_DAY : from;
+    }
+
+    private static LocalDate orLast(LocalDate to) {
+        return to == null ? LAST_DAY : to;
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.BatchItemResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Runs a batch request in chunks of petclinic.batch.chunk-size items,
+ * one transaction per chunk.
+ *
+ * When a chunk fails it is rolled back and replayed item by item, so a
+ * single bad row only fails itself and every item still gets a result.
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+@Slf4j
+public class ChunkedBatchExecutor {
+
+    /**
+     * Writes one chunk and returns one result per item, in order
+     */
+    @FunctionalInterface
+    public interface ChunkWriter<T> {
+        List<BatchItemResult> write(List<T> chunk);
+    }
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    public ChunkedBatchExecutor(PlatformTransactionManager transactionManager,
+                                @Value("${petclinic.batch.chunk-size:500}") int chunkSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     *
+     * @param items read lazily, so the request body is never held in memory as a whole
+     * @param writer
+     * @return one result per item
+     */
+    public <T> List<BatchItemResult> execute(Iterator<T> items, ChunkWriter<T> writer) {
+
+        List<BatchItemResult> results = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(chunkSize);
+
+        while (items.hasNext()) {
+            chunk.add(items.next());
+            if (chunk.size() == chunkSize) {
+                results.addAll(writeChunk(chunk, results.size(), writer));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            results.addAll(writeChunk(chunk, results.size(), writer));
+
+        return results;
+    }
+
+    private <T> List<BatchItemResult> writeChunk(List<T> chunk, int offset, ChunkWriter<T> writer) {
+
+        try {
+            return withIndexes(transactionTemplate.execute(status -> writer.write(chunk)), offset);
+        } catch (DataAccessException e) {
+            log.debug("op=batch chunk_offset={} size={} replaying item by item: {}", offset, chunk.size(),
+                    e.getMessage());
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            T item = chunk.get(i);
+            try {
+                results.addAll(withIndexes(transactionTemplate.execute(status -> writer.write(List.of(item))), offset + i));
+            } catch (DataAccessException e) {
+                results.add(BatchItemResult.builder()
+                        .index(offset + i)
+                        .status(BatchItemResult.Status.FAILED)
+                        .message(NestedExceptionUtils.getMostSpecificCause(e).getMessage())
+                        .build());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Turn the update counts of a JDBC batch into item results
+     *
+     * @param ids
+     * @param counts
+     * @param success status reported when a row was affected
+     * @return
+     */
+    public static List<BatchItemResult> fromUpdateCounts(List<Integer> ids, int[] counts, BatchItemResult.Status success) {
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            // Statement.SUCCESS_NO_INFO (-2) still means the statement ran
+            BatchItemResult.Status status = counts[i] == 0 ? BatchItemResult.Status.NOT_FOUND : success;
+            results.add(BatchItemResult.builder().id(ids.get(i)).status(status).build());
+        }
+        return results;
+    }
+
+    private static List<BatchItemResult> withIndexes(List<BatchItemResult> results, int offset) {
+        for (int i = 0; i < results.size(); i++)
+            results.get(i).setIndex(offset + i);
+        return results;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.tecsup.petclinic.services;
+
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ *
+ * @author jgomezm
+ *
+ */
+public interface ExportService {
+
+    enum Format { CSV, NDJSON }
+
+    /**
+     *
+     * @return the tables that can be exported, e.g. pets
+     */
+    Set<String> entities();
+
+    /**
+     * Write every row of a table, ordered by id, as it is read from the database
+     *
+     * @param entity one of entities()
+     * @param format CSV with a header line, or one JSON object per line
+     * @param out flushed, not closed
+     * @return the number of rows written
+     */
+    long export(String entity, Format format, OutputStream out);
+
+}
@@ -0,0 +1,255 @@
+package com.tecsup.petclinic.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecsup.petclinic.logging.QueryLogger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Exports read a table through a forward-only JDBC cursor, petclinic.export.fetch-size
+ * rows per round trip, and write each row as soon as it is read: no entity,
+ * DTO or list is created, so memory stays flat whatever the size of the table.
+ *
+ * MySQL only honours the fetch size with useCursorFetch (application-mysql.yml);
+ * H2 builds the whole result first unless the query runs lazily, which is
+ * turned on for the export connection only.
+ *
+ * The CSV files have the format read by SeedLoader (header of column names,
+ * NULL as an empty field). NDJSON uses the field names of the DTOs, so an
+ * export of pets or vets can be sent back to /pets/batch or /vets/batch.
+ *
+ * @author jgomezm
+ *
+ */
+@Service
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Map<String, List<String>> TABLES = new LinkedHashMap<>();
+
+    static {
+        TABLES.put("pets", List.of("id", "name", "birth_date", "type_id", "owner_id"));
+        TABLES.put("owners", List.of("id", "first_name", "last_name", "address", "city", "telephone"));
+        TABLES.put("vets", List.of("id", "first_name", "last_name", "email", "phone", "active"));
+        TABLES.put("visits", List.of("id", "pet_id", "vet_id", "visit_date", "visit_time", "description", "cost"));
+    }
+
+    private enum Kind { INTEGER, DECIMAL, BOOLEAN, TEXT }
+
+    JdbcTemplate jdbcTemplate;
+    ObjectMapper objectMapper;
+    QueryLogger queryLogger;
+    int fetchSize;
+
+    public ExportServiceImpl(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, QueryLogger queryLogger,
+                             @Value("${petclinic.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.queryLogger = queryLogger;
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public Set<String> entities() {
+        return TABLES.keySet();
+    }
+
+    /**
+     *
+     * @param entity
+     * @param format
+     * @param out
+     * @return
+     */
+    @Override
+    public long export(String entity, Format format, OutputStream out) {
+
+        List<String> columns = TABLES.get(entity);
+        if (columns == null)
+            throw new IllegalArgumentException("Unknown entity " + entity);
+
+        long start = queryLogger.start();
+        String sql = "SELECT " + String.join(", ", columns) + " FROM " + entity + " ORDER BY id";
+
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            boolean h2 = "H2".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            if (h2)
+                setLazy(connection, true);
+            try (PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet rs = statement.executeQuery()) {
+                    return format == Format.CSV ? writeCsv(rs, columns, out) : writeNdjson(rs, columns, out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (h2)
+                    setLazy(connection, false);
+            }
+        });
+
+        queryLogger.summary(log, "export." + entity + "." + format.name().toLowerCase(), start, rows);
+        return rows;
+    }
+
+    private static long writeCsv(ResultSet rs, List<String> columns, OutputStream out) throws SQLException, IOException {
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        Kind[] kinds = kinds(rs.getMetaData());
+        long rows = 0;
+
+        writer.write(String.join(",", columns));
+        writer.write('\n');
+        while (rs.next()) {
+            for (int i = 1; i <= kinds.length; i++) {
+                if (i > 1)
+                    writer.write(',');
+                if (kinds[i - 1] == Kind.BOOLEAN) {
+                    boolean value = rs.getBoolean(i);
+                    if (!rs.wasNull())
+                        writer.write(value ? "true" : "false");
+                } else {
+                    String value = rs.getString(i);
+                    if (value != null)
+                        writeCsvField(writer, value);
+                }
+            }
+            writer.write('\n');
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Quoted when it holds a comma, a quote or a line break, or is empty
+     * (an empty unquoted field is NULL)
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private long writeNdjson(ResultSet rs, List<String> columns, OutputStream out) throws SQLException, IOException {
+
+        Kind[] kinds = kinds(rs.getMetaData());
+        SerializedString[] fields = columns.stream()
+                .map(column -> new SerializedString(camelCase(column)))
+                .toArray(SerializedString[]::new);
+        long rows = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (rs.next()) {
+                generator.writeStartObject();
+                for (int i = 1; i <= kinds.length; i++) {
+                    generator.writeFieldName(fields[i - 1]);
+                    switch (kinds[i - 1]) {
+                        case INTEGER -> {
+                            long value = rs.getLong(i);
+                            if (rs.wasNull())
+                                generator.writeNull();
+                            else
+                                generator.writeNumber(value);
+                        }
+                        case DECIMAL -> generator.writeNumber(rs.getBigDecimal(i));
+                        case BOOLEAN -> {
+                            boolean value = rs.getBoolean(i);
+                            if (rs.wasNull())
+                                generator.writeNull();
+                            else
+                                generator.writeBoolean(value);
+                        }
+                        default -> generator.writeString(rs.getString(i));
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows++;
+            }
+            generator.flush();
+        }
+        return rows;
+    }
+
+    private static Kind[] kinds(ResultSetMetaData metaData) throws SQLException {
+
+        Kind[] kinds = new Kind[metaData.getColumnCount()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = switch (metaData.getColumnType(i + 1)) {
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> Kind.INTEGER;
+                case Types.DECIMAL, Types.NUMERIC -> Kind.DECIMAL;
+                // MySQL reports BOOLEAN (TINYINT(1)) columns as BIT
+                case Types.BOOLEAN, Types.BIT -> Kind.BOOLEAN;
+                default -> Kind.TEXT;
+            };
+        }
+        return kinds;
+    }
+
+    private static String camelCase(String column) {
+
+        StringBuilder name = new StringBuilder(column.length());
+        boolean upper = false;
+        for (char c : column.toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+
+    private static void setLazy(Connection connection, boolean lazy) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LAZY_QUERY_EXECUTION " + (lazy ? "TRUE" : "FALSE"));
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.exceptions.InvalidReferenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory ids of the types, owners and vets, to refuse a pet with an
+ * unknown type_id or owner_id, or a visit with an unknown vet, before
+ * any JDBC call instead of after a round trip and a rolled back
+ * transaction.
+ *
+ * The ids are read at startup (on first use when petclinic.startup.warm-up
+ * is off) and kept current by the services on every create and delete,
+ * batches and imports included (one id per committed row); only
+ * SeedLoader marks them stale and they are read again on next use. An id
+ * the set wrongly holds (deleted behind it) still fails on the foreign
+ * key of the database.
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+@Slf4j
+public class ForeignKeyValidator {
+
+    public static final String TYPES = "types";
+
+    public static final String OWNERS = "owners";
+
+    public static final String VETS = "vets";
+
+    private static final List<String> TABLES = List.of(TYPES, OWNERS, VETS);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean warmUp;
+
+    // Single writes go under the read lock, a rebuild swaps the sets under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Map<String, IntIdSet> ids = Map.of();
+
+    private volatile boolean stale = true;
+
+    public ForeignKeyValidator(JdbcTemplate jdbcTemplate,
+                               @Value("${petclinic.startup.warm-up:true}") boolean warmUp) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.warmUp = warmUp;
+    }
+
+    /**
+     *
+     * @param table TYPES, OWNERS or VETS
+     * @param id
+     * @return
+     */
+    public boolean exists(String table, Integer id) {
+        return id != null && current().get(table).contains(id);
+    }
+
+    /**
+     *
+     * @param table TYPES, OWNERS or VETS
+     * @param id
+     * @throws InvalidReferenceException when there is no row with that id
+     */
+    public void check(String table, Integer id) {
+        if (!exists(table, id))
+            throw new InvalidReferenceException(table + " " + id + " does not exist");
+    }
+
+    /**
+     *
+     * @param typeId
+     * @param ownerId
+     * @throws InvalidReferenceException
+     */
+    public void checkPet(Integer typeId, Integer ownerId) {
+        check(TYPES, typeId);
+        check(OWNERS, ownerId);
+    }
+
+    /**
+     * A row was inserted
+     *
+     * @param table
+     * @param id
+     */
+    public void added(String table, Integer id) {
+
+        // A stale set is read again with the row in it
+        if (stale || id == null)
+            return;
+
+        lock.readLock().lock();
+        try {
+            ids.get(table).add(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A row was deleted
+     *
+     * @param table
+     * @param id
+     */
+    public void removed(String table, Integer id) {
+
+        if (stale || id == null)
+            return;
+
+        lock.readLock().lock();
+        try {
+            ids.get(table).remove(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rows were written behind the sets (SeedLoader); they are read again on next use
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmUp)
+            current();
+    }
+
+    public void rebuild() {
+
+        long start = System.nanoTime();
+
+        lock.writeLock().lock();
+        try {
+            // Cleared first: an invalidate() arriving during the rebuild is kept
+            stale = false;
+
+            Map<String, IntIdSet> next = new HashMap<>();
+            for (String table : TABLES) {
+                IntIdSet set = new IntIdSet();
+                jdbcTemplate.query("SELECT id FROM " + table, rs -> {
+                    set.add(rs.getInt(1));
+                });
+                next.put(table, set);
+            }
+            ids = Map.copyOf(next);
+
+            log.info("op=foreignKeys.rebuild types={} owners={} vets={} took_ms={}", next.get(TYPES).size(),
+                    next.get(OWNERS).size(), next.get(VETS).size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            stale = true;
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, IntIdSet> current() {
+        if (stale) {
+            synchronized (this) {
+                if (stale)
+                    rebuild();
+            }
+        }
+        return ids;
+    }
+
+}
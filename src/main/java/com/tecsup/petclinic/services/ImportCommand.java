@@ -0,0 +1,56 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.ImportJobDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Runs the CSV imports given on the command line at startup, in order:
+ *
+ *   java -jar petclinic.jar --spring.main.web-application-type=none \
+ *       --import=owners:/data/owners.csv --import=pets:/data/pets.csv
+ *
+ * Without a web server the application exits once they are done. A failed
+ * import fails the startup; running it again resumes after the last
+ * committed line.
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+@Slf4j
+public class ImportCommand implements ApplicationRunner {
+
+    static final String OPTION = "import";
+
+    private final ImportService importService;
+
+    public ImportCommand(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+
+        List<String> imports = args.getOptionValues(OPTION);
+        if (imports == null)
+            return;
+
+        for (String value : imports) {
+            int colon = value.indexOf(':');
+            if (colon < 1)
+                throw new IllegalArgumentException("--" + OPTION + "=" + value
+                        + ": expected <entity>:<file>, e.g. --" + OPTION + "=pets:/data/pets.csv");
+
+            ImportJobDTO job = importService.run(value.substring(0, colon), Path.of(value.substring(colon + 1)));
+            if (job.getStatus() == ImportJobDTO.Status.FAILED)
+                throw new IllegalStateException("Import of " + value + " failed: " + job.getMessage());
+        }
+    }
+
+}
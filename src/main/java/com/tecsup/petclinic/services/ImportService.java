@@ -0,0 +1,48 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.ImportJobDTO;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ *
+ * @author jgomezm
+ *
+ */
+public interface ImportService {
+
+    /**
+     *
+     * @return the tables that can be imported
+     */
+    Set<String> entities();
+
+    /**
+     * Import a CSV file and wait for the end
+     *
+     * @param entity pets or owners
+     * @param file
+     * @return the finished job
+     */
+    ImportJobDTO run(String entity, Path file);
+
+    /**
+     * Import a CSV upload in the background
+     *
+     * @param entity pets or owners
+     * @param csv read fully before returning
+     * @return the running job
+     */
+    ImportJobDTO submit(String entity, InputStream csv);
+
+    /**
+     *
+     * @param id
+     * @return
+     */
+    Optional<ImportJobDTO> findJob(String id);
+
+}
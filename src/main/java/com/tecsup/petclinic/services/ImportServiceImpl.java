@@ -0,0 +1,650 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.config.CacheConfig;
+import com.tecsup.petclinic.dtos.ImportJobDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk imports of owners and pets from CSV files in the format of SeedLoader
+ * and /export (header of column names, an empty field is NULL, a quoted
+ * field may span lines), e.g. the data of a new clinic branch.
+ *
+ * One thread reads the file and cuts it into chunks of petclinic.batch.chunk-size
+ * records, petclinic.import.parallelism threads parse and check the chunks
+ * meanwhile, and the chunks are written in file order, each one a JDBC batch
+ * in its own transaction. A bad row is rejected, not the file: a field that
+ * cannot be read, an owner_id or type_id that does not exist (checked by
+ * ForeignKeyValidator while parsing, before any write) or a row the
+ * database refuses. A refused batch is rolled back to a savepoint and
+ * its rows are written one by one.
+ *
+ * Each chunk moves the checkpoint of the file in import_checkpoints in its
+ * own transaction. Files are told apart by their content, so importing the
+ * same file again resumes after its last committed line, and does nothing
+ * once it was completed.
+ *
+ * @author jgomezm
+ *
+ */
+@Service
+@Slf4j
+public class ImportServiceImpl implements ImportService {
+
+    private static final int MAX_ERRORS = 20;
+
+    private static final int MAX_JOBS = 100;
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private static final String CHECKPOINT_SQL = "SELECT line_count, imported, rejected, completed "
+            + "FROM import_checkpoints WHERE table_name = ? AND checksum = ?";
+
+    private static final String START_SQL =
+            "INSERT INTO import_checkpoints (table_name, checksum, file_name) VALUES (?, ?, ?)";
+
+    private static final String PROGRESS_SQL = "UPDATE import_checkpoints SET line_count = ?, "
+            + "imported = imported + ?, rejected = rejected + ?, updated_at = CURRENT_TIMESTAMP "
+            + "WHERE table_name = ? AND checksum = ?";
+
+    private static final String COMPLETE_SQL = "UPDATE import_checkpoints SET completed = TRUE, "
+            + "updated_at = CURRENT_TIMESTAMP WHERE table_name = ? AND checksum = ?";
+
+    private enum Type { INTEGER, DATE, TEXT }
+
+    /**
+     * Columns a file may have, and the table each foreign key points to
+     */
+    private record Table(String name, Map<String, Type> columns, Map<String, String> foreignKeys) {
+    }
+
+    private static final Map<String, Table> TABLES = new LinkedHashMap<>();
+
+    static {
+        TABLES.put("owners", new Table("owners", Map.of("id", Type.INTEGER, "first_name", Type.TEXT,
+                "last_name", Type.TEXT, "address", Type.TEXT, "city", Type.TEXT, "telephone", Type.TEXT), Map.of()));
+        TABLES.put("pets", new Table("pets", Map.of("id", Type.INTEGER, "name", Type.TEXT, "birth_date", Type.DATE,
+                "type_id", Type.INTEGER, "owner_id", Type.INTEGER, "age", Type.INTEGER),
+                Map.of("type_id", ForeignKeyValidator.TYPES, "owner_id", ForeignKeyValidator.OWNERS)));
+    }
+
+    private record Checkpoint(long lines, long imported, long rejected, boolean completed) {
+    }
+
+    /**
+     * Parsed rows of a chunk; lastLine counts the lines after the header, a record may take several
+     */
+    private record Chunk(long lastLine, List<Object[]> rows, List<Long> rowLines, List<String> errors) {
+    }
+
+    /**
+     * Columns of the file in header order, with what is needed to read and check them:
+     * the table each column points to (null if none) and the position of id (-1 if none)
+     */
+    private record Layout(List<String> columns, Type[] types, List<String> references, int idColumn,
+                          String insertSql) {
+    }
+
+    private static final class Job {
+
+        final String id = UUID.randomUUID().toString();
+
+        final String entity;
+
+        final String file;
+
+        final List<String> errors = new CopyOnWriteArrayList<>();
+
+        volatile ImportJobDTO.Status status = ImportJobDTO.Status.RUNNING;
+
+        volatile long resumedAt;
+
+        volatile long lines;
+
+        volatile long imported;
+
+        volatile long rejected;
+
+        volatile long rowsPerSecond;
+
+        volatile String message;
+
+        Job(String entity, String file) {
+            this.entity = entity;
+            this.file = file;
+        }
+
+        void reject(String error) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS)
+                errors.add(error);
+        }
+
+        ImportJobDTO toDto() {
+            return ImportJobDTO.builder().id(id).entity(entity).file(file).status(status)
+                    .resumedAt(resumedAt).lines(lines).imported(imported).rejected(rejected)
+                    .rowsPerSecond(rowsPerSecond).errors(List.copyOf(errors)).message(message)
+                    .build();
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TaskExecutor taskExecutor;
+
+    private final CacheManager cacheManager;
+
+    private final SearchIndex searchIndex;
+
+    private final ForeignKeyValidator foreignKeys;
+
+    private final int chunkSize;
+
+    private final int parallelism;
+
+    // The last MAX_JOBS jobs, for /imports/{id}
+    private final Map<String, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+            return size() > MAX_JOBS;
+        }
+    });
+
+    // Files being imported, by table and checksum: the same file twice at once would insert its rows twice
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public ImportServiceImpl(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                             CacheManager cacheManager,
+                             SearchIndex searchIndex,
+                             ForeignKeyValidator foreignKeys,
+                             @Value("${petclinic.batch.chunk-size:500}") int chunkSize,
+                             @Value("${petclinic.import.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.cacheManager = cacheManager;
+        this.searchIndex = searchIndex;
+        this.foreignKeys = foreignKeys;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public Set<String> entities() {
+        return TABLES.keySet();
+    }
+
+    /**
+     *
+     * @param entity
+     * @param file
+     * @return
+     */
+    @Override
+    public ImportJobDTO run(String entity, Path file) {
+
+        Table table = table(entity);
+        Job job = register(entity, file.getFileName().toString());
+        execute(job, table, file);
+        return job.toDto();
+    }
+
+    /**
+     * The upload is copied to a temporary file first: the request ends
+     * before the import, and the checksum needs the whole content
+     *
+     * @param entity
+     * @param csv
+     * @return
+     * @throws IllegalArgumentException for an unknown entity or a header with unknown columns
+     */
+    @Override
+    public ImportJobDTO submit(String entity, InputStream csv) {
+
+        Table table = table(entity);
+        Path file;
+        try {
+            file = Files.createTempFile("import-", "-" + entity + ".csv");
+            Files.copy(csv, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            layout(table, file);
+        } catch (RuntimeException e) {
+            delete(file);
+            throw e;
+        }
+
+        Job job = register(entity, entity + ".csv");
+        taskExecutor.execute(() -> {
+            try {
+                execute(job, table, file);
+            } finally {
+                delete(file);
+            }
+        });
+        return job.toDto();
+    }
+
+    /**
+     *
+     * @param id
+     * @return
+     */
+    @Override
+    public Optional<ImportJobDTO> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::toDto);
+    }
+
+    private Job register(String entity, String file) {
+        Job job = new Job(entity, file);
+        jobs.put(job.id, job);
+        return job;
+    }
+
+    private void execute(Job job, Table table, Path file) {
+
+        long start = System.nanoTime();
+        String key = null;
+
+        try {
+            long checksum = SeedLoader.checksum(new FileSystemResource(file));
+            if (!running.add(table.name() + ":" + checksum))
+                throw new IllegalStateException(job.file + " is already being imported");
+            key = table.name() + ":" + checksum;
+
+            importFile(job, table, file, checksum, start);
+            job.status = ImportJobDTO.Status.COMPLETED;
+        } catch (RuntimeException e) {
+            job.message = e.getMessage();
+            job.status = ImportJobDTO.Status.FAILED;
+            log.error("op=import.failed job={} file={} table={} line={}", job.id, job.file, table.name(), job.lines, e);
+        } finally {
+            if (key != null)
+                running.remove(key);
+        }
+
+        log.info("op=import.done job={} file={} table={} status={} resumed_at={} lines={} imported={} rejected={} "
+                        + "rows_per_s={} took_ms={}", job.id, job.file, table.name(), job.status, job.resumedAt,
+                job.lines, job.imported, job.rejected, job.rowsPerSecond, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void importFile(Job job, Table table, Path file, long checksum, long start) {
+
+        Layout layout = layout(table, file);
+
+        List<Checkpoint> checkpoints = jdbcTemplate.query(CHECKPOINT_SQL, (rs, i) -> new Checkpoint(
+                rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getBoolean(4)), table.name(), checksum);
+        Checkpoint checkpoint = checkpoints.isEmpty() ? null : checkpoints.get(0);
+
+        if (checkpoint == null) {
+            jdbcTemplate.update(START_SQL, table.name(), checksum, job.file);
+            checkpoint = new Checkpoint(0, 0, 0, false);
+        }
+
+        job.resumedAt = checkpoint.lines();
+        job.lines = checkpoint.lines();
+        job.imported = checkpoint.imported();
+        job.rejected = checkpoint.rejected();
+
+        if (checkpoint.completed()) {
+            log.info("op=import job={} file={} table={} already imported", job.id, job.file, table.name());
+            return;
+        }
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism);
+        Deque<Future<Chunk>> pending = new ArrayDeque<>();
+        long[] lastProgress = { start };
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine();
+
+            // Checkpoints fall between records
+            long line = 0;
+            String text;
+            while (line < checkpoint.lines() && (text = SeedLoader.readRecord(reader)) != null)
+                line += lineCount(text);
+
+            List<String> records = new ArrayList<>(chunkSize);
+            List<Long> numbers = new ArrayList<>(chunkSize);
+            while ((text = SeedLoader.readRecord(reader)) != null) {
+                records.add(text);
+                // Line number in the file, the header is line 1
+                numbers.add(line + 2);
+                line += lineCount(text);
+                if (records.size() == chunkSize) {
+                    pending.add(parse(parsers, layout, line, records, numbers));
+                    records = new ArrayList<>(chunkSize);
+                    numbers = new ArrayList<>(chunkSize);
+                    // Parsed chunks waiting for the writer stay bounded
+                    if (pending.size() > parallelism * 2)
+                        write(job, table, layout, checksum, next(pending), start, lastProgress);
+                }
+            }
+            if (!records.isEmpty())
+                pending.add(parse(parsers, layout, line, records, numbers));
+            while (!pending.isEmpty())
+                write(job, table, layout, checksum, next(pending), start, lastProgress);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            parsers.shutdownNow();
+        }
+
+        jdbcTemplate.update(COMPLETE_SQL, table.name(), checksum);
+    }
+
+    private static long lineCount(String record) {
+        return 1 + record.chars().filter(c -> c == '\n').count();
+    }
+
+    private Future<Chunk> parse(ExecutorService parsers, Layout layout, long lastLine, List<String> records,
+                                List<Long> numbers) {
+        return parsers.submit(() -> parse(layout, lastLine, records, numbers));
+    }
+
+    /**
+     * Read the fields of each record and check its foreign keys
+     *
+     * @param numbers the line each record starts on
+     */
+    private Chunk parse(Layout layout, long lastLine, List<String> records, List<Long> numbers) {
+
+        List<Object[]> rows = new ArrayList<>(records.size());
+        List<Long> rowLines = new ArrayList<>(records.size());
+        List<String> errors = new ArrayList<>();
+        int width = layout.columns().size();
+
+        for (int i = 0; i < records.size(); i++) {
+            String text = records.get(i);
+            if (text.isBlank())
+                continue;
+
+            long number = numbers.get(i);
+            List<String> fields = SeedLoader.parseLine(text);
+            if (fields.size() != width) {
+                errors.add("line " + number + ": " + fields.size() + " fields, expected " + width);
+                continue;
+            }
+
+            Object[] row = new Object[width];
+            try {
+                for (int c = 0; c < width; c++) {
+                    row[c] = value(layout.types()[c], fields.get(c));
+                    String referenced = layout.references().get(c);
+                    if (referenced != null && !foreignKeys.exists(referenced, (Integer) row[c]))
+                        throw new IllegalArgumentException(layout.columns().get(c) + " " + row[c] + " does not exist");
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                errors.add("line " + number + ": " + e.getMessage());
+                continue;
+            }
+            rows.add(row);
+            rowLines.add(number);
+        }
+        return new Chunk(lastLine, rows, rowLines, errors);
+    }
+
+    /**
+     * Insert a chunk and move the checkpoint in one transaction
+     */
+    private void write(Job job, Table table, Layout layout, long checksum, Chunk chunk, long start, long[] lastProgress) {
+
+        List<String> refused = new ArrayList<>();
+        Map<Integer, Object[]> inserted = new LinkedHashMap<>();
+
+        int imported = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            int count = insert(connection, layout, chunk, refused, inserted);
+            jdbcTemplate.update(PROGRESS_SQL, chunk.lastLine(), count, chunk.errors().size() + refused.size(),
+                    table.name(), checksum);
+            return count;
+        }));
+
+        // Committed: pets of the next chunks may point to these owners, and searches find the rows
+        SearchIndex.Changes changes = new SearchIndex.Changes();
+        if (table.name().equals("owners")) {
+            inserted.forEach((id, row) -> {
+                foreignKeys.added(ForeignKeyValidator.OWNERS, id);
+                changes.putOwner(id, (String) field(layout, row, "first_name"), (String) field(layout, row, "last_name"));
+            });
+        } else {
+            inserted.forEach((id, row) ->
+                    changes.putPet(id, (String) field(layout, row, "name"), (Integer) field(layout, row, "owner_id")));
+            // Rows were written behind the cache: a run that fails later must not leave it stale
+            Cache petsByType = cacheManager.getCache(CacheConfig.PETS_BY_TYPE);
+            if (petsByType != null && imported > 0)
+                petsByType.clear();
+        }
+        searchIndex.apply(changes);
+
+        job.lines = chunk.lastLine();
+        job.imported += imported;
+        chunk.errors().forEach(job::reject);
+        refused.forEach(job::reject);
+
+        long now = System.nanoTime();
+        job.rowsPerSecond = (job.lines - job.resumedAt) * TimeUnit.SECONDS.toNanos(1) / Math.max(1, now - start);
+        if (now - lastProgress[0] >= PROGRESS_INTERVAL_NANOS) {
+            lastProgress[0] = now;
+            log.info("op=import.progress job={} file={} table={} lines={} imported={} rejected={} rows_per_s={}",
+                    job.id, job.file, table.name(), job.lines, job.imported, job.rejected, job.rowsPerSecond);
+        }
+    }
+
+    /**
+     *
+     * @param refused the rows the database refused, as "line N: reason"
+     * @param inserted the rows inserted, by id (from the file or generated)
+     * @return the rows inserted
+     */
+    private static int insert(Connection connection, Layout layout, Chunk chunk, List<String> refused,
+                              Map<Integer, Object[]> inserted) throws SQLException {
+
+        if (chunk.rows().isEmpty())
+            return 0;
+
+        try (PreparedStatement statement = layout.idColumn() >= 0
+                ? connection.prepareStatement(layout.insertSql())
+                : connection.prepareStatement(layout.insertSql(), new String[] { "id" })) {
+            Savepoint batch = connection.setSavepoint();
+            try {
+                for (Object[] row : chunk.rows()) {
+                    bind(statement, layout, row);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                ids(statement, layout, chunk.rows(), inserted);
+                return chunk.rows().size();
+            } catch (SQLException e) {
+                // Some rows of a failed batch may be in: undo it, then find the bad rows one by one
+                connection.rollback(batch);
+                statement.clearBatch();
+            }
+
+            int count = 0;
+            for (int i = 0; i < chunk.rows().size(); i++) {
+                Savepoint row = connection.setSavepoint();
+                try {
+                    bind(statement, layout, chunk.rows().get(i));
+                    statement.executeUpdate();
+                    ids(statement, layout, Collections.singletonList(chunk.rows().get(i)), inserted);
+                    count++;
+                } catch (SQLException e) {
+                    connection.rollback(row);
+                    refused.add("line " + chunk.rowLines().get(i) + ": " + e.getMessage());
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Key the rows just inserted by their id: the one in the file, or the generated one
+     */
+    private static void ids(PreparedStatement statement, Layout layout, List<Object[]> rows,
+                            Map<Integer, Object[]> inserted) throws SQLException {
+        if (layout.idColumn() >= 0) {
+            rows.forEach(row -> inserted.put((Integer) row[layout.idColumn()], row));
+            return;
+        }
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            for (Object[] row : rows) {
+                if (!keys.next())
+                    break;
+                inserted.put(keys.getInt(1), row);
+            }
+        }
+    }
+
+    private static Object field(Layout layout, Object[] row, String column) {
+        int c = layout.columns().indexOf(column);
+        return c < 0 ? null : row[c];
+    }
+
+    private static void bind(PreparedStatement statement, Layout layout, Object[] row) throws SQLException {
+        for (int c = 0; c < row.length; c++) {
+            int sqlType = switch (layout.types()[c]) {
+                case INTEGER -> Types.INTEGER;
+                case DATE -> Types.DATE;
+                case TEXT -> Types.VARCHAR;
+            };
+            if (row[c] == null)
+                statement.setNull(c + 1, sqlType);
+            else
+                statement.setObject(c + 1, row[c], sqlType);
+        }
+    }
+
+    private static Object value(Type type, String field) {
+        if (field == null)
+            return null;
+        return switch (type) {
+            case INTEGER -> Integer.valueOf(field.trim());
+            case DATE -> Date.valueOf(LocalDate.parse(field.trim()));
+            case TEXT -> field;
+        };
+    }
+
+    /**
+     * Read the header of the file
+     *
+     * @throws IllegalArgumentException for an empty file, an unknown column or a missing foreign key
+     */
+    private Layout layout(Table table, Path file) {
+
+        String header;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            header = reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (header == null || header.isBlank())
+            throw new IllegalArgumentException("The file is empty");
+
+        List<String> columns = SeedLoader.parseLine(header.replace("\uFEFF", "")).stream()
+                .map(column -> column == null ? "" : column.trim().toLowerCase())
+                .toList();
+        for (String column : columns)
+            if (!table.columns().containsKey(column))
+                throw new IllegalArgumentException("Unknown column '" + column + "' for " + table.name()
+                        + ", expected some of " + new TreeSet<>(table.columns().keySet()));
+        for (String column : table.foreignKeys().keySet())
+            if (!columns.contains(column))
+                throw new IllegalArgumentException("Column " + column + " is required for " + table.name());
+
+        Type[] types = columns.stream().map(table.columns()::get).toArray(Type[]::new);
+
+        List<String> references = columns.stream().map(column -> table.foreignKeys().get(column)).toList();
+
+        String insertSql = "INSERT INTO " + table.name() + " (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+
+        return new Layout(columns, types, references, columns.indexOf("id"), insertSql);
+    }
+
+    private static Table table(String entity) {
+        Table table = TABLES.get(entity);
+        if (table == null)
+            throw new IllegalArgumentException("Unknown entity " + entity);
+        return table;
+    }
+
+    private static Chunk next(Deque<Future<Chunk>> pending) {
+        try {
+            return pending.poll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime)
+                throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("op=import could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.tecsup.petclinic.services;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of int ids without boxing: one bit per id for the ids below
+ * DENSE_LIMIT, which AUTO_INCREMENT keys fill densely, and a sorted array
+ * for the others (negative or far away ids, e.g. imported with a gap).
+ * A million ids take 125 KB instead of about 50 MB as a HashSet of Integer,
+ * and contains() is a shift and a mask.
+ *
+ * Reads take no lock and see every completed write. Writes are serialized,
+ * which is cheap next to the database write that comes with each of them.
+ *
+ * @author jgomezm
+ *
+ */
+final class IntIdSet {
+
+    // 2^26 ids: at most 8 MB of bits
+    static final int DENSE_LIMIT = 1 << 26;
+
+    private static final int MIN_WORDS = 16;
+
+    private static final int[] EMPTY = {};
+
+    private volatile AtomicLongArray bits = new AtomicLongArray(MIN_WORDS);
+
+    // Copied on write, sorted
+    private volatile int[] sparse = EMPTY;
+
+    /**
+     *
+     * @param id
+     * @return
+     */
+    boolean contains(int id) {
+        if (id >= 0 && id < DENSE_LIMIT) {
+            AtomicLongArray words = bits;
+            int word = id >>> 6;
+            return word < words.length() && (words.get(word) & (1L << id)) != 0;
+        }
+        return Arrays.binarySearch(sparse, id) >= 0;
+    }
+
+    /**
+     *
+     * @param id
+     * @return false when it was there already
+     */
+    synchronized boolean add(int id) {
+        if (id >= 0 && id < DENSE_LIMIT) {
+            int word = id >>> 6;
+            if (word >= bits.length())
+                grow(word);
+            long mask = 1L << id;
+            return (bits.getAndAccumulate(word, mask, (a, b) -> a | b) & mask) == 0;
+        }
+        int[] current = sparse;
+        int index = Arrays.binarySearch(current, id);
+        if (index >= 0)
+            return false;
+        int at = -index - 1;
+        int[] next = new int[current.length + 1];
+        System.arraycopy(current, 0, next, 0, at);
+        next[at] = id;
+        System.arraycopy(current, at, next, at + 1, current.length - at);
+        sparse = next;
+        return true;
+    }
+
+    /**
+     *
+     * @param id
+     * @return false when it was not there
+     */
+    synchronized boolean remove(int id) {
+        if (id >= 0 && id < DENSE_LIMIT) {
+            int word = id >>> 6;
+            if (word >= bits.length())
+                return false;
+            long mask = 1L << id;
+            return (bits.getAndAccumulate(word, ~mask, (a, b) -> a & b) & mask) != 0;
+        }
+        int[] current = sparse;
+        int index = Arrays.binarySearch(current, id);
+        if (index < 0)
+            return false;
+        int[] next = new int[current.length - 1];
+        System.arraycopy(current, 0, next, 0, index);
+        System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+        sparse = next;
+        return true;
+    }
+
+    /**
+     *
+     * @return the number of ids, counted bit by bit
+     */
+    int size() {
+        AtomicLongArray words = bits;
+        int size = sparse.length;
+        for (int i = 0; i < words.length(); i++)
+            size += Long.bitCount(words.get(i));
+        return size;
+    }
+
+    /**
+     * Double the bits until the word fits; writers are locked out meanwhile
+     * and readers keep the old array, which holds the same bits
+     */
+    private void grow(int word) {
+        AtomicLongArray current = bits;
+        int length = current.length();
+        while (length <= word)
+            length = Math.min(length * 2, DENSE_LIMIT >>> 6);
+        AtomicLongArray next = new AtomicLongArray(length);
+        for (int i = 0; i < current.length(); i++)
+            next.set(i, current.get(i));
+        bits = next;
+    }
+
+}
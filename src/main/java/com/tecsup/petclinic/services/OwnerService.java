@@ -0,0 +1,77 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.OwnerPetCountDTO;
+import com.tecsup.petclinic.exceptions.OwnerNotFoundException;
+
+import java.util.List;
+
+/**
+ *
+ * @author jgomezm
+ *
+ */
+public interface OwnerService {
+
+    /**
+     *
+     * @param ownerDTO
+     * @return
+     */
+    OwnerDTO create(OwnerDTO ownerDTO);
+
+    /**
+     *
+     * @param ownerDTO
+     * @return
+     * @throws OwnerNotFoundException
+     */
+    OwnerDTO update(OwnerDTO ownerDTO) throws OwnerNotFoundException;
+
+    /**
+     * Delete an owner; its pets are deleted by the database (ON DELETE CASCADE)
+     *
+     * @param id
+     * @throws OwnerNotFoundException
+     */
+    void delete(Integer id) throws OwnerNotFoundException;
+
+    /**
+     *
+     * @param id
+     * @return
+     * @throws OwnerNotFoundException
+     */
+    OwnerDTO findById(Integer id) throws OwnerNotFoundException;
+
+    /**
+     * Owner together with its pets, loaded in one query
+     *
+     * @param id
+     * @return
+     * @throws OwnerNotFoundException
+     */
+    OwnerDTO findWithPets(Integer id) throws OwnerNotFoundException;
+
+    /**
+     *
+     * @param lastName last name prefix
+     * @return owners ordered by last and first name
+     */
+    List<OwnerDTO> findByLastName(String lastName);
+
+    /**
+     *
+     * @return
+     */
+    List<OwnerDTO> findAll();
+
+    /**
+     * Number of pets per owner, counted by the database
+     *
+     * @param lastName last name prefix, or null for every owner
+     * @return
+     */
+    List<OwnerPetCountDTO> countPets(String lastName);
+
+}
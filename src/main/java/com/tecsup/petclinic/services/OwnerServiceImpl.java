@@ -0,0 +1,201 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.config.CacheConfig;
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.OwnerPetCountDTO;
+import com.tecsup.petclinic.entities.Owner;
+import com.tecsup.petclinic.exceptions.OwnerNotFoundException;
+import com.tecsup.petclinic.logging.QueryLogger;
+import com.tecsup.petclinic.mapper.OwnerMapper;
+import com.tecsup.petclinic.repositories.LikePatterns;
+import com.tecsup.petclinic.repositories.OwnerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * @author jgomezm
+ *
+ */
+@Service
+@Slf4j
+public class OwnerServiceImpl implements OwnerService {
+
+    OwnerRepository ownerRepository;
+    OwnerMapper ownerMapper;
+    QueryLogger queryLogger;
+    VetAvailabilityIndex availabilityIndex;
+    VisitRollups rollups;
+    SearchIndex searchIndex;
+    ForeignKeyValidator foreignKeys;
+    TransactionTemplate transactionTemplate;
+
+    public OwnerServiceImpl(OwnerRepository ownerRepository, OwnerMapper ownerMapper, QueryLogger queryLogger,
+                            VetAvailabilityIndex availabilityIndex, VisitRollups rollups,
+                            SearchIndex searchIndex, ForeignKeyValidator foreignKeys,
+                            PlatformTransactionManager transactionManager) {
+        this.ownerRepository = ownerRepository;
+        this.ownerMapper = ownerMapper;
+        this.queryLogger = queryLogger;
+        this.availabilityIndex = availabilityIndex;
+        this.rollups = rollups;
+        this.searchIndex = searchIndex;
+        this.foreignKeys = foreignKeys;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     *
+     * @param ownerDTO
+     * @return
+     */
+    @Override
+    public OwnerDTO create(OwnerDTO ownerDTO) {
+
+        Owner newOwner = ownerRepository.save(ownerMapper.mapToEntity(ownerDTO));
+        searchIndex.putOwner(newOwner.getId(), newOwner.getFirstName(), newOwner.getLastName());
+        foreignKeys.added(ForeignKeyValidator.OWNERS, newOwner.getId());
+
+        return ownerMapper.mapToDto(newOwner);
+    }
+
+    /**
+     *
+     * @param ownerDTO
+     * @return
+     * @throws OwnerNotFoundException
+     */
+    @Override
+    public OwnerDTO update(OwnerDTO ownerDTO) throws OwnerNotFoundException {
+
+        int updated = ownerRepository.updateOwner(ownerDTO.getId(), ownerDTO.getFirstName(), ownerDTO.getLastName(),
+                ownerDTO.getAddress(), ownerDTO.getCity(), ownerDTO.getTelephone());
+
+        if (updated == 0)
+            throw new OwnerNotFoundException("Record not found...!");
+
+        searchIndex.putOwner(ownerDTO.getId(), ownerDTO.getFirstName(), ownerDTO.getLastName());
+        return ownerDTO;
+    }
+
+    /**
+     * The cascade removes pets and visits behind the back of the pet caches,
+     * so they are cleared. The visits are read first, in the same transaction,
+     * then taken out of the rollups and their slots released; the pets leave
+     * the search index with their owner
+     *
+     * @param id
+     * @throws OwnerNotFoundException
+     */
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PETS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PETS_BY_TYPE, allEntries = true)
+    })
+    public void delete(Integer id) throws OwnerNotFoundException {
+
+        List<VisitRollups.RemovedVisit> visits = new ArrayList<>();
+        List<VetAvailabilityIndex.Slot> slots = new ArrayList<>();
+
+        try (VisitRollups.Writing writing = rollups.writing()) {
+            boolean deleted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                visits.addAll(rollups.visitsOfOwner(id));
+                slots.addAll(availabilityIndex.slotsOfOwner(id));
+                return ownerRepository.deleteOwner(id) > 0;
+            }));
+            if (!deleted)
+                throw new OwnerNotFoundException("Record not found...!");
+
+            rollups.subtract(visits);
+        }
+
+        availabilityIndex.release(slots);
+        searchIndex.removeOwner(id);
+        foreignKeys.removed(ForeignKeyValidator.OWNERS, id);
+    }
+
+    /**
+     *
+     * @param id
+     * @return
+     * @throws OwnerNotFoundException
+     */
+    @Override
+    public OwnerDTO findById(Integer id) throws OwnerNotFoundException {
+
+        Owner owner = ownerRepository.findById(id)
+                .orElseThrow(() -> new OwnerNotFoundException("Record not found...!"));
+
+        return ownerMapper.mapToDto(owner);
+    }
+
+    /**
+     *
+     * @param id
+     * @return
+     * @throws OwnerNotFoundException
+     */
+    @Override
+    public OwnerDTO findWithPets(Integer id) throws OwnerNotFoundException {
+
+        Owner owner = ownerRepository.findWithPetsById(id)
+                .orElseThrow(() -> new OwnerNotFoundException("Record not found...!"));
+
+        return ownerMapper.mapToDtoWithPets(owner);
+    }
+
+    /**
+     *
+     * @param lastName
+     * @return
+     */
+    @Override
+    public List<OwnerDTO> findByLastName(String lastName) {
+
+        long start = queryLogger.start();
+
+        List<Owner> owners = queryLogger.rows(log, "owners.findByLastName", start,
+                ownerRepository.findByLastNameStartingWithOrderByLastNameAscFirstNameAsc(lastName));
+
+        return ownerMapper.mapToDtoList(owners);
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public List<OwnerDTO> findAll() {
+
+        long start = queryLogger.start();
+
+        List<Owner> owners = queryLogger.rows(log, "owners.findAll", start, ownerRepository.findAll());
+
+        return ownerMapper.mapToDtoList(owners);
+    }
+
+    /**
+     *
+     * @param lastName
+     * @return
+     */
+    @Override
+    public List<OwnerPetCountDTO> countPets(String lastName) {
+
+        long start = queryLogger.start();
+
+        List<OwnerPetCountDTO> counts = lastName == null || lastName.isEmpty()
+                ? ownerRepository.countPets()
+                : ownerRepository.countPetsByLastNameLike(LikePatterns.startingWith(lastName));
+
+        return queryLogger.rows(log, "owners.countPets", start, counts);
+    }
+
+}
@@ -1,10 +1,14 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.BatchItemResult;
 import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.PetSearchCriteria;
 import com.tecsup.petclinic.entities.Pet;
 import com.tecsup.petclinic.exceptions.PetNotFoundException;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  *
@@ -21,11 +25,15 @@ public interface PetService {
     public PetDTO create(PetDTO petDTO);
 
     /**
+     * Update name, type, owner and (when given) birth date of an existing pet.
+     * When pet.version is set, the update is refused with an
+     * OptimisticLockingFailureException if the pet has changed since.
      *
      * @param pet
      * @return
+     * @throws PetNotFoundException
      */
-    PetDTO update(PetDTO pet);
+    PetDTO update(PetDTO pet) throws PetNotFoundException;
 
     /**
      *
@@ -67,4 +75,63 @@ public interface PetService {
      * @return
      */
     List<Pet> findAll();
-}
\ No newline at end of file
+
+    /**
+     * All pets for read-only list views, read straight into DTOs
+     *
+     * @return pets ordered by id
+     */
+    List<PetDTO> findAllDtos();
+
+    /**
+     * Fetch the next page of pets ordered by id (keyset pagination)
+     *
+     * @param after last id already read, or null to start from the beginning
+     * @param limit maximum number of pets to return
+     * @return
+     */
+    List<PetDTO> findPage(Integer after, int limit);
+
+    /**
+     * Search pets by any combination of name prefix, type, owner and
+     * birth-date range, in id order
+     *
+     * @param criteria
+     * @param after last id already read, or null to start from the beginning
+     * @param limit maximum number of pets to return
+     * @return
+     */
+    List<PetDTO> search(PetSearchCriteria criteria, Integer after, int limit);
+
+    /**
+     * Read every pet in id order, handing each one to the consumer
+     * without materializing the whole table
+     *
+     * @param consumer
+     */
+    void streamAll(Consumer<PetDTO> consumer);
+
+    /**
+     * Create pets in chunked JDBC batches
+     *
+     * @param pets
+     * @return one result per pet, in request order
+     */
+    List<BatchItemResult> createAll(Iterator<PetDTO> pets);
+
+    /**
+     * Update pets in chunked JDBC batches
+     *
+     * @param pets
+     * @return one result per pet, in request order
+     */
+    List<BatchItemResult> updateAll(Iterator<PetDTO> pets);
+
+    /**
+     * Delete pets in chunked JDBC batches
+     *
+     * @param ids
+     * @return one result per id, in request order
+     */
+    List<BatchItemResult> deleteAll(Iterator<Integer> ids);
+}
@@ -1,16 +1,40 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.config.CacheConfig;
+import com.tecsup.petclinic.dtos.BatchItemResult;
 import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.PetSearchCriteria;
 import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.exceptions.InvalidReferenceException;
 import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.logging.QueryLogger;
 import com.tecsup.petclinic.mapper.PetMapper;
+import com.tecsup.petclinic.repositories.PetBatchRepository;
 import com.tecsup.petclinic.repositories.PetRepository;
+import com.tecsup.petclinic.repositories.PetSpecifications;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  *
@@ -23,10 +47,32 @@ public class PetServiceImpl implements PetService {
 
     PetRepository petRepository;
     PetMapper petMapper;
-
-    public PetServiceImpl (PetRepository petRepository, PetMapper petMapper) {
+    EntityManager entityManager;
+    QueryLogger queryLogger;
+    PetBatchRepository petBatchRepository;
+    ChunkedBatchExecutor batchExecutor;
+    VetAvailabilityIndex availabilityIndex;
+    VisitRollups rollups;
+    SearchIndex searchIndex;
+    ForeignKeyValidator foreignKeys;
+    TransactionTemplate transactionTemplate;
+
+    public PetServiceImpl (PetRepository petRepository, PetMapper petMapper, EntityManager entityManager,
+                           QueryLogger queryLogger, PetBatchRepository petBatchRepository,
+                           ChunkedBatchExecutor batchExecutor, VetAvailabilityIndex availabilityIndex,
+                           VisitRollups rollups, SearchIndex searchIndex, ForeignKeyValidator foreignKeys,
+                           PlatformTransactionManager transactionManager) {
         this.petRepository = petRepository;
         this.petMapper = petMapper;
+        this.entityManager = entityManager;
+        this.queryLogger = queryLogger;
+        this.petBatchRepository = petBatchRepository;
+        this.batchExecutor = batchExecutor;
+        this.availabilityIndex = availabilityIndex;
+        this.rollups = rollups;
+        this.searchIndex = searchIndex;
+        this.foreignKeys = foreignKeys;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
 
@@ -34,41 +80,94 @@ public class PetServiceImpl implements PetService {
      *
      * @param petDTO
      * @return
+     * @throws InvalidReferenceException when the type or the owner does not exist
      */
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PETS_BY_TYPE, key = "#petDTO.typeId")
     public PetDTO create(PetDTO petDTO) {
 
+        foreignKeys.checkPet(petDTO.getTypeId(), petDTO.getOwnerId());
+
         Pet newPet = petRepository.save(petMapper.mapToEntity(petDTO));
+        searchIndex.putPet(newPet.getId(), newPet.getName(), newPet.getOwnerId());
 
         return petMapper.mapToDto(newPet);
     }
 
     /**
+     * Runs as a single UPDATE; the row count tells whether the pet exists.
+     * When petDTO carries a version, the update only applies to that version
+     * and a stale one fails with an OptimisticLockingFailureException.
+     * A new type takes the visits of the pet with it in VisitRollups.
      *
      * @param petDTO
-     * @return
+     * @return the stored pet, with its new version
+     * @throws PetNotFoundException
+     * @throws InvalidReferenceException when the type or the owner does not exist
      */
     @Override
-    public PetDTO update(PetDTO petDTO) {
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PETS, key = "#petDTO.id"),
+            @CacheEvict(cacheNames = CacheConfig.PETS_BY_TYPE, allEntries = true)
+    })
+    public PetDTO update(PetDTO petDTO) throws PetNotFoundException {
 
-        Pet newPet = petRepository.save(petMapper.mapToEntity(petDTO));
+        foreignKeys.checkPet(petDTO.getTypeId(), petDTO.getOwnerId());
 
-        return petMapper.mapToDto(newPet);
+        Pet pet = petMapper.mapToEntity(petDTO);
+
+        int updated = petRepository.updatePet(pet.getId(), pet.getName(), pet.getTypeId(), pet.getOwnerId(),
+                pet.getBirthDate(), pet.getVersion());
+
+        if (updated == 0) {
+            if (pet.getVersion() != null && petRepository.existsById(pet.getId()))
+                throw new ObjectOptimisticLockingFailureException(Pet.class, pet.getId());
+            throw new PetNotFoundException("Record not found...!");
+        }
+
+        rollups.retype(pet.getId(), pet.getTypeId());
+        searchIndex.putPet(pet.getId(), pet.getName(), pet.getOwnerId());
+
+        // The UPDATE keeps the stored birth date when none is given: answer with the row, not the request
+        Pet stored = petRepository.findStoredById(pet.getId())
+                .orElseThrow(() -> new PetNotFoundException("Record not found...!"));
+        return petMapper.mapToDto(stored);
 
     }
 
 
     /**
+     * Runs as a single DELETE; the row count tells whether the pet exists.
+     * Its visits go with it (ON DELETE CASCADE): they are read first, in the
+     * same transaction, then taken out of the rollups and their slots released.
      *
      * @param id
      * @throws PetNotFoundException
      */
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PETS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PETS_BY_TYPE, allEntries = true)
+    })
     public void delete(Integer id) throws PetNotFoundException{
 
-        PetDTO pet = findById(id);
+        List<VisitRollups.RemovedVisit> visits = new ArrayList<>();
+        List<VetAvailabilityIndex.Slot> slots = new ArrayList<>();
+
+        try (VisitRollups.Writing writing = rollups.writing()) {
+            boolean deleted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                visits.addAll(rollups.visitsOfPets(List.of(id)));
+                slots.addAll(availabilityIndex.slotsOfPets(List.of(id)));
+                return petRepository.deletePet(id) > 0;
+            }));
+            if (!deleted)
+                throw new PetNotFoundException("Record not found...!");
+
+            rollups.subtract(visits);
+        }
 
-        petRepository.delete(this.petMapper.mapToEntity(pet));
+        availabilityIndex.release(slots);
+        searchIndex.remove(SearchIndex.PET, id);
 
     }
 
@@ -96,9 +195,9 @@ public class PetServiceImpl implements PetService {
     @Override
     public List<PetDTO> findByName(String name) {
 
-        List<Pet> pets = petRepository.findByName(name);
+        long start = queryLogger.start();
 
-        pets.forEach(pet -> log.info("" + pet));
+        List<Pet> pets = queryLogger.rows(log, "pets.findByName", start, petRepository.findByName(name));
 
         return pets
                 .stream()
@@ -114,9 +213,9 @@ public class PetServiceImpl implements PetService {
     @Override
     public List<Pet> findByTypeId(int typeId) {
 
-        List<Pet> pets = petRepository.findByTypeId(typeId);
+        long start = queryLogger.start();
 
-        pets.forEach(pet -> log.info("" + pet));
+        List<Pet> pets = queryLogger.rows(log, "pets.findByTypeId", start, petRepository.findByTypeId(typeId));
 
         return pets;
     }
@@ -129,9 +228,9 @@ public class PetServiceImpl implements PetService {
     @Override
     public List<Pet> findByOwnerId(int ownerId) {
 
-        List<Pet> pets = petRepository.findByOwnerId(ownerId);
+        long start = queryLogger.start();
 
-        pets.forEach(pet -> log.info("" + pet));
+        List<Pet> pets = queryLogger.rows(log, "pets.findByOwnerId", start, petRepository.findByOwnerId(ownerId));
 
         return pets;
     }
@@ -146,4 +245,193 @@ public class PetServiceImpl implements PetService {
         return petRepository.findAll();
 
     }
-}
\ No newline at end of file
+
+    /**
+     * The read-only transaction turns off flushing and dirty checking;
+     * the query creates no entities to check anyway.
+     *
+     * @return
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PetDTO> findAllDtos() {
+
+        long start = queryLogger.start();
+
+        return queryLogger.rows(log, "pets.findAllDtos", start, petRepository.findAllDtos());
+    }
+
+    /**
+     *
+     * @param after
+     * @param limit
+     * @return
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PetDTO> findPage(Integer after, int limit) {
+
+        return petRepository.findDtoPage(after == null ? 0 : after, Limit.of(limit));
+    }
+
+    /**
+     *
+     * @param criteria
+     * @param after
+     * @param limit
+     * @return
+     */
+    @Override
+    public List<PetDTO> search(PetSearchCriteria criteria, Integer after, int limit) {
+
+        long start = queryLogger.start();
+
+        List<Pet> pets = queryLogger.rows(log, "pets.search", start,
+                petRepository.findBy(PetSpecifications.matching(criteria, after),
+                        query -> query.sortBy(Sort.by("id")).limit(limit).all()));
+
+        return this.petMapper.mapToDtoList(pets);
+    }
+
+    /**
+     * Each pet is detached once handed over, so the persistence
+     * context does not grow with the size of the table.
+     *
+     * @param consumer
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<PetDTO> consumer) {
+
+        long start = queryLogger.start();
+        boolean tracing = queryLogger.isTracing(log);
+        long count = 0;
+
+        try (Stream<Pet> pets = petRepository.streamAll()) {
+            for (Pet pet : (Iterable<Pet>) pets::iterator) {
+                if (tracing)
+                    log.trace("op=pets.streamAll row={}", pet);
+                consumer.accept(this.petMapper.mapToDto(pet));
+                entityManager.detach(pet);
+                count++;
+            }
+        }
+
+        queryLogger.summary(log, "pets.streamAll", start, count);
+    }
+
+    /**
+     *
+     * @param petDTOs
+     * @return
+     */
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PETS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PETS_BY_TYPE, allEntries = true)
+    })
+    public List<BatchItemResult> createAll(Iterator<PetDTO> petDTOs) {
+
+        // A pet with an unknown type or owner fails its chunk before the batch is sent,
+        // the chunk is then replayed item by item
+        Map<Integer, Pet> created = new HashMap<>();
+        List<BatchItemResult> results = batchExecutor.execute(petDTOs, chunk -> {
+            chunk.forEach(pet -> foreignKeys.checkPet(pet.getTypeId(), pet.getOwnerId()));
+            List<Pet> pets = petMapper.mapToEntityList(chunk);
+            petBatchRepository.insertAll(pets);
+            pets.forEach(pet -> created.put(pet.getId(), pet));
+            return pets.stream()
+                    .map(pet -> BatchItemResult.builder().id(pet.getId()).status(BatchItemResult.Status.CREATED).build())
+                    .collect(Collectors.toList());
+        });
+
+        searchIndex.apply(indexed(results, BatchItemResult.Status.CREATED, created));
+        return results;
+    }
+
+    /**
+     *
+     * @param petDTOs
+     * @return
+     */
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PETS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PETS_BY_TYPE, allEntries = true)
+    })
+    public List<BatchItemResult> updateAll(Iterator<PetDTO> petDTOs) {
+
+        Map<Integer, Pet> updated = new HashMap<>();
+        List<BatchItemResult> results = batchExecutor.execute(petDTOs, chunk -> {
+            chunk.forEach(pet -> foreignKeys.checkPet(pet.getTypeId(), pet.getOwnerId()));
+            List<Pet> pets = petMapper.mapToEntityList(chunk);
+            int[] counts = petBatchRepository.updateAll(pets);
+            pets.forEach(pet -> updated.put(pet.getId(), pet));
+            return ChunkedBatchExecutor.fromUpdateCounts(
+                    pets.stream().map(Pet::getId).collect(Collectors.toList()), counts, BatchItemResult.Status.UPDATED);
+        });
+
+        // Only once committed: a replayed chunk may have rolled back
+        results.stream()
+                .filter(result -> result.getStatus() == BatchItemResult.Status.UPDATED)
+                .forEach(result -> rollups.retype(result.getId(), updated.get(result.getId()).getTypeId()));
+        searchIndex.apply(indexed(results, BatchItemResult.Status.UPDATED, updated));
+        return results;
+    }
+
+    /**
+     *
+     * @param ids
+     * @return
+     */
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PETS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PETS_BY_TYPE, allEntries = true)
+    })
+    public List<BatchItemResult> deleteAll(Iterator<Integer> ids) {
+
+        List<BatchItemResult> results = batchExecutor.execute(ids, chunk -> {
+
+            // Read in the chunk transaction, before the visits go with the pets, and taken
+            // out once it commits; rebuilds wait for this chunk only (a replay reads again)
+            List<VisitRollups.RemovedVisit> visits = new ArrayList<>();
+            List<VetAvailabilityIndex.Slot> slots = new ArrayList<>();
+            Set<Integer> deleted = new HashSet<>();
+            rollups.writingUntilCompletion(() -> {
+                rollups.subtract(visits.stream().filter(visit -> deleted.contains(visit.petId())).toList());
+                availabilityIndex.release(slots.stream().filter(slot -> deleted.contains(slot.petId())).toList());
+            });
+
+            visits.addAll(rollups.visitsOfPets(chunk));
+            slots.addAll(availabilityIndex.slotsOfPets(chunk));
+            List<BatchItemResult> chunkResults = ChunkedBatchExecutor.fromUpdateCounts(
+                    chunk, petBatchRepository.deleteAll(chunk), BatchItemResult.Status.DELETED);
+            chunkResults.stream()
+                    .filter(result -> result.getStatus() == BatchItemResult.Status.DELETED)
+                    .forEach(result -> deleted.add(result.getId()));
+            return chunkResults;
+        });
+
+        // Only the pets whose delete was committed
+        SearchIndex.Changes changes = new SearchIndex.Changes();
+        results.stream()
+                .filter(result -> result.getStatus() == BatchItemResult.Status.DELETED)
+                .forEach(result -> changes.remove(SearchIndex.PET, result.getId()));
+        searchIndex.apply(changes);
+        return results;
+    }
+
+    /**
+     * The pets of a batch whose write was committed, as written
+     */
+    private static SearchIndex.Changes indexed(List<BatchItemResult> results, BatchItemResult.Status status,
+                                               Map<Integer, Pet> written) {
+        SearchIndex.Changes changes = new SearchIndex.Changes();
+        results.stream()
+                .filter(result -> result.getStatus() == status)
+                .map(result -> written.get(result.getId()))
+                .forEach(pet -> changes.putPet(pet.getId(), pet.getName(), pet.getOwnerId()));
+        return changes;
+    }
+}
@@ -0,0 +1,450 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.SearchHitDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.NGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory Lucene index of the names of pets, owners and vets, for /search.
+ *
+ * Each name is indexed twice: as lower-cased, accent-folded words (exact,
+ * prefix and fuzzy matches) and as trigrams of those words (a fragment from
+ * the middle of a name, or a name with a typo, still shares most of them).
+ * A match is scored per query word: exact 4, prefix 2, within one edit
+ * (two for words of six letters or more) 1.5, plus up to 1 for the share
+ * of its trigrams found.
+ *
+ * The index is read from the tables at startup (on first use when
+ * petclinic.startup.warm-up is off) and kept up to date by the service
+ * writes (an owner delete takes its pets along, as ON DELETE CASCADE does).
+ * Batch writes and imports apply the records they committed as one set of
+ * Changes, with a single refresh of the searcher; only SeedLoader marks it
+ * stale and it is rebuilt on next use.
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+@Slf4j
+public class SearchIndex {
+
+    public static final String PET = "pet";
+
+    public static final String OWNER = "owner";
+
+    public static final String VET = "vet";
+
+    private static final String KEY = "key";
+
+    private static final String KIND = "kind";
+
+    private static final String ID = "id";
+
+    private static final String OWNER_ID = "ownerId";
+
+    private static final String LABEL = "label";
+
+    private static final String WORDS = "words";
+
+    private static final String GRAMS = "grams";
+
+    private static final int GRAM = 3;
+
+    // Words of a query taken into account, the rest is ignored
+    private static final int MAX_TERMS = 5;
+
+    private static final float EXACT_BOOST = 4f;
+
+    private static final float PREFIX_BOOST = 2f;
+
+    private static final float FUZZY_BOOST = 1.5f;
+
+    private static final float GRAMS_BOOST = 1f;
+
+    private static final String PETS_SQL = "SELECT id, name, owner_id FROM pets";
+
+    private static final String OWNERS_SQL = "SELECT id, first_name, last_name FROM owners";
+
+    private static final String VETS_SQL = "SELECT id, first_name, last_name FROM vets";
+
+    @FunctionalInterface
+    private interface IndexWrite {
+        void apply(IndexWriter writer) throws IOException;
+    }
+
+    /**
+     * Writes applied together by apply(), e.g. the committed items of a batch
+     */
+    public static final class Changes {
+
+        private final List<IndexWrite> writes = new ArrayList<>();
+
+        public Changes putPet(Integer id, String name, int ownerId) {
+            writes.add(w -> w.updateDocument(key(PET, id), document(PET, id, label(name), ownerId)));
+            return this;
+        }
+
+        public Changes putOwner(Integer id, String firstName, String lastName) {
+            writes.add(w -> w.updateDocument(key(OWNER, id), document(OWNER, id, label(firstName, lastName), null)));
+            return this;
+        }
+
+        public Changes putVet(Integer id, String firstName, String lastName) {
+            writes.add(w -> w.updateDocument(key(VET, id), document(VET, id, label(firstName, lastName), null)));
+            return this;
+        }
+
+        public Changes remove(String kind, Integer id) {
+            writes.add(w -> w.deleteDocuments(key(kind, id)));
+            return this;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean warmUp;
+
+    private final Analyzer analyzer = new PerFieldAnalyzerWrapper(analyzer(false), Map.of(GRAMS, analyzer(true)));
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    // Single writes go under the read lock, a rebuild replaces everything under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean stale = true;
+
+    public SearchIndex(JdbcTemplate jdbcTemplate,
+                       @Value("${petclinic.startup.warm-up:true}") boolean warmUp) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.warmUp = warmUp;
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     *
+     * @param id
+     * @param name
+     * @param ownerId
+     */
+    public void putPet(Integer id, String name, int ownerId) {
+        apply(new Changes().putPet(id, name, ownerId));
+    }
+
+    /**
+     *
+     * @param id
+     * @param firstName
+     * @param lastName
+     */
+    public void putOwner(Integer id, String firstName, String lastName) {
+        apply(new Changes().putOwner(id, firstName, lastName));
+    }
+
+    /**
+     *
+     * @param id
+     * @param firstName
+     * @param lastName
+     */
+    public void putVet(Integer id, String firstName, String lastName) {
+        apply(new Changes().putVet(id, firstName, lastName));
+    }
+
+    /**
+     *
+     * @param kind PET, OWNER or VET
+     * @param id
+     */
+    public void remove(String kind, Integer id) {
+        apply(new Changes().remove(kind, id));
+    }
+
+    /**
+     * Remove an owner and its pets (ON DELETE CASCADE)
+     *
+     * @param id
+     */
+    public void removeOwner(Integer id) {
+        write(w -> w.deleteDocuments(key(OWNER, id), new Term(OWNER_ID, id.toString())));
+    }
+
+    /**
+     * Apply the changes, then make them visible to searches at once
+     *
+     * @param changes
+     */
+    public void apply(Changes changes) {
+        if (changes.writes.isEmpty())
+            return;
+        write(w -> {
+            for (IndexWrite write : changes.writes)
+                write.apply(w);
+        });
+    }
+
+    /**
+     * Records were written behind the index (SeedLoader); it is read again on next use
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     *
+     * @param text words to look for, matched exactly, by prefix, by fragment or with typos
+     * @param kind PET, OWNER, VET or null for all
+     * @param limit
+     * @return best matches first
+     */
+    public List<SearchHitDTO> search(String text, String kind, int limit) {
+
+        List<String> terms = analyze(WORDS, text);
+        if (terms.isEmpty())
+            return List.of();
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms.subList(0, Math.min(terms.size(), MAX_TERMS)))
+            query.add(termQuery(term), Occur.MUST);
+        if (kind != null)
+            query.add(new TermQuery(new Term(KIND, kind)), Occur.FILTER);
+
+        if (stale)
+            refresh();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                StoredFields fields = searcher.storedFields();
+                List<SearchHitDTO> hits = new ArrayList<>();
+                for (ScoreDoc scoreDoc : searcher.search(query.build(), limit).scoreDocs) {
+                    Document document = fields.document(scoreDoc.doc);
+                    hits.add(new SearchHitDTO(document.get(KIND), document.getField(ID).numericValue().intValue(),
+                            document.get(LABEL), scoreDoc.score));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmUp)
+            refresh();
+    }
+
+    public void rebuild() {
+
+        long start = System.nanoTime();
+        long[] rows = { 0 };
+
+        lock.writeLock().lock();
+        try {
+            // Cleared first: an invalidate() arriving during the rebuild is kept
+            stale = false;
+
+            writer.deleteAll();
+            jdbcTemplate.query(PETS_SQL, rs -> {
+                add(document(PET, rs.getInt(1), label(rs.getString(2)), rs.getInt(3)));
+                rows[0]++;
+            });
+            jdbcTemplate.query(OWNERS_SQL, rs -> {
+                add(document(OWNER, rs.getInt(1), label(rs.getString(2), rs.getString(3)), null));
+                rows[0]++;
+            });
+            jdbcTemplate.query(VETS_SQL, rs -> {
+                add(document(VET, rs.getInt(1), label(rs.getString(2), rs.getString(3)), null));
+                rows[0]++;
+            });
+            // One segment: each query term is looked up once instead of once per segment
+            writer.forceMerge(1);
+            searcherManager.maybeRefreshBlocking();
+
+            log.info("op=search.rebuild rows={} took_ms={}", rows[0], (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            stale = true;
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            stale = true;
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    private void refresh() {
+        synchronized (this) {
+            if (stale)
+                rebuild();
+        }
+    }
+
+    private void write(IndexWrite write) {
+
+        // A stale index is read again with the change in it
+        if (stale)
+            return;
+
+        lock.readLock().lock();
+        try {
+            write.apply(writer);
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Document document) {
+        try {
+            writer.addDocument(document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Query termQuery(String term) {
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        query.add(constant(new TermQuery(new Term(WORDS, term)), EXACT_BOOST), Occur.SHOULD);
+        query.add(constant(new PrefixQuery(new Term(WORDS, term)), PREFIX_BOOST), Occur.SHOULD);
+        // Every word of one or two letters is one or two edits away. Two edits
+        // keep the first letter: its automaton is built per query and costs
+        // most of the search time without it
+        if (term.length() > 2) {
+            boolean twoEdits = term.length() > 5;
+            query.add(constant(new FuzzyQuery(new Term(WORDS, term), twoEdits ? 2 : 1, twoEdits ? 1 : 0), FUZZY_BOOST),
+                    Occur.SHOULD);
+        }
+
+        List<String> grams = analyze(GRAMS, term);
+        BooleanQuery.Builder gramQuery = new BooleanQuery.Builder();
+        for (String gram : grams)
+            gramQuery.add(constant(new TermQuery(new Term(GRAMS, gram)), GRAMS_BOOST / grams.size()), Occur.SHOULD);
+        // At least half of them, so a fragment does not match on one common trigram
+        gramQuery.setMinimumNumberShouldMatch((grams.size() + 1) / 2);
+        query.add(gramQuery.build(), Occur.SHOULD);
+
+        return query.build();
+    }
+
+    private List<String> analyze(String field, String text) {
+
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken())
+                terms.add(term.toString());
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static Query constant(Query query, float boost) {
+        return new BoostQuery(new ConstantScoreQuery(query), boost);
+    }
+
+    private static Term key(String kind, Integer id) {
+        return new Term(KEY, kind + ":" + id);
+    }
+
+    private static Document document(String kind, int id, String label, Integer ownerId) {
+
+        Document document = new Document();
+        document.add(new StringField(KEY, kind + ":" + id, Field.Store.NO));
+        document.add(new StringField(KIND, kind, Field.Store.YES));
+        document.add(new StoredField(ID, id));
+        document.add(new StoredField(LABEL, label));
+        document.add(new TextField(WORDS, label, Field.Store.NO));
+        document.add(new TextField(GRAMS, label, Field.Store.NO));
+        if (ownerId != null)
+            document.add(new StringField(OWNER_ID, ownerId.toString(), Field.Store.NO));
+        return document;
+    }
+
+    private static String label(String... names) {
+        StringBuilder label = new StringBuilder();
+        for (String name : names) {
+            if (name != null && !name.isBlank())
+                label.append(label.length() == 0 ? "" : " ").append(name.trim());
+        }
+        return label.toString();
+    }
+
+    /**
+     * Standard word splitting, lower case, accents folded (José matches jose);
+     * with grams, each word becomes its trigrams (shorter words stay whole)
+     */
+    private static Analyzer analyzer(boolean grams) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = new StandardTokenizer();
+                TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+                if (grams)
+                    stream = new NGramTokenFilter(stream, GRAM, GRAM, true);
+                return new TokenStreamComponents(tokenizer, stream);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.SearchHitDTO;
+
+import java.util.List;
+
+/**
+ *
+ * @author jgomezm
+ *
+ */
+public interface SearchService {
+
+    /**
+     * Pets, owners and vets whose names match the words of a query,
+     * tolerating partial words and typos
+     *
+     * @param query e.g. "geo frankln"
+     * @param type pet, owner, vet or null for all
+     * @param limit
+     * @return best matches first
+     */
+    List<SearchHitDTO> search(String query, String type, int limit);
+
+}
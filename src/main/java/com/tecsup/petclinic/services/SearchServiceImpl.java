@@ -0,0 +1,43 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.SearchHitDTO;
+import com.tecsup.petclinic.logging.QueryLogger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Answered by SearchIndex without touching the database
+ *
+ * @author jgomezm
+ *
+ */
+@Service
+@Slf4j
+public class SearchServiceImpl implements SearchService {
+
+    SearchIndex searchIndex;
+    QueryLogger queryLogger;
+
+    public SearchServiceImpl(SearchIndex searchIndex, QueryLogger queryLogger) {
+        this.searchIndex = searchIndex;
+        this.queryLogger = queryLogger;
+    }
+
+    /**
+     *
+     * @param query
+     * @param type
+     * @param limit
+     * @return
+     */
+    @Override
+    public List<SearchHitDTO> search(String query, String type, int limit) {
+
+        long start = queryLogger.start();
+
+        return queryLogger.rows(log, "search", start, searchIndex.search(query, type, limit));
+    }
+
+}
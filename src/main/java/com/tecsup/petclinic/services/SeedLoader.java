@@ -0,0 +1,440 @@
+package com.tecsup.petclinic.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Bulk loader for large fixture datasets, run at startup after the Flyway
+ * migrations when petclinic.seed.location is set.
+ *
+ * The location holds one or more CSV files per table, named after it
+ * (pets.csv, pets-2024.csv, ...), with a header line of column names
+ * and \n or \r\n line endings. An empty field is NULL and a quoted ""
+ * is an empty string, except with LOAD DATA, which cannot tell them
+ * apart and reads both as NULL. Tables are loaded in foreign key order,
+ * files of a table by name, each file in one transaction:
+ *
+ *   H2     INSERT ... SELECT FROM CSVREAD, read by the database itself
+ *   MySQL  LOAD DATA LOCAL INFILE (needs allowLoadLocalInfileInPath or
+ *          allowLoadLocalInfile on the driver and local_infile on the server)
+ *   other  batched INSERTs of petclinic.batch.chunk-size rows, also used
+ *          when LOAD DATA is refused
+ *
+ * Every loaded file is recorded in seed_history with its checksum, so a
+ * restart skips it. Files are append-only: a file that changed after it
+ * was loaded is reported and left alone, new rows go in a new file.
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+@Slf4j
+public class SeedLoader implements ApplicationRunner {
+
+    /**
+     * Tables that can be seeded, parents before children
+     */
+    static final List<String> TABLES =
+            List.of("vets", "specialties", "vet_specialties", "types", "owners", "pets", "visits");
+
+    private static final Pattern COLUMN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final String HISTORY_SQL = "SELECT checksum FROM seed_history WHERE file_name = ?";
+
+    private static final String RECORD_SQL =
+            "INSERT INTO seed_history (file_name, checksum, row_count) VALUES (?, ?, ?)";
+
+    enum Strategy { CSVREAD, LOAD_DATA, BATCH }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ResourcePatternResolver resourceResolver;
+
+    private final VetAvailabilityIndex availabilityIndex;
+
+    private final VisitRollups rollups;
+
+    private final SearchIndex searchIndex;
+
+    private final SpecialtyCatalog specialtyCatalog;
+
+    private final ForeignKeyValidator foreignKeys;
+
+    private final String location;
+
+    private final int chunkSize;
+
+    public SeedLoader(JdbcTemplate jdbcTemplate,
+                      PlatformTransactionManager transactionManager,
+                      ResourceLoader resourceLoader,
+                      VetAvailabilityIndex availabilityIndex,
+                      VisitRollups rollups,
+                      SearchIndex searchIndex,
+                      SpecialtyCatalog specialtyCatalog,
+                      ForeignKeyValidator foreignKeys,
+                      @Value("${petclinic.seed.location:}") String location,
+                      @Value("${petclinic.batch.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.resourceResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        this.availabilityIndex = availabilityIndex;
+        this.rollups = rollups;
+        this.searchIndex = searchIndex;
+        this.specialtyCatalog = specialtyCatalog;
+        this.foreignKeys = foreignKeys;
+        this.location = location;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!location.isBlank())
+            load(location);
+    }
+
+    /**
+     * Load the fixture files of a location that were not loaded before
+     *
+     * @param location e.g. file:/srv/seed or classpath:seed
+     * @return rows loaded per file name, in load order
+     */
+    public Map<String, Long> load(String location) {
+
+        long start = System.nanoTime();
+        Strategy strategy = strategy();
+        Map<String, Long> loaded = new LinkedHashMap<>();
+
+        for (String table : TABLES) {
+            for (Resource resource : resources(location, table)) {
+                long rows = loadFile(table, resource, strategy);
+                if (rows >= 0)
+                    loaded.put(resource.getFilename(), rows);
+            }
+        }
+
+        if (!loaded.isEmpty()) {
+            // Rows were written behind the in-memory indexes
+            availabilityIndex.invalidate();
+            rollups.invalidate();
+            searchIndex.invalidate();
+            specialtyCatalog.invalidate();
+            foreignKeys.invalidate();
+        }
+
+        log.info("op=seed.load location={} strategy={} files={} rows={} took_ms={}", location, strategy,
+                loaded.size(), loaded.values().stream().mapToLong(Long::longValue).sum(),
+                (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    /**
+     *
+     * @return -1 when the file was skipped
+     */
+    private long loadFile(String table, Resource resource, Strategy strategy) {
+
+        String fileName = resource.getFilename();
+        long checksum = checksum(resource);
+
+        List<Long> previous = jdbcTemplate.queryForList(HISTORY_SQL, Long.class, fileName);
+        if (!previous.isEmpty()) {
+            if (previous.get(0) != checksum)
+                log.warn("op=seed.load file={} changed since it was loaded, not loaded again: "
+                        + "put the new rows in a new file", fileName);
+            return -1;
+        }
+
+        List<String> columns = columns(resource);
+        long start = System.nanoTime();
+
+        long rows = transactionTemplate.execute(status -> {
+            long count = switch (strategy) {
+                case CSVREAD -> loadWithCsvRead(table, columns, resource);
+                case LOAD_DATA -> loadWithLoadData(table, columns, resource);
+                case BATCH -> loadWithBatches(table, columns, resource);
+            };
+            jdbcTemplate.update(RECORD_SQL, fileName, checksum, count);
+            return count;
+        });
+
+        log.info("op=seed.load file={} table={} rows={} took_ms={}", fileName, table, rows,
+                (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private long loadWithCsvRead(String table, List<String> columns, Resource resource) {
+
+        // CSVREAD gives every column as VARCHAR, the INSERT converts them; empty fields are read as NULL.
+        // The file name cannot be a parameter of the table function, it is written as a literal
+        return withFile(resource, path -> jdbcTemplate.update("INSERT INTO " + table
+                + " (" + String.join(", ", columns) + ") "
+                + "SELECT * FROM CSVREAD(" + literal(path) + ", NULL, 'charset=UTF-8')"));
+    }
+
+    private long loadWithLoadData(String table, List<String> columns, Resource resource) {
+
+        // Read every field into a variable first, so an empty field becomes NULL instead of '' or 0;
+        // a quoted "" is read as the same '' and becomes NULL too
+        String variables = columns.stream().map(column -> "@" + column).collect(Collectors.joining(", "));
+        String assignments = columns.stream().map(column -> column + " = NULLIF(@" + column + ", '')")
+                .collect(Collectors.joining(", "));
+
+        // With \n alone, a \r\n file would leave \r at the end of its last column
+        String lines = crlf(resource) ? "\\r\\n" : "\\n";
+
+        return withFile(resource, path -> {
+            String sql = "LOAD DATA LOCAL INFILE " + literal(path)
+                    + " INTO TABLE " + table + " CHARACTER SET utf8mb4"
+                    + " FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'"
+                    + " LINES TERMINATED BY '" + lines + "' IGNORE 1 LINES"
+                    + " (" + variables + ") SET " + assignments;
+            try {
+                return jdbcTemplate.update(sql);
+            } catch (DataAccessException e) {
+                log.info("op=seed.load table={} LOAD DATA refused, using batched inserts: {}", table, e.getMessage());
+                return loadWithBatches(table, columns, resource);
+            }
+        });
+    }
+
+    private long loadWithBatches(String table, List<String> columns, Resource resource) {
+
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+
+        long rows = 0;
+        List<Object[]> batch = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = reader(resource)) {
+            reader.readLine();
+            String record;
+            while ((record = readRecord(reader)) != null) {
+                if (record.isBlank())
+                    continue;
+                batch.add(parseLine(record).toArray());
+                if (batch.size() == chunkSize) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                    rows += batch.size();
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+            rows += batch.size();
+        }
+        return rows;
+    }
+
+    private Strategy strategy() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if ("H2".equalsIgnoreCase(product))
+            return Strategy.CSVREAD;
+        if ("MySQL".equalsIgnoreCase(product))
+            return Strategy.LOAD_DATA;
+        return Strategy.BATCH;
+    }
+
+    private List<Resource> resources(String location, String table) {
+
+        String base = location.endsWith("/") ? location : location + "/";
+        try {
+            return Arrays.stream(resourceResolver.getResources(base + table + "*.csv"))
+                    .filter(resource -> resource.getFilename() != null)
+                    .filter(resource -> resource.getFilename().equals(table + ".csv")
+                            || resource.getFilename().startsWith(table + "-"))
+                    .sorted(Comparator.comparing(Resource::getFilename))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Column names come from the file: only plain lower-case identifiers
+     * are accepted, since they are written into the SQL
+     */
+    private static List<String> columns(Resource resource) {
+
+        try (BufferedReader reader = reader(resource)) {
+            String header = reader.readLine();
+            if (header == null)
+                throw new IllegalArgumentException(resource.getFilename() + " is empty");
+            List<String> columns = parseLine(header.replace("\uFEFF", "")).stream()
+                    .map(column -> column == null ? "" : column.trim().toLowerCase())
+                    .toList();
+            for (String column : columns)
+                if (!COLUMN.matcher(column).matches())
+                    throw new IllegalArgumentException(resource.getFilename() + ": invalid column '" + column + "'");
+            return columns;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Whether the header line ends with \r\n
+     */
+    private static boolean crlf(Resource resource) {
+        try (InputStream in = new BufferedInputStream(resource.getInputStream())) {
+            int previous = -1;
+            int b;
+            while ((b = in.read()) != -1 && b != '\n')
+                previous = b;
+            return b == '\n' && previous == '\r';
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read the next CSV record: one line, or several while a quoted field
+     * is open, since a line break inside quotes belongs to the field
+     *
+     * @param reader
+     * @return the record, its lines joined by \n, or null at the end
+     * @throws IOException
+     */
+    static String readRecord(BufferedReader reader) throws IOException {
+
+        String line = reader.readLine();
+        if (line == null)
+            return null;
+
+        // "" inside quotes counts twice: an odd count leaves a field open
+        StringBuilder record = new StringBuilder(line);
+        long quotes = line.chars().filter(c -> c == '"').count();
+        while (quotes % 2 != 0 && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+            quotes += line.chars().filter(c -> c == '"').count();
+        }
+        return record.toString();
+    }
+
+    /**
+     * Split a CSV record on commas, with double quotes around fields that
+     * contain commas, quotes or line breaks ("" inside quotes is a quote)
+     *
+     * @param line
+     * @return the fields, null for empty unquoted ones
+     */
+    static List<String> parseLine(String line) {
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+        return fields;
+    }
+
+    @FunctionalInterface
+    private interface FileLoad {
+        long load(Path path);
+    }
+
+    /**
+     * The database reads the file itself: hand it a path, copying
+     * resources that are not plain files (e.g. inside the jar) first
+     */
+    private static long withFile(Resource resource, FileLoad load) {
+        try {
+            if (resource.isFile()) {
+                File file = resource.getFile();
+                return load.load(file.toPath().toAbsolutePath());
+            }
+            Path copy = Files.createTempFile("seed-", "-" + resource.getFilename());
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+                return load.load(copy.toAbsolutePath());
+            } finally {
+                Files.deleteIfExists(copy);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String literal(Path path) {
+        return "'" + path.toString().replace("\\", "/").replace("'", "''") + "'";
+    }
+
+    static long checksum(Resource resource) {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = resource.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                crc.update(buffer, 0, read);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return crc.getValue();
+    }
+
+    private static BufferedReader reader(Resource resource) throws IOException {
+        return new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catálogo en memoria de la tabla specialties.
+ *
+ * La tabla es pequeña y casi no cambia: se lee completa en un mapa
+ * inmutable que se reemplaza entero. SpecialtyChangeListener lo marca
+ * como desactualizado cuando se confirma un alta, cambio o baja, y se
+ * vuelve a leer en el siguiente uso.
+ *
+ * Los DTO devueltos son compartidos: solo lectura.
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+@Slf4j
+public class SpecialtyCatalog {
+
+    private static final String SELECT_SQL =
+            "SELECT id, name, office, h_open, h_close FROM specialties ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile List<SpecialtyDTO> specialties = List.of();
+
+    private volatile Map<Integer, SpecialtyDTO> byId = Map.of();
+
+    private volatile boolean stale = true;
+
+    public SpecialtyCatalog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     *
+     * @return todas las especialidades ordenadas por id
+     */
+    public List<SpecialtyDTO> findAll() {
+        refreshIfStale();
+        return specialties;
+    }
+
+    /**
+     *
+     * @param id
+     * @return
+     */
+    public Optional<SpecialtyDTO> findById(Integer id) {
+        refreshIfStale();
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Leer de nuevo la tabla
+     */
+    public synchronized void refresh() {
+
+        // cleared first, so a change committed while reading marks it again
+        stale = false;
+
+        List<SpecialtyDTO> rows = jdbcTemplate.query(SELECT_SQL, (rs, i) -> SpecialtyDTO.builder()
+                .id(rs.getInt("id"))
+                .name(rs.getString("name"))
+                .office(rs.getString("office"))
+                .openHour(rs.getObject("h_open", Integer.class))
+                .closeHour(rs.getObject("h_close", Integer.class))
+                .build());
+
+        byId = rows.stream().collect(Collectors.toUnmodifiableMap(SpecialtyDTO::getId, Function.identity()));
+        specialties = List.copyOf(rows);
+
+        log.info("op=specialties.refresh rows={}", rows.size());
+    }
+
+    /**
+     * La tabla cambió; se vuelve a leer en el siguiente uso
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    private void refreshIfStale() {
+        if (stale) {
+            synchronized (this) {
+                if (stale)
+                    refresh();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.entities.Specialty;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Listener JPA de Specialty: invalida SpecialtyCatalog después del commit.
+ *
+ * Hibernate lo crea a través de Spring mientras arranca el
+ * EntityManagerFactory, por eso el catálogo se obtiene de forma diferida.
+ *
+ * @author jgomezm
+ *
+ */
+public class SpecialtyChangeListener {
+
+    private final ObjectProvider<SpecialtyCatalog> specialtyCatalog;
+
+    public SpecialtyChangeListener(ObjectProvider<SpecialtyCatalog> specialtyCatalog) {
+        this.specialtyCatalog = specialtyCatalog;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(Specialty specialty) {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    specialtyCatalog.getObject().invalidate();
+                }
+            });
+        } else {
+            specialtyCatalog.getObject().invalidate();
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
+import com.tecsup.petclinic.exceptions.SpecialtyNotFoundException;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+
+import java.util.List;
+
+/**
+ * Service interface para Specialty y sus veterinarios
+ * 
+ * @author jgomezm
+ *
+ */
+public interface SpecialtyService {
+
+    /**
+     * Crear una especialidad
+     * @param specialtyDTO
+     * @return SpecialtyDTO creada
+     */
+    SpecialtyDTO create(SpecialtyDTO specialtyDTO);
+
+    /**
+     * Actualizar una especialidad existente
+     * @param specialtyDTO
+     * @return SpecialtyDTO actualizada
+     * @throws SpecialtyNotFoundException
+     */
+    SpecialtyDTO update(SpecialtyDTO specialtyDTO) throws SpecialtyNotFoundException;
+
+    /**
+     * Eliminar una especialidad; sus vet_specialties se borran en cascada
+     * @param id
+     * @throws SpecialtyNotFoundException
+     */
+    void delete(Integer id) throws SpecialtyNotFoundException;
+
+    /**
+     * Buscar especialidad por ID (desde el catálogo)
+     * @param id
+     * @return SpecialtyDTO
+     * @throws SpecialtyNotFoundException
+     */
+    SpecialtyDTO findById(Integer id) throws SpecialtyNotFoundException;
+
+    /**
+     * Obtener todas las especialidades (desde el catálogo)
+     * @return Lista de SpecialtyDTO
+     */
+    List<SpecialtyDTO> findAll();
+
+    /**
+     * Especialidades de un veterinario, la principal primero
+     * @param vetId
+     * @return Lista de VetSpecialtyDTO con el nombre de la especialidad
+     * @throws VetNotFoundException
+     */
+    List<VetSpecialtyDTO> findByVetId(Integer vetId) throws VetNotFoundException;
+
+    /**
+     * Veterinarios de una especialidad ordenados por años de experiencia
+     * @param specialtyId
+     * @return Lista de VetSpecialtyDTO con el nombre del veterinario
+     * @throws SpecialtyNotFoundException
+     */
+    List<VetSpecialtyDTO> findVetsBySpecialtyId(Integer specialtyId) throws SpecialtyNotFoundException;
+
+}
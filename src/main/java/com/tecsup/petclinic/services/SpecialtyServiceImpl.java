@@ -0,0 +1,152 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
+import com.tecsup.petclinic.entities.Specialty;
+import com.tecsup.petclinic.exceptions.SpecialtyNotFoundException;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.logging.QueryLogger;
+import com.tecsup.petclinic.mapper.SpecialtyMapper;
+import com.tecsup.petclinic.repositories.SpecialtyRepository;
+import com.tecsup.petclinic.repositories.VetRepository;
+import com.tecsup.petclinic.repositories.VetSpecialtyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Las especialidades se leen de SpecialtyCatalog; las relaciones con
+ * veterinarios, de vet_specialties con una sola consulta.
+ * 
+ * @author jgomezm
+ *
+ */
+@Service
+@Slf4j
+public class SpecialtyServiceImpl implements SpecialtyService {
+
+    SpecialtyRepository specialtyRepository;
+    VetSpecialtyRepository vetSpecialtyRepository;
+    VetRepository vetRepository;
+    SpecialtyMapper specialtyMapper;
+    SpecialtyCatalog specialtyCatalog;
+    QueryLogger queryLogger;
+
+    public SpecialtyServiceImpl(SpecialtyRepository specialtyRepository, VetSpecialtyRepository vetSpecialtyRepository,
+                                VetRepository vetRepository, SpecialtyMapper specialtyMapper,
+                                SpecialtyCatalog specialtyCatalog, QueryLogger queryLogger) {
+        this.specialtyRepository = specialtyRepository;
+        this.vetSpecialtyRepository = vetSpecialtyRepository;
+        this.vetRepository = vetRepository;
+        this.specialtyMapper = specialtyMapper;
+        this.specialtyCatalog = specialtyCatalog;
+        this.queryLogger = queryLogger;
+    }
+
+    /**
+     * Crear una especialidad
+     * @param specialtyDTO
+     * @return SpecialtyDTO creada
+     */
+    @Override
+    public SpecialtyDTO create(SpecialtyDTO specialtyDTO) {
+
+        Specialty newSpecialty = specialtyRepository.save(specialtyMapper.mapToEntity(specialtyDTO));
+
+        return specialtyMapper.mapToDto(newSpecialty);
+    }
+
+    /**
+     * Actualizar una especialidad existente
+     * @param specialtyDTO
+     * @return SpecialtyDTO actualizada
+     * @throws SpecialtyNotFoundException
+     */
+    @Override
+    public SpecialtyDTO update(SpecialtyDTO specialtyDTO) throws SpecialtyNotFoundException {
+
+        if (!specialtyRepository.existsById(specialtyDTO.getId()))
+            throw new SpecialtyNotFoundException("Record not found...!");
+
+        Specialty updated = specialtyRepository.save(specialtyMapper.mapToEntity(specialtyDTO));
+
+        return specialtyMapper.mapToDto(updated);
+    }
+
+    /**
+     * Eliminar una especialidad
+     * @param id
+     * @throws SpecialtyNotFoundException
+     */
+    @Override
+    public void delete(Integer id) throws SpecialtyNotFoundException {
+
+        Specialty specialty = specialtyRepository.findById(id)
+                .orElseThrow(() -> new SpecialtyNotFoundException("Record not found...!"));
+
+        specialtyRepository.delete(specialty);
+    }
+
+    /**
+     * Buscar especialidad por ID
+     * @param id
+     * @return SpecialtyDTO
+     * @throws SpecialtyNotFoundException
+     */
+    @Override
+    public SpecialtyDTO findById(Integer id) throws SpecialtyNotFoundException {
+
+        return specialtyCatalog.findById(id)
+                .orElseThrow(() -> new SpecialtyNotFoundException("Record not found...!"));
+    }
+
+    /**
+     * Obtener todas las especialidades
+     * @return Lista de SpecialtyDTO
+     */
+    @Override
+    public List<SpecialtyDTO> findAll() {
+        return specialtyCatalog.findAll();
+    }
+
+    /**
+     * Especialidades de un veterinario
+     * @param vetId
+     * @return Lista de VetSpecialtyDTO
+     * @throws VetNotFoundException
+     */
+    @Override
+    public List<VetSpecialtyDTO> findByVetId(Integer vetId) throws VetNotFoundException {
+
+        if (vetRepository.findById(vetId).isEmpty())
+            throw new VetNotFoundException("Record not found...!");
+
+        long start = queryLogger.start();
+
+        List<VetSpecialtyDTO> specialties = specialtyMapper.mapToVetSpecialtyDtoList(vetSpecialtyRepository.findByVetId(vetId));
+        specialties.forEach(vs -> specialtyCatalog.findById(vs.getSpecialtyId())
+                .ifPresent(specialty -> vs.setSpecialtyName(specialty.getName())));
+
+        return queryLogger.rows(log, "specialties.findByVetId", start, specialties);
+    }
+
+    /**
+     * Veterinarios de una especialidad por experiencia
+     * @param specialtyId
+     * @return Lista de VetSpecialtyDTO
+     * @throws SpecialtyNotFoundException
+     */
+    @Override
+    public List<VetSpecialtyDTO> findVetsBySpecialtyId(Integer specialtyId) throws SpecialtyNotFoundException {
+
+        if (specialtyCatalog.findById(specialtyId).isEmpty())
+            throw new SpecialtyNotFoundException("Record not found...!");
+
+        long start = queryLogger.start();
+
+        return queryLogger.rows(log, "specialties.findVetsBySpecialtyId", start,
+                vetSpecialtyRepository.findRankedBySpecialtyId(specialtyId));
+    }
+
+}
@@ -0,0 +1,262 @@
+package com.tecsup.petclinic.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of the slots each vet is booked.
+ *
+ * A visit takes one slot of SLOT_MINUTES starting at visits.visit_time, on
+ * the grid from OPENS to CLOSES. The booked slots of a vet are kept as a
+ * sorted set of their starts, so the slots of a day are a range of it.
+ * The index is read from visits at startup (on first use when
+ * petclinic.startup.warm-up is off) and updated on every booking. Deletes
+ * remove visits through ON DELETE CASCADE/SET NULL: the slots of those
+ * visits are read beforehand through idx_visits_pet_id and released one by
+ * one, and a deleted vet is dropped, so the table is never read again.
+ *
+ * The unique index uq_visits_vet_slot stays the source of truth: the index
+ * answers availability without touching the database, and a booking the
+ * index missed (another instance, a concurrent rebuild) still fails on insert.
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+@Slf4j
+public class VetAvailabilityIndex {
+
+    public static final LocalTime OPENS = LocalTime.of(9, 0);
+
+    public static final LocalTime CLOSES = LocalTime.of(18, 0);
+
+    public static final int SLOT_MINUTES = 30;
+
+    static final int SLOTS_PER_DAY = (int) (ChronoUnit.MINUTES.between(OPENS, CLOSES) / SLOT_MINUTES);
+
+    private static final String BOOKED_SLOTS_SQL =
+            "SELECT vet_id, visit_date, visit_time FROM visits WHERE vet_id IS NOT NULL";
+
+    private static final String PET_SLOTS_SQL =
+            "SELECT pet_id, vet_id, visit_date, visit_time FROM visits WHERE vet_id IS NOT NULL AND pet_id IN (%s)";
+
+    private static final String OWNER_SLOTS_SQL =
+            "SELECT v.pet_id, v.vet_id, v.visit_date, v.visit_time FROM visits v JOIN pets p ON p.id = v.pet_id "
+                    + "WHERE v.vet_id IS NOT NULL AND p.owner_id = ?";
+
+    /**
+     * A booked slot and the pet it is booked for
+     */
+    public record Slot(Integer petId, Integer vetId, LocalDate day, LocalTime time) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean warmUp;
+
+    private volatile Map<Integer, NavigableSet<LocalDateTime>> bookedSlots = new ConcurrentHashMap<>();
+
+    private volatile boolean stale = true;
+
+    public VetAvailabilityIndex(JdbcTemplate jdbcTemplate,
+                                @Value("${petclinic.startup.warm-up:true}") boolean warmUp) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.warmUp = warmUp;
+    }
+
+    /**
+     *
+     * @param time
+     * @return true when a slot starts at that time
+     */
+    public static boolean isSlot(LocalTime time) {
+        return !time.isBefore(OPENS) && time.isBefore(CLOSES) && time.getSecond() == 0 && time.getNano() == 0
+                && ChronoUnit.MINUTES.between(OPENS, time) % SLOT_MINUTES == 0;
+    }
+
+    /**
+     *
+     * @param vetId
+     * @param day
+     * @return true when the vet has a free slot that day
+     */
+    public boolean isFree(Integer vetId, LocalDate day) {
+        return slotsOf(index().get(vetId), day).size() < SLOTS_PER_DAY;
+    }
+
+    /**
+     *
+     * @param vetId
+     * @param day
+     * @param time start of the slot
+     * @return true when the vet has no visit in that slot
+     */
+    public boolean isFree(Integer vetId, LocalDate day, LocalTime time) {
+        NavigableSet<LocalDateTime> slots = index().get(vetId);
+        return slots == null || !slots.contains(day.atTime(time));
+    }
+
+    /**
+     * Reserve a slot for a vet
+     *
+     * @param vetId
+     * @param day
+     * @param time start of the slot
+     * @return false when the slot was already booked
+     */
+    public boolean tryBook(Integer vetId, LocalDate day, LocalTime time) {
+        return index().computeIfAbsent(vetId, id -> new ConcurrentSkipListSet<>()).add(day.atTime(time));
+    }
+
+    /**
+     * Reserve the earliest free slot of a vet on a day
+     *
+     * @param vetId
+     * @param day
+     * @return the start of the slot, empty when the day is full
+     */
+    public Optional<LocalTime> tryBookFirstFree(Integer vetId, LocalDate day) {
+        NavigableSet<LocalDateTime> slots = index().computeIfAbsent(vetId, id -> new ConcurrentSkipListSet<>());
+        for (LocalTime time = OPENS; time.isBefore(CLOSES); time = time.plusMinutes(SLOT_MINUTES)) {
+            if (slots.add(day.atTime(time)))
+                return Optional.of(time);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Give back a slot reserved by tryBook whose visit was not stored
+     *
+     * @param vetId
+     * @param day
+     * @param time start of the slot
+     */
+    public void release(Integer vetId, LocalDate day, LocalTime time) {
+        NavigableSet<LocalDateTime> slots = index().get(vetId);
+        if (slots != null)
+            slots.remove(day.atTime(time));
+    }
+
+    /**
+     * Give back the slots of visits that were deleted
+     *
+     * @param slots
+     */
+    public void release(Collection<Slot> slots) {
+        slots.forEach(slot -> release(slot.vetId(), slot.day(), slot.time()));
+    }
+
+    /**
+     * A vet was deleted: its visits are kept without a vet
+     *
+     * @param vetId
+     */
+    public void removeVet(Integer vetId) {
+        index().remove(vetId);
+    }
+
+    /**
+     * Read before the pets are deleted, to release them once they are
+     *
+     * @param petIds
+     * @return slots booked for the pets
+     */
+    public List<Slot> slotsOfPets(Collection<Integer> petIds) {
+        if (petIds.isEmpty())
+            return List.of();
+        return jdbcTemplate.query(PET_SLOTS_SQL.formatted(String.join(", ", Collections.nCopies(petIds.size(), "?"))),
+                VetAvailabilityIndex::slot, petIds.toArray());
+    }
+
+    /**
+     * Read before the owner is deleted, to release them once it is
+     *
+     * @param ownerId
+     * @return slots booked for the pets of the owner
+     */
+    public List<Slot> slotsOfOwner(Integer ownerId) {
+        return jdbcTemplate.query(OWNER_SLOTS_SQL, VetAvailabilityIndex::slot, ownerId);
+    }
+
+    /**
+     *
+     * @param vetId
+     * @param day
+     * @return booked slots of the vet that day
+     */
+    public NavigableSet<LocalDateTime> bookedSlots(Integer vetId, LocalDate day) {
+        return slotsOf(index().get(vetId), day);
+    }
+
+    /**
+     * Visits were changed behind the index (SeedLoader); it is read again on next use
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmUp)
+            index();
+    }
+
+    public void rebuild() {
+
+        long start = System.nanoTime();
+
+        Map<Integer, NavigableSet<LocalDateTime>> slots = new ConcurrentHashMap<>();
+        int[] rows = { 0 };
+        jdbcTemplate.query(BOOKED_SLOTS_SQL, rs -> {
+            slots.computeIfAbsent(rs.getInt(1), id -> new ConcurrentSkipListSet<>())
+                    .add(rs.getObject(2, LocalDate.class).atTime(rs.getObject(3, LocalTime.class)));
+            rows[0]++;
+        });
+
+        bookedSlots = slots;
+        stale = false;
+
+        log.info("op=visits.availability.rebuild vets={} rows={} took_ms={}", slots.size(), rows[0],
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static Slot slot(ResultSet rs, int rowNum) throws SQLException {
+        return new Slot(rs.getInt(1), rs.getInt(2), rs.getObject(3, LocalDate.class), rs.getObject(4, LocalTime.class));
+    }
+
+    private static NavigableSet<LocalDateTime> slotsOf(NavigableSet<LocalDateTime> slots, LocalDate day) {
+        if (slots == null)
+            return new ConcurrentSkipListSet<>();
+        return slots.subSet(day.atStartOfDay(), true, day.plusDays(1).atStartOfDay(), false);
+    }
+
+    private Map<Integer, NavigableSet<LocalDateTime>> index() {
+        if (stale) {
+            synchronized (this) {
+                if (stale)
+                    rebuild();
+            }
+        }
+        return bookedSlots;
+    }
+
+}
@@ -1,10 +1,13 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.dtos.BatchItemResult;
 import com.tecsup.petclinic.dtos.VetDTO;
 import com.tecsup.petclinic.entities.Vet;
 import com.tecsup.petclinic.exceptions.VetNotFoundException;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service interface para Vet
@@ -22,11 +25,13 @@ public interface VetService {
     VetDTO create(VetDTO vetDTO);
 
     /**
-     * Actualizar un veterinario existente
+     * Actualizar un veterinario existente. Si vetDTO.version está informado y el
+     * veterinario cambió desde entonces, se lanza OptimisticLockingFailureException
      * @param vetDTO
      * @return VetDTO actualizado
+     * @throws VetNotFoundException
      */
-    VetDTO update(VetDTO vetDTO);
+    VetDTO update(VetDTO vetDTO) throws VetNotFoundException;
 
     /**
      * Eliminar un veterinario por ID
@@ -76,4 +81,45 @@ public interface VetService {
      * @return Lista de Vet
      */
     List<Vet> findAll();
-}
\ No newline at end of file
+
+    /**
+     * Obtener todos los veterinarios para listados de solo lectura, sin entidades
+     * @return Lista de VetDTO ordenada por id
+     */
+    List<VetDTO> findAllDtos();
+
+    /**
+     * Obtener la siguiente página de veterinarios ordenados por id (keyset)
+     * @param after último id leído, o null para empezar desde el inicio
+     * @param limit cantidad máxima de veterinarios
+     * @return Lista de VetDTO
+     */
+    List<VetDTO> findPage(Integer after, int limit);
+
+    /**
+     * Recorrer todos los veterinarios en orden de id sin cargar la tabla completa
+     * @param consumer recibe cada VetDTO
+     */
+    void streamAll(Consumer<VetDTO> consumer);
+
+    /**
+     * Crear veterinarios en lotes JDBC por bloques
+     * @param vets
+     * @return un resultado por veterinario, en el orden recibido
+     */
+    List<BatchItemResult> createAll(Iterator<VetDTO> vets);
+
+    /**
+     * Actualizar veterinarios en lotes JDBC por bloques
+     * @param vets
+     * @return un resultado por veterinario, en el orden recibido
+     */
+    List<BatchItemResult> updateAll(Iterator<VetDTO> vets);
+
+    /**
+     * Eliminar veterinarios en lotes JDBC por bloques
+     * @param ids
+     * @return un resultado por id, en el orden recibido
+     */
+    List<BatchItemResult> deleteAll(Iterator<Integer> ids);
+}
@@ -1,16 +1,31 @@
 package com.tecsup.petclinic.services;
 
+import com.tecsup.petclinic.config.CacheConfig;
+import com.tecsup.petclinic.dtos.BatchItemResult;
 import com.tecsup.petclinic.dtos.VetDTO;
 import com.tecsup.petclinic.entities.Vet;
 import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.logging.QueryLogger;
 import com.tecsup.petclinic.mapper.VetMapper;
+import com.tecsup.petclinic.repositories.VetBatchRepository;
 import com.tecsup.petclinic.repositories.VetRepository;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de Vet
@@ -24,10 +39,29 @@ public class VetServiceImpl implements VetService {
 
     VetRepository vetRepository;
     VetMapper vetMapper;
-
-    public VetServiceImpl(VetRepository vetRepository, VetMapper vetMapper) {
+    EntityManager entityManager;
+    QueryLogger queryLogger;
+    VetBatchRepository vetBatchRepository;
+    ChunkedBatchExecutor batchExecutor;
+    VetAvailabilityIndex availabilityIndex;
+    VisitRollups rollups;
+    SearchIndex searchIndex;
+    ForeignKeyValidator foreignKeys;
+
+    public VetServiceImpl(VetRepository vetRepository, VetMapper vetMapper, EntityManager entityManager,
+                          QueryLogger queryLogger, VetBatchRepository vetBatchRepository,
+                          ChunkedBatchExecutor batchExecutor, VetAvailabilityIndex availabilityIndex,
+                          VisitRollups rollups, SearchIndex searchIndex, ForeignKeyValidator foreignKeys) {
         this.vetRepository = vetRepository;
         this.vetMapper = vetMapper;
+        this.entityManager = entityManager;
+        this.queryLogger = queryLogger;
+        this.vetBatchRepository = vetBatchRepository;
+        this.batchExecutor = batchExecutor;
+        this.availabilityIndex = availabilityIndex;
+        this.rollups = rollups;
+        this.searchIndex = searchIndex;
+        this.foreignKeys = foreignKeys;
     }
 
     /**
@@ -36,37 +70,73 @@ public class VetServiceImpl implements VetService {
      * @return VetDTO creado
      */
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_ACTIVE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_LAST_NAME, key = "#vetDTO.lastName", condition = "#vetDTO.lastName != null")
+    })
     public VetDTO create(VetDTO vetDTO) {
 
         Vet newVet = vetRepository.save(vetMapper.mapToEntity(vetDTO));
+        searchIndex.putVet(newVet.getId(), newVet.getFirstName(), newVet.getLastName());
+        foreignKeys.added(ForeignKeyValidator.VETS, newVet.getId());
 
         return vetMapper.mapToDto(newVet);
     }
 
     /**
-     * Actualizar un veterinario existente
+     * Actualizar un veterinario existente con un único UPDATE.
+     * Si vetDTO trae versión, solo se actualiza esa versión; una versión
+     * vieja termina en OptimisticLockingFailureException.
      * @param vetDTO
-     * @return VetDTO actualizado
+     * @return el veterinario guardado, con su nueva versión
+     * @throws VetNotFoundException
      */
     @Override
-    public VetDTO update(VetDTO vetDTO) {
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.VETS, key = "#vetDTO.id"),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_ACTIVE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_LAST_NAME, allEntries = true)
+    })
+    public VetDTO update(VetDTO vetDTO) throws VetNotFoundException {
+
+        int updated = vetRepository.updateVet(vetDTO.getId(), vetDTO.getFirstName(), vetDTO.getLastName(),
+                vetDTO.getEmail(), vetDTO.getPhone(), vetDTO.getActive(), vetDTO.getVersion());
+
+        if (updated == 0) {
+            if (vetDTO.getVersion() != null && vetRepository.existsById(vetDTO.getId()))
+                throw new ObjectOptimisticLockingFailureException(Vet.class, vetDTO.getId());
+            throw new VetNotFoundException("Record not found...!");
+        }
 
-        Vet updatedVet = vetRepository.save(vetMapper.mapToEntity(vetDTO));
+        searchIndex.putVet(vetDTO.getId(), vetDTO.getFirstName(), vetDTO.getLastName());
 
-        return vetMapper.mapToDto(updatedVet);
+        // se responde con la fila guardada (y su versión), no con la petición
+        Vet stored = vetRepository.findStoredById(vetDTO.getId())
+                .orElseThrow(() -> new VetNotFoundException("Record not found...!"));
+        return vetMapper.mapToDto(stored);
     }
 
     /**
-     * Eliminar un veterinario por ID
+     * Eliminar un veterinario por ID con un único DELETE
      * @param id
      * @throws VetNotFoundException
      */
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.VETS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_ACTIVE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_LAST_NAME, allEntries = true)
+    })
     public void delete(Integer id) throws VetNotFoundException {
 
-        VetDTO vet = findById(id);
+        if (vetRepository.deleteVet(id) == 0)
+            throw new VetNotFoundException("Record not found...!");
 
-        vetRepository.delete(this.vetMapper.mapToEntity(vet));
+        // sus visitas quedan con vet_id NULL (ON DELETE SET NULL)
+        availabilityIndex.removeVet(id);
+        rollups.unassignVet(id);
+        searchIndex.remove(SearchIndex.VET, id);
+        foreignKeys.removed(ForeignKeyValidator.VETS, id);
     }
 
     /**
@@ -94,9 +164,9 @@ public class VetServiceImpl implements VetService {
     @Override
     public List<VetDTO> findByFirstName(String firstName) {
 
-        List<Vet> vets = vetRepository.findByFirstName(firstName);
+        long start = queryLogger.start();
 
-        vets.forEach(vet -> log.info("" + vet));
+        List<Vet> vets = queryLogger.rows(log, "vets.findByFirstName", start, vetRepository.findByFirstName(firstName));
 
         return vets
                 .stream()
@@ -112,9 +182,9 @@ public class VetServiceImpl implements VetService {
     @Override
     public List<Vet> findByLastName(String lastName) {
 
-        List<Vet> vets = vetRepository.findByLastName(lastName);
+        long start = queryLogger.start();
 
-        vets.forEach(vet -> log.info("" + vet));
+        List<Vet> vets = queryLogger.rows(log, "vets.findByLastName", start, vetRepository.findByLastName(lastName));
 
         return vets;
     }
@@ -127,9 +197,9 @@ public class VetServiceImpl implements VetService {
     @Override
     public List<Vet> findByEmail(String email) {
 
-        List<Vet> vets = vetRepository.findByEmail(email);
+        long start = queryLogger.start();
 
-        vets.forEach(vet -> log.info("" + vet));
+        List<Vet> vets = queryLogger.rows(log, "vets.findByEmail", start, vetRepository.findByEmail(email));
 
         return vets;
     }
@@ -142,9 +212,9 @@ public class VetServiceImpl implements VetService {
     @Override
     public List<Vet> findByActive(Boolean active) {
 
-        List<Vet> vets = vetRepository.findByActive(active);
+        long start = queryLogger.start();
 
-        vets.forEach(vet -> log.info("" + vet));
+        List<Vet> vets = queryLogger.rows(log, "vets.findByActive", start, vetRepository.findByActive(active));
 
         return vets;
     }
@@ -158,4 +228,157 @@ public class VetServiceImpl implements VetService {
         
         return vetRepository.findAll();
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtener todos los veterinarios como DTO; la transacción de solo lectura
+     * desactiva el flush y el dirty checking
+     * @return Lista de VetDTO
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<VetDTO> findAllDtos() {
+
+        long start = queryLogger.start();
+
+        return queryLogger.rows(log, "vets.findAllDtos", start, vetRepository.findAllDtos());
+    }
+
+    /**
+     * Obtener la siguiente página de veterinarios ordenados por id (keyset)
+     * @param after último id leído
+     * @param limit cantidad máxima de veterinarios
+     * @return Lista de VetDTO
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<VetDTO> findPage(Integer after, int limit) {
+
+        return vetRepository.findDtoPage(after == null ? 0 : after, Limit.of(limit));
+    }
+
+    /**
+     * Recorrer todos los veterinarios desde un cursor JDBC.
+     * Cada entidad se desasocia del contexto de persistencia al entregarse.
+     * @param consumer recibe cada VetDTO
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<VetDTO> consumer) {
+
+        long start = queryLogger.start();
+        boolean tracing = queryLogger.isTracing(log);
+        long count = 0;
+
+        try (Stream<Vet> vets = vetRepository.streamAll()) {
+            for (Vet vet : (Iterable<Vet>) vets::iterator) {
+                if (tracing)
+                    log.trace("op=vets.streamAll row={}", vet);
+                consumer.accept(this.vetMapper.mapToDto(vet));
+                entityManager.detach(vet);
+                count++;
+            }
+        }
+
+        queryLogger.summary(log, "vets.streamAll", start, count);
+    }
+
+    /**
+     * Crear veterinarios en lotes JDBC por bloques
+     * @param vetDTOs
+     * @return un resultado por veterinario
+     */
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.VETS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_ACTIVE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_LAST_NAME, allEntries = true)
+    })
+    public List<BatchItemResult> createAll(Iterator<VetDTO> vetDTOs) {
+
+        Map<Integer, Vet> created = new HashMap<>();
+        List<BatchItemResult> results = batchExecutor.execute(vetDTOs, chunk -> {
+            List<Vet> vets = vetMapper.mapToEntityList(chunk);
+            vetBatchRepository.insertAll(vets);
+            vets.forEach(vet -> created.put(vet.getId(), vet));
+            return vets.stream()
+                    .map(vet -> BatchItemResult.builder().id(vet.getId()).status(BatchItemResult.Status.CREATED).build())
+                    .collect(Collectors.toList());
+        });
+
+        // solo los veterinarios cuya alta se confirmó
+        results.stream()
+                .filter(result -> result.getStatus() == BatchItemResult.Status.CREATED)
+                .forEach(result -> foreignKeys.added(ForeignKeyValidator.VETS, result.getId()));
+        searchIndex.apply(indexed(results, BatchItemResult.Status.CREATED, created));
+        return results;
+    }
+
+    /**
+     * Actualizar veterinarios en lotes JDBC por bloques
+     * @param vetDTOs
+     * @return un resultado por veterinario
+     */
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.VETS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_ACTIVE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_LAST_NAME, allEntries = true)
+    })
+    public List<BatchItemResult> updateAll(Iterator<VetDTO> vetDTOs) {
+
+        Map<Integer, Vet> updated = new HashMap<>();
+        List<BatchItemResult> results = batchExecutor.execute(vetDTOs, chunk -> {
+            List<Vet> vets = vetMapper.mapToEntityList(chunk);
+            int[] counts = vetBatchRepository.updateAll(vets);
+            vets.forEach(vet -> updated.put(vet.getId(), vet));
+            return ChunkedBatchExecutor.fromUpdateCounts(
+                    vets.stream().map(Vet::getId).collect(Collectors.toList()), counts, BatchItemResult.Status.UPDATED);
+        });
+
+        searchIndex.apply(indexed(results, BatchItemResult.Status.UPDATED, updated));
+        return results;
+    }
+
+    /**
+     * Eliminar veterinarios en lotes JDBC por bloques
+     * @param ids
+     * @return un resultado por id
+     */
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.VETS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_ACTIVE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VETS_BY_LAST_NAME, allEntries = true)
+    })
+    public List<BatchItemResult> deleteAll(Iterator<Integer> ids) {
+
+        List<BatchItemResult> results = batchExecutor.execute(ids, chunk -> ChunkedBatchExecutor.fromUpdateCounts(
+                chunk, vetBatchRepository.deleteAll(chunk), BatchItemResult.Status.DELETED));
+
+        // solo los veterinarios cuyo borrado se confirmó
+        SearchIndex.Changes changes = new SearchIndex.Changes();
+        results.stream()
+                .filter(result -> result.getStatus() == BatchItemResult.Status.DELETED)
+                .forEach(result -> {
+                    availabilityIndex.removeVet(result.getId());
+                    rollups.unassignVet(result.getId());
+                    changes.remove(SearchIndex.VET, result.getId());
+                    foreignKeys.removed(ForeignKeyValidator.VETS, result.getId());
+                });
+        searchIndex.apply(changes);
+        return results;
+    }
+
+    /**
+     * Veterinarios del lote cuya escritura se confirmó, tal como se escribieron
+     */
+    private static SearchIndex.Changes indexed(List<BatchItemResult> results, BatchItemResult.Status status,
+                                               Map<Integer, Vet> written) {
+        SearchIndex.Changes changes = new SearchIndex.Changes();
+        results.stream()
+                .filter(result -> result.getStatus() == status)
+                .map(result -> written.get(result.getId()))
+                .forEach(vet -> changes.putVet(vet.getId(), vet.getFirstName(), vet.getLastName()));
+        return changes;
+    }
+}
@@ -0,0 +1,453 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.DayVisitsDTO;
+import com.tecsup.petclinic.dtos.PetTypeVisitsDTO;
+import com.tecsup.petclinic.dtos.VetMonthRevenueDTO;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.entities.Visit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory rollups of all visits: revenue per vet and month, visits per
+ * pet type and visits per day, for the /analytics dashboards.
+ *
+ * They are read from visits with GROUP BY at startup (on first use when
+ * petclinic.startup.warm-up is off), then every booking adds itself, so a
+ * dashboard refresh costs a walk over a few hundred map entries. Visits per
+ * type are kept per pet, so a pet changing type moves its visits without
+ * reading them again. Deletes remove visits through ON DELETE CASCADE/SET
+ * NULL: the visits of deleted pets are read beforehand through
+ * idx_visits_pet_id, in the delete transaction, and subtracted once it is
+ * committed; the visits of a deleted vet move to no vet.
+ *
+ * Bookings and deletes hold writing() from their statement until their
+ * change is applied (a batch delete one chunk at a time), and a rebuild
+ * waits for them: a visit is either
+ * committed before the rebuild reads, or applied after it. A rebuild only
+ * counts visits up to the highest id it saw, so a booking applied after it
+ * is never counted twice.
+ *
+ * @author jgomezm
+ *
+ */
+@Component
+@Slf4j
+public class VisitRollups {
+
+    // visits.cost is DECIMAL(10,2): sums keep the scale of the database ones
+    private static final int COST_SCALE = 2;
+
+    private static final String WATERMARK_SQL = "SELECT COALESCE(MAX(id), 0) FROM visits";
+
+    private static final String VET_MONTH_SQL =
+            "SELECT vet_id, YEAR(visit_date), MONTH(visit_date), COUNT(*), SUM(cost) FROM visits "
+                    + "WHERE id <= ? AND visit_date IS NOT NULL "
+                    + "GROUP BY vet_id, YEAR(visit_date), MONTH(visit_date)";
+
+    private static final String PET_SQL =
+            "SELECT v.pet_id, p.type_id, COUNT(*) FROM visits v JOIN pets p ON p.id = v.pet_id "
+                    + "WHERE v.id <= ? AND v.visit_date IS NOT NULL GROUP BY v.pet_id, p.type_id";
+
+    private static final String DAY_SQL =
+            "SELECT visit_date, COUNT(*) FROM visits "
+                    + "WHERE id <= ? AND visit_date IS NOT NULL GROUP BY visit_date";
+
+    // Locked until the delete commits, so no booking adds a visit to the pets in between
+    private static final String PET_VISITS_SQL =
+            "SELECT pet_id, vet_id, visit_date, cost FROM visits WHERE pet_id IN (%s) FOR UPDATE";
+
+    private static final String OWNER_VISITS_SQL =
+            "SELECT v.pet_id, v.vet_id, v.visit_date, v.cost FROM visits v JOIN pets p ON p.id = v.pet_id "
+                    + "WHERE p.owner_id = ? FOR UPDATE";
+
+    private static final Comparator<VetMonthRevenueDTO> BY_MONTH_AND_VET =
+            Comparator.comparing(VetMonthRevenueDTO::getMonth)
+                    .thenComparing(VetMonthRevenueDTO::getVetId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private static final Comparator<DayVisitsDTO> BUSIEST_FIRST =
+            Comparator.comparingLong(DayVisitsDTO::getVisits).reversed()
+                    .thenComparing(DayVisitsDTO::getDay);
+
+    private record VetMonth(Integer vetId, YearMonth month) {
+    }
+
+    private record Totals(long visits, BigDecimal revenue) {
+        Totals plus(Totals other) {
+            return new Totals(visits + other.visits, revenue.add(other.revenue));
+        }
+    }
+
+    private record PetVisits(int typeId, long visits) {
+    }
+
+    /**
+     * A visit read before its pet is deleted
+     */
+    public record RemovedVisit(Integer petId, Integer vetId, LocalDate day, BigDecimal cost) {
+    }
+
+    /**
+     * Held from a write to visits until its change is applied; closing it never throws
+     */
+    public interface Writing extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * One generation of the rollups, replaced as a whole by a rebuild
+     */
+    private static final class Rollups {
+
+        final long watermark;
+
+        final Map<VetMonth, Totals> byVetMonth = new ConcurrentHashMap<>();
+
+        final Map<Integer, PetVisits> byPet = new ConcurrentHashMap<>();
+
+        final Map<Integer, Long> byType = new ConcurrentHashMap<>();
+
+        final Map<LocalDate, Long> byDay = new ConcurrentHashMap<>();
+
+        Rollups(long watermark) {
+            this.watermark = watermark;
+        }
+
+        /**
+         * Add visits to a pet, moving the ones it has to its current type first
+         */
+        void addPetVisits(Integer petId, int typeId, long delta) {
+            byPet.compute(petId, (id, current) -> {
+                if (current == null && delta == 0)
+                    return null;
+                long visits = current == null ? 0 : current.visits();
+                if (current != null && current.typeId() != typeId) {
+                    byType.merge(current.typeId(), -visits, VisitRollups::sum);
+                    byType.merge(typeId, visits, VisitRollups::sum);
+                }
+                if (delta != 0)
+                    byType.merge(typeId, delta, VisitRollups::sum);
+                return new PetVisits(typeId, visits + delta);
+            });
+        }
+
+        /**
+         * Take one visit from a pet and its type
+         */
+        void removePetVisit(Integer petId) {
+            byPet.computeIfPresent(petId, (id, current) -> {
+                byType.merge(current.typeId(), -1L, VisitRollups::sum);
+                return current.visits() == 1 ? null : new PetVisits(current.typeId(), current.visits() - 1);
+            });
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean warmUp;
+
+    // Bookings add to the rollups under the read lock, a rebuild swaps them under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Rollups rollups = new Rollups(0);
+
+    private volatile boolean stale = true;
+
+    public VisitRollups(JdbcTemplate jdbcTemplate,
+                        @Value("${petclinic.startup.warm-up:true}") boolean warmUp) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Hold off rebuilds while visits are written, until the change is applied
+     *
+     * @return to close once record() or subtract() is done
+     */
+    public Writing writing() {
+        lock.readLock().lock();
+        return lock.readLock()::unlock;
+    }
+
+    /**
+     * writing() until the current transaction completes, e.g. one chunk of a
+     * batch: the change is applied once it commits, then rebuilds may run
+     *
+     * @param onCommit applies the change, e.g. subtract()
+     */
+    public void writingUntilCompletion(Runnable onCommit) {
+
+        Writing writing = writing();
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED)
+                            onCommit.run();
+                    } finally {
+                        writing.close();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            writing.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Add a stored visit, within writing()
+     *
+     * @param visit with its id
+     * @param pet the pet of the visit
+     */
+    public void record(Visit visit, Pet pet) {
+
+        if (visit.getVisitDate() == null)
+            return;
+
+        lock.readLock().lock();
+        try {
+            // A stale rollup is read again with the visit in it
+            Rollups current = rollups;
+            if (stale || visit.getId() <= current.watermark)
+                return;
+
+            LocalDate day = visit.getVisitDate();
+            BigDecimal cost = (visit.getCost() == null ? BigDecimal.ZERO : visit.getCost())
+                    .setScale(COST_SCALE, RoundingMode.HALF_UP);
+            current.byVetMonth.merge(new VetMonth(visit.getVetId(), YearMonth.from(day)), new Totals(1, cost), Totals::plus);
+            current.addPetVisits(pet.getId(), pet.getTypeId(), 1);
+            current.byDay.merge(day, 1L, VisitRollups::sum);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read in the transaction that deletes the pets, before the DELETE
+     *
+     * @param petIds
+     * @return visits of the pets
+     */
+    public List<RemovedVisit> visitsOfPets(Collection<Integer> petIds) {
+        if (petIds.isEmpty())
+            return List.of();
+        return jdbcTemplate.query(PET_VISITS_SQL.formatted(String.join(", ", Collections.nCopies(petIds.size(), "?"))),
+                VisitRollups::removedVisit, petIds.toArray());
+    }
+
+    /**
+     * Read in the transaction that deletes the owner, before the DELETE
+     *
+     * @param ownerId
+     * @return visits of the pets of the owner
+     */
+    public List<RemovedVisit> visitsOfOwner(Integer ownerId) {
+        return jdbcTemplate.query(OWNER_VISITS_SQL, VisitRollups::removedVisit, ownerId);
+    }
+
+    /**
+     * Take out the visits of deleted pets, within writing()
+     *
+     * @param visits read before the delete, of committed deletes only
+     */
+    public void subtract(Collection<RemovedVisit> visits) {
+
+        lock.readLock().lock();
+        try {
+            Rollups current = rollups;
+            if (stale)
+                return;
+
+            for (RemovedVisit visit : visits) {
+                if (visit.day() == null)
+                    continue;
+                BigDecimal cost = (visit.cost() == null ? BigDecimal.ZERO : visit.cost())
+                        .setScale(COST_SCALE, RoundingMode.HALF_UP);
+                current.byVetMonth.computeIfPresent(new VetMonth(visit.vetId(), YearMonth.from(visit.day())),
+                        (key, totals) -> totals.visits() == 1 ? null : new Totals(totals.visits() - 1, totals.revenue().subtract(cost)));
+                current.byDay.merge(visit.day(), -1L, VisitRollups::sum);
+                current.removePetVisit(visit.petId());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A vet was deleted: its visits stay, without a vet (ON DELETE SET NULL)
+     *
+     * @param vetId
+     */
+    public void unassignVet(Integer vetId) {
+
+        lock.readLock().lock();
+        try {
+            if (stale)
+                return;
+
+            Rollups current = rollups;
+            current.byVetMonth.keySet().stream()
+                    .filter(key -> vetId.equals(key.vetId()))
+                    .toList()
+                    .forEach(key -> {
+                        Totals totals = current.byVetMonth.remove(key);
+                        if (totals != null)
+                            current.byVetMonth.merge(new VetMonth(null, key.month()), totals, Totals::plus);
+                    });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A pet was saved with a type: its visits move to it if it changed
+     *
+     * @param petId
+     * @param typeId
+     */
+    public void retype(Integer petId, int typeId) {
+
+        if (stale)
+            return;
+
+        lock.readLock().lock();
+        try {
+            rollups.addPetVisits(petId, typeId, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits were written behind the rollups (SeedLoader); they are read again on next use
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     *
+     * @return visits and revenue per vet and month, by month then vet
+     */
+    public List<VetMonthRevenueDTO> revenueByVetAndMonth() {
+        return current().byVetMonth.entrySet().stream()
+                .map(e -> new VetMonthRevenueDTO(e.getKey().vetId(), e.getKey().month().toString(),
+                        e.getValue().visits(), e.getValue().revenue()))
+                .sorted(BY_MONTH_AND_VET)
+                .toList();
+    }
+
+    /**
+     *
+     * @return visits per pet type, by type id
+     */
+    public List<PetTypeVisitsDTO> countByPetType() {
+        return current().byType.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> new PetTypeVisitsDTO(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    /**
+     *
+     * @param limit
+     * @return the days with the most visits, busiest first
+     */
+    public List<DayVisitsDTO> busiestDays(int limit) {
+        return current().byDay.entrySet().stream()
+                .map(e -> new DayVisitsDTO(e.getKey(), e.getValue()))
+                .sorted(BUSIEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmUp)
+            current();
+    }
+
+    public void rebuild() {
+
+        long start = System.nanoTime();
+
+        lock.writeLock().lock();
+        try {
+            // Cleared first: an invalidate() arriving during the rebuild is kept
+            stale = false;
+
+            Rollups next = new Rollups(jdbcTemplate.queryForObject(WATERMARK_SQL, Long.class));
+
+            jdbcTemplate.query(VET_MONTH_SQL, rs -> {
+                Integer vetId = rs.getObject(1, Integer.class);
+                BigDecimal revenue = rs.getBigDecimal(5);
+                next.byVetMonth.put(new VetMonth(vetId, YearMonth.of(rs.getInt(2), rs.getInt(3))),
+                        new Totals(rs.getLong(4), (revenue == null ? BigDecimal.ZERO : revenue)
+                                .setScale(COST_SCALE, RoundingMode.HALF_UP)));
+            }, next.watermark);
+            jdbcTemplate.query(PET_SQL, rs -> {
+                next.addPetVisits(rs.getInt(1), rs.getInt(2), rs.getLong(3));
+            }, next.watermark);
+            jdbcTemplate.query(DAY_SQL, rs -> {
+                next.byDay.put(rs.getObject(1, LocalDate.class), rs.getLong(2));
+            }, next.watermark);
+
+            rollups = next;
+
+            log.info("op=visits.rollups.rebuild watermark={} months={} pets={} days={} took_ms={}", next.watermark,
+                    next.byVetMonth.size(), next.byPet.size(), next.byDay.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            stale = true;
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Rollups current() {
+        if (stale) {
+            synchronized (this) {
+                if (stale)
+                    rebuild();
+            }
+        }
+        return rollups;
+    }
+
+    private static RemovedVisit removedVisit(ResultSet rs, int rowNum) throws SQLException {
+        return new RemovedVisit(rs.getInt(1), rs.getObject(2, Integer.class), rs.getObject(3, LocalDate.class),
+                rs.getBigDecimal(4));
+    }
+
+    private static Long sum(Long a, Long b) {
+        long total = a + b;
+        return total == 0 ? null : total;
+    }
+
+}
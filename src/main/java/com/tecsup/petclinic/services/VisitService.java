@@ -0,0 +1,61 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.exceptions.VisitConflictException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author jgomezm
+ *
+ */
+public interface VisitService {
+
+    /**
+     * Visit history of a pet, most recent first
+     *
+     * @param petId
+     * @return
+     * @throws PetNotFoundException
+     */
+    List<VisitDTO> findByPetId(Integer petId) throws PetNotFoundException;
+
+    /**
+     * Visit history of several pets, loaded with a single query
+     *
+     * @param petIds
+     * @return visits by pet id, in request order; unknown pets are left out
+     */
+    Map<Integer, List<VisitDTO>> findByPetIds(Collection<Integer> petIds);
+
+    /**
+     * Book a visit in a slot of a vet (VetAvailabilityIndex)
+     *
+     * @param visitDTO petId, vetId and visitDate are required; without visitTime
+     *                 the first free slot of the day is taken
+     * @return the stored visit
+     * @throws PetNotFoundException
+     * @throws VetNotFoundException
+     * @throws VisitConflictException the vet is inactive, the slot is taken or the day is full
+     * @throws IllegalArgumentException visitTime is not the start of a slot
+     */
+    VisitDTO book(VisitDTO visitDTO) throws PetNotFoundException, VetNotFoundException, VisitConflictException;
+
+    /**
+     * Active vets free in the given slot, or with a free slot on the given day
+     *
+     * @param day
+     * @param time start of a slot, null for any slot of the day
+     * @return
+     */
+    List<VetDTO> findAvailableVets(LocalDate day, LocalTime time);
+
+}
@@ -0,0 +1,210 @@
+package com.tecsup.petclinic.services;
+
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.entities.Vet;
+import com.tecsup.petclinic.entities.Visit;
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.exceptions.VisitConflictException;
+import com.tecsup.petclinic.logging.QueryLogger;
+import com.tecsup.petclinic.mapper.VetMapper;
+import com.tecsup.petclinic.mapper.VisitMapper;
+import com.tecsup.petclinic.repositories.PetRepository;
+import com.tecsup.petclinic.repositories.VetRepository;
+import com.tecsup.petclinic.repositories.VisitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Visits are read through their pet with a fetch join, so a history
+ * costs one query whatever the number of pets or visits.
+ *
+ * Bookings and availability are checked against VetAvailabilityIndex;
+ * the database is only asked when the index says a slot is taken.
+ * Each stored visit is added to VisitRollups. An unknown vet is refused
+ * by ForeignKeyValidator without a query.
+ *
+ * @author jgomezm
+ *
+ */
+@Service
+@Slf4j
+public class VisitServiceImpl implements VisitService {
+
+    private static final Comparator<Visit> MOST_RECENT_FIRST =
+            Comparator.comparing(Visit::getVisitDate, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(Visit::getVisitTime, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(Visit::getId);
+
+    PetRepository petRepository;
+    VetRepository vetRepository;
+    VisitRepository visitRepository;
+    VisitMapper visitMapper;
+    VetMapper vetMapper;
+    VetAvailabilityIndex availabilityIndex;
+    VisitRollups rollups;
+    QueryLogger queryLogger;
+    ForeignKeyValidator foreignKeys;
+
+    public VisitServiceImpl(PetRepository petRepository, VetRepository vetRepository, VisitRepository visitRepository,
+                            VisitMapper visitMapper, VetMapper vetMapper, VetAvailabilityIndex availabilityIndex,
+                            VisitRollups rollups, QueryLogger queryLogger, ForeignKeyValidator foreignKeys) {
+        this.petRepository = petRepository;
+        this.vetRepository = vetRepository;
+        this.visitRepository = visitRepository;
+        this.visitMapper = visitMapper;
+        this.vetMapper = vetMapper;
+        this.availabilityIndex = availabilityIndex;
+        this.rollups = rollups;
+        this.queryLogger = queryLogger;
+        this.foreignKeys = foreignKeys;
+    }
+
+    /**
+     *
+     * @param petId
+     * @return
+     * @throws PetNotFoundException
+     */
+    @Override
+    public List<VisitDTO> findByPetId(Integer petId) throws PetNotFoundException {
+
+        long start = queryLogger.start();
+
+        Pet pet = petRepository.findWithVisitsById(petId)
+                .orElseThrow(() -> new PetNotFoundException("Record not found...!"));
+
+        return queryLogger.rows(log, "visits.findByPetId", start, history(pet));
+    }
+
+    /**
+     *
+     * @param petIds
+     * @return
+     */
+    @Override
+    public Map<Integer, List<VisitDTO>> findByPetIds(Collection<Integer> petIds) {
+
+        if (petIds.isEmpty())
+            return Map.of();
+
+        long start = queryLogger.start();
+
+        Map<Integer, Pet> pets = petRepository.findWithVisitsByIdIn(petIds).stream()
+                .collect(Collectors.toMap(Pet::getId, Function.identity()));
+
+        Map<Integer, List<VisitDTO>> visits = new LinkedHashMap<>();
+        for (Integer petId : petIds) {
+            Pet pet = pets.get(petId);
+            if (pet != null)
+                visits.put(petId, history(pet));
+        }
+
+        queryLogger.summary(log, "visits.findByPetIds", start, visits.size());
+
+        return visits;
+    }
+
+    /**
+     *
+     * @param visitDTO
+     * @return
+     * @throws PetNotFoundException
+     * @throws VetNotFoundException
+     * @throws VisitConflictException
+     */
+    @Override
+    public VisitDTO book(VisitDTO visitDTO) throws PetNotFoundException, VetNotFoundException, VisitConflictException {
+
+        Visit visit = visitMapper.mapToEntity(visitDTO);
+        Integer vetId = visit.getVetId();
+        LocalDate day = visit.getVisitDate();
+        // The mapper turns an unparseable date into null
+        if (day == null)
+            throw new IllegalArgumentException("No valid visit date: " + visitDTO.getVisitDate());
+        if (visit.getVisitTime() != null && !VetAvailabilityIndex.isSlot(visit.getVisitTime()))
+            throw new IllegalArgumentException("No slot starts at " + visit.getVisitTime());
+
+        // Cached, and its type is needed by the rollups
+        Pet pet = petRepository.findById(visitDTO.getPetId())
+                .orElseThrow(() -> new PetNotFoundException("Record not found...!"));
+
+        // Misses are not cached: an unknown vet is refused here without a query
+        if (!foreignKeys.exists(ForeignKeyValidator.VETS, vetId))
+            throw new VetNotFoundException("Record not found...!");
+
+        Vet vet = vetRepository.findById(vetId)
+                .orElseThrow(() -> new VetNotFoundException("Record not found...!"));
+        if (!Boolean.TRUE.equals(vet.getActive()))
+            throw new VisitConflictException("Vet " + vetId + " is not active");
+
+        if (visit.getVisitTime() == null) {
+            visit.setVisitTime(availabilityIndex.tryBookFirstFree(vetId, day)
+                    .orElseThrow(() -> new VisitConflictException("Vet " + vetId + " has no free slot on " + day)));
+        } else if (!availabilityIndex.tryBook(vetId, day, visit.getVisitTime())
+                && visitRepository.existsByVetIdAndVisitDateAndVisitTime(vetId, day, visit.getVisitTime())) {
+            // A taken slot in the index is confirmed in the database, since a delete may have freed it
+            throw new VisitConflictException("Vet " + vetId + " is already booked on " + day + " " + visit.getVisitTime());
+        }
+        LocalTime time = visit.getVisitTime();
+
+        visit.setPet(petRepository.getReferenceById(pet.getId()));
+        Visit saved;
+        // Held from the insert to its commit and record, so a rebuild either reads the visit or waits for it
+        try (VisitRollups.Writing writing = rollups.writing()) {
+            try {
+                saved = visitRepository.saveAndFlush(visit);
+            } catch (DataIntegrityViolationException e) {
+                // Booked meanwhile by another instance or request: the slot stays taken
+                if (visitRepository.existsByVetIdAndVisitDateAndVisitTime(vetId, day, time))
+                    throw new VisitConflictException("Vet " + vetId + " is already booked on " + day + " " + time);
+                availabilityIndex.release(vetId, day, time);
+                throw e;
+            } catch (RuntimeException e) {
+                availabilityIndex.release(vetId, day, time);
+                throw e;
+            }
+
+            rollups.record(saved, pet);
+        }
+        return visitMapper.mapToDto(saved);
+    }
+
+    /**
+     *
+     * @param day
+     * @param time start of a slot, null for any slot of the day
+     * @return
+     */
+    @Override
+    public List<VetDTO> findAvailableVets(LocalDate day, LocalTime time) {
+
+        long start = queryLogger.start();
+
+        List<Vet> vets = vetRepository.findByActive(true).stream()
+                .filter(vet -> time == null
+                        ? availabilityIndex.isFree(vet.getId(), day)
+                        : availabilityIndex.isFree(vet.getId(), day, time))
+                .toList();
+
+        return vetMapper.mapToDtoList(queryLogger.rows(log, "visits.findAvailableVets", start, vets));
+    }
+
+    private List<VisitDTO> history(Pet pet) {
+        return visitMapper.mapToDtoList(pet.getVisits().stream().sorted(MOST_RECENT_FIRST).toList());
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.dtos.DayVisitsDTO;
+import com.tecsup.petclinic.dtos.PetTypeVisitsDTO;
+import com.tecsup.petclinic.dtos.VetMonthRevenueDTO;
+import com.tecsup.petclinic.services.AnalyticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Visit aggregates for dashboards. Without from/to the answer comes from
+ * the in-memory rollups; with them, from a GROUP BY over that range.
+ * 
+ * @author jgomezm
+ *
+ */
+@RestController
+@RequestMapping("/analytics")
+@Slf4j
+public class AnalyticsController {
+
+	static final int MAX_DAYS = 366;
+
+	private AnalyticsService analyticsService;
+
+	/**
+	 *
+	 * @param analyticsService
+	 */
+	public AnalyticsController(AnalyticsService analyticsService) {
+		this.analyticsService = analyticsService;
+	}
+
+	/**
+	 * Visits and revenue per vet and month, e.g. /analytics/revenue?from=2024-01-01&to=2024-12-31
+	 *
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	@GetMapping(value = "/revenue")
+	ResponseEntity<List<VetMonthRevenueDTO>> revenue(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+		if (!isRange(from, to))
+			return ResponseEntity.badRequest().build();
+
+		return ResponseEntity.ok(analyticsService.revenueByVetAndMonth(from, to));
+	}
+
+	/**
+	 * Visits per pet type
+	 *
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	@GetMapping(value = "/visits-by-type")
+	ResponseEntity<List<PetTypeVisitsDTO>> visitsByType(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+		if (!isRange(from, to))
+			return ResponseEntity.badRequest().build();
+
+		return ResponseEntity.ok(analyticsService.visitsByPetType(from, to));
+	}
+
+	/**
+	 * Days with the most visits, e.g. /analytics/busiest-days?limit=5
+	 *
+	 * @param from
+	 * @param to
+	 * @param limit
+	 * @return
+	 */
+	@GetMapping(value = "/busiest-days")
+	ResponseEntity<List<DayVisitsDTO>> busiestDays(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(defaultValue = "10") int limit) {
+
+		if (!isRange(from, to) || limit < 1 || limit > MAX_DAYS)
+			return ResponseEntity.badRequest().build();
+
+		return ResponseEntity.ok(analyticsService.busiestDays(from, to, limit));
+	}
+
+	private static boolean isRange(LocalDate from, LocalDate to) {
+		return from == null || to == null || !from.isAfter(to);
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.tecsup.petclinic.webs;
+
+/**
+ * Weak ETags built from the entity version: W/"<version>".
+ *
+ * If-Match is compared weakly as well, since the version is the only
+ * validator these resources have.
+ *
+ * @author jgomezm
+ *
+ */
+final class ETags {
+
+	/**
+	 * Parsed If-Match that can never match a version
+	 */
+	static final int NO_MATCH = -1;
+
+	private ETags() {
+	}
+
+	/**
+	 *
+	 * @param version
+	 * @return the ETag, or null when the version is unknown
+	 */
+	static String of(Integer version) {
+		return version == null ? null : "W/\"" + version + "\"";
+	}
+
+	/**
+	 *
+	 * @param ifMatch value of the If-Match header, a single ETag or *
+	 * @return the version it asks for, null when the header is missing or *,
+	 *         or NO_MATCH when it is not an ETag of this API
+	 */
+	static Integer version(String ifMatch) {
+
+		if (ifMatch == null || ifMatch.isBlank())
+			return null;
+
+		String tag = ifMatch.trim();
+		if (tag.equals("*"))
+			return null;
+		if (tag.startsWith("W/"))
+			tag = tag.substring(2);
+		if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\""))
+			return NO_MATCH;
+
+		try {
+			return Integer.valueOf(tag.substring(1, tag.length() - 1));
+		} catch (NumberFormatException e) {
+			return NO_MATCH;
+		}
+	}
+
+}
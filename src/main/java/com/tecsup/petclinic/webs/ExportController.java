@@ -0,0 +1,101 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.services.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 
+ * @author jgomezm
+ *
+ */
+@RestController
+@Slf4j
+public class ExportController {
+
+	static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+	static final MediaType APPLICATION_GZIP = new MediaType("application", "gzip");
+
+	private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+	private ExportService exportService;
+
+	/**
+	 *
+	 * @param exportService
+	 */
+	public ExportController(ExportService exportService) {
+		this.exportService = exportService;
+	}
+
+	/**
+	 * Download a whole table, streamed from the database as it is read,
+	 * e.g. /export/pets?format=ndjson&gzip=true gives pets.ndjson.gz
+	 *
+	 * @param entity pets, owners, vets or visits
+	 * @param format csv (default) or ndjson
+	 * @param gzip compress the file
+	 * @return 404 for an unknown entity, 400 for an unknown format
+	 */
+	@GetMapping(value = "/export/{entity}")
+	ResponseEntity<StreamingResponseBody> export(@PathVariable String entity,
+												 @RequestParam(defaultValue = "csv") String format,
+												 @RequestParam(defaultValue = "false") boolean gzip) {
+
+		if (!exportService.entities().contains(entity))
+			return ResponseEntity.notFound().build();
+
+		ExportService.Format exportFormat;
+		try {
+			exportFormat = ExportService.Format.valueOf(format.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		String fileName = entity + "." + exportFormat.name().toLowerCase() + (gzip ? ".gz" : "");
+		MediaType contentType = gzip ? APPLICATION_GZIP
+				: exportFormat == ExportService.Format.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON;
+
+		StreamingResponseBody body = out -> {
+			if (!gzip) {
+				exportService.export(entity, exportFormat, out);
+				return;
+			}
+			FastGzipOutputStream compressed = new FastGzipOutputStream(out);
+			exportService.export(entity, exportFormat, compressed);
+			compressed.finish();
+		};
+
+		return ResponseEntity.ok()
+				.contentType(contentType)
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+				.body(body);
+	}
+
+	/**
+	 * The fastest deflate level: an export is bound by the compression, and
+	 * the higher levels gain a few percent of size for several times the CPU
+	 */
+	private static class FastGzipOutputStream extends GZIPOutputStream {
+
+		FastGzipOutputStream(OutputStream out) throws IOException {
+			super(out, GZIP_BUFFER_SIZE);
+			def.setLevel(Deflater.BEST_SPEED);
+		}
+	}
+
+}
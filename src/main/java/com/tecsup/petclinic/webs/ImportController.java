@@ -0,0 +1,74 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.dtos.ImportJobDTO;
+import com.tecsup.petclinic.services.ImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * 
+ * @author jgomezm
+ *
+ */
+@RestController
+@Slf4j
+public class ImportController {
+
+	private ImportService importService;
+
+	/**
+	 *
+	 * @param importService
+	 */
+	public ImportController(ImportService importService) {
+		this.importService = importService;
+	}
+
+	/**
+	 * Start importing a CSV file of owners or pets in the background.
+	 * The file is the body of the request (text/csv); follow the progress
+	 * at the Location of the response.
+	 *
+	 * @param entity pets or owners
+	 * @param body
+	 * @return 202 with the job, 404 for an unknown entity, 400 for an empty file or unknown columns
+	 */
+	@PostMapping(value = "/imports/{entity}", consumes = "text/csv")
+	ResponseEntity<ImportJobDTO> submit(@PathVariable String entity, InputStream body) {
+
+		if (!importService.entities().contains(entity))
+			return ResponseEntity.notFound().build();
+
+		ImportJobDTO job;
+		try {
+			job = importService.submit(entity, body);
+		} catch (IllegalArgumentException e) {
+			log.info("op=import.rejected entity={} reason={}", entity, e.getMessage());
+			return ResponseEntity.badRequest().build();
+		}
+
+		return ResponseEntity.accepted().location(URI.create("/imports/" + job.getId())).body(job);
+	}
+
+	/**
+	 * Progress of an import: lines read, rows imported and rejected, rows/sec
+	 *
+	 * @param id
+	 * @return 404 when unknown
+	 */
+	@GetMapping(value = "/imports/{id}")
+	ResponseEntity<ImportJobDTO> findJob(@PathVariable String id) {
+
+		return importService.findJob(id)
+				.map(ResponseEntity::ok)
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
+
+}
@@ -0,0 +1,153 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.OwnerPetCountDTO;
+import com.tecsup.petclinic.exceptions.OwnerNotFoundException;
+import com.tecsup.petclinic.metrics.NotFoundMetrics;
+import com.tecsup.petclinic.services.OwnerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 
+ * @author jgomezm
+ *
+ */
+@RestController
+@Slf4j
+public class OwnerController {
+
+	private OwnerService ownerService;
+
+	private NotFoundMetrics notFoundMetrics;
+
+	/**
+	 *
+	 * @param ownerService
+	 * @param notFoundMetrics
+	 */
+	public OwnerController(OwnerService ownerService, NotFoundMetrics notFoundMetrics) {
+		this.ownerService = ownerService;
+		this.notFoundMetrics = notFoundMetrics;
+	}
+
+	/**
+	 * Get all owners, or those whose last name starts with lastName
+	 *
+	 * @param lastName
+	 * @return
+	 */
+	@GetMapping(value = "/owners")
+	public ResponseEntity<List<OwnerDTO>> findAllOwners(@RequestParam(required = false) String lastName) {
+
+		if (lastName != null && !lastName.isEmpty())
+			return ResponseEntity.ok(ownerService.findByLastName(lastName));
+
+		return ResponseEntity.ok(ownerService.findAll());
+	}
+
+	/**
+	 * Number of pets per owner, optionally for a last name prefix
+	 *
+	 * @param lastName
+	 * @return
+	 */
+	@GetMapping(value = "/owners/pet-counts")
+	public ResponseEntity<List<OwnerPetCountDTO>> countPets(@RequestParam(required = false) String lastName) {
+		return ResponseEntity.ok(ownerService.countPets(lastName));
+	}
+
+	/**
+	 * Create owner
+	 *
+	 * @param ownerTO
+	 * @return
+	 */
+	@PostMapping(value = "/owners")
+	ResponseEntity<OwnerDTO> create(@RequestBody OwnerDTO ownerTO) {
+		return ResponseEntity.status(HttpStatus.CREATED).body(ownerService.create(ownerTO));
+	}
+
+	/**
+	 * Find owner by id
+	 *
+	 * @param id
+	 * @return
+	 */
+	@GetMapping(value = "/owners/{id}")
+	ResponseEntity<OwnerDTO> findById(@PathVariable Integer id) {
+
+		try {
+			return ResponseEntity.ok(ownerService.findById(id));
+		} catch (OwnerNotFoundException e) {
+			notFoundMetrics.record(e, "owners.findById");
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Owner with its pets
+	 *
+	 * @param id
+	 * @return
+	 */
+	@GetMapping(value = "/owners/{id}/details")
+	ResponseEntity<OwnerDTO> findWithPets(@PathVariable Integer id) {
+
+		try {
+			return ResponseEntity.ok(ownerService.findWithPets(id));
+		} catch (OwnerNotFoundException e) {
+			notFoundMetrics.record(e, "owners.findWithPets");
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Update owner
+	 *
+	 * @param ownerTO
+	 * @param id
+	 * @return
+	 */
+	@PutMapping(value = "/owners/{id}")
+	ResponseEntity<OwnerDTO> update(@RequestBody OwnerDTO ownerTO, @PathVariable Integer id) {
+
+		try {
+			ownerTO.setId(id);
+			return ResponseEntity.ok(ownerService.update(ownerTO));
+		} catch (OwnerNotFoundException e) {
+			notFoundMetrics.record(e, "owners.update");
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Delete owner by id, together with its pets
+	 *
+	 * @param id
+	 * @return
+	 */
+	@DeleteMapping(value = "/owners/{id}")
+	ResponseEntity<String> delete(@PathVariable Integer id) {
+
+		try {
+			ownerService.delete(id);
+			return ResponseEntity.ok(" Delete ID :" + id);
+		} catch (OwnerNotFoundException e) {
+			notFoundMetrics.record(e, "owners.delete");
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+}
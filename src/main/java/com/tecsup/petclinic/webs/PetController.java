@@ -1,9 +1,20 @@
 package com.tecsup.petclinic.webs;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.tecsup.petclinic.dtos.BatchItemResult;
 import com.tecsup.petclinic.dtos.PetDTO;
-import com.tecsup.petclinic.mapper.PetMapper;
+import com.tecsup.petclinic.dtos.PetSearchCriteria;
+import com.tecsup.petclinic.logging.QueryLogger;
+import com.tecsup.petclinic.metrics.NotFoundMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,13 +22,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.exceptions.InvalidReferenceException;
 import com.tecsup.petclinic.exceptions.PetNotFoundException;
 import com.tecsup.petclinic.services.PetService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -29,57 +49,141 @@ import java.util.List;
 @Slf4j
 public class PetController {
 
+	static final int DEFAULT_PAGE_SIZE = 50;
+
+	static final int MAX_PAGE_SIZE = 1000;
+
 	String name = null;
 
 	//@Autowired
 	private PetService petService;
 
-	//@Autowired
-	private PetMapper mapper;
+	private ObjectMapper objectMapper;
+
+	private QueryLogger queryLogger;
+
+	private NotFoundMetrics notFoundMetrics;
 
 	/**
 	 *  Change
 	 * @param petService
-	 * @param mapper
+	 * @param objectMapper
+	 * @param queryLogger
+	 * @param notFoundMetrics
 	 */
-	public PetController(PetService petService, PetMapper mapper){
+	public PetController(PetService petService, ObjectMapper objectMapper, QueryLogger queryLogger,
+						 NotFoundMetrics notFoundMetrics){
 		this.petService = petService;
-		this.mapper = mapper ;
+		this.objectMapper = objectMapper;
+		this.queryLogger = queryLogger;
+		this.notFoundMetrics = notFoundMetrics;
 	}
 
 	/**
-	 * Get all pets
+	 * Get all pets.
+	 * When after or limit is given, only one keyset page is returned
+	 * and the next page is advertised in the Link header.
 	 *
+	 * @param after
+	 * @param limit
 	 * @return
 	 */
 	@GetMapping(value = "/pets")
-	public ResponseEntity<List<PetDTO>> findAllPets() {
+	public ResponseEntity<List<PetDTO>> findAllPets(@RequestParam(required = false) Integer after,
+													@RequestParam(required = false) Integer limit) {
 
-		List<Pet> pets = petService.findAll();
-		log.info("pets: " + pets);
-		pets.forEach(item -> log.info("Pet >>  {} ", item));
+		if (after != null || limit != null)
+			return findPetsPage(after, limit);
 
-		List<PetDTO> petsTO = this.mapper.mapToDtoList(pets);
-		log.info("petsTO: " + petsTO);
-		petsTO.forEach(item -> log.info("PetTO >>  {} ", item));
+		long start = queryLogger.start();
+
+		List<PetDTO> petsTO = queryLogger.rows(log, "GET /pets", start, petService.findAllDtos());
 
 		return ResponseEntity.ok(petsTO);
 
 	}
 
+	private ResponseEntity<List<PetDTO>> findPetsPage(Integer after, Integer limit) {
+
+		int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+		long start = queryLogger.start();
+
+		List<PetDTO> petsTO = queryLogger.rows(log, "GET /pets page", start, petService.findPage(after, pageSize));
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (petsTO.size() == pageSize) {
+			String next = ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("after", petsTO.get(petsTO.size() - 1).getId())
+					.replaceQueryParam("limit", pageSize)
+					.toUriString();
+			response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+		}
+		return response.body(petsTO);
+	}
+
+	/**
+	 * Search pets by name prefix, type, owner and birth-date range.
+	 * Every filter is optional; results are paged by id like GET /pets.
+	 *
+	 * @param criteria name, typeId, ownerId, bornFrom, bornTo
+	 * @param after
+	 * @param limit
+	 * @return
+	 */
+	@GetMapping(value = "/pets/search")
+	public ResponseEntity<List<PetDTO>> search(PetSearchCriteria criteria,
+											   @RequestParam(required = false) Integer after,
+											   @RequestParam(required = false) Integer limit) {
+
+		int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+		return ResponseEntity.ok(petService.search(criteria, after, pageSize));
+	}
+
+	/**
+	 * Stream all pets as a JSON array, written one pet at a time
+	 *
+	 * @return
+	 */
+	@GetMapping(value = "/pets/stream")
+	public ResponseEntity<StreamingResponseBody> streamAllPets() {
+
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+				generator.writeStartArray();
+				petService.streamAll(petTO -> {
+					try {
+						generator.writeObject(petTO);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+				generator.writeEndArray();
+			}
+		};
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+	}
+
 
 	/**
 	 * Create pet
 	 *
 	 * @param petTO
-	 * @return
+	 * @return 400 when the type or the owner does not exist
 	 */
 	@PostMapping(value = "/pets")
 	@ResponseStatus(HttpStatus.CREATED)
 	ResponseEntity<PetDTO> create(@RequestBody PetDTO petTO) {
 
 		//Pet newPet = this.mapper.mapToEntity(petTO);
-		PetDTO newPetTO = petService.create(petTO);
+		PetDTO newPetTO;
+		try {
+			newPetTO = petService.create(petTO);
+		} catch (InvalidReferenceException e) {
+			return ResponseEntity.badRequest().build();
+		}
 
 		return  ResponseEntity.status(HttpStatus.CREATED).body(newPetTO);
 
@@ -87,7 +191,8 @@ public class PetController {
 
 
 	/**
-	 * Find pet by id
+	 * Find pet by id. The response carries the version as a weak ETag;
+	 * a matching If-None-Match gets a 304 without a body.
 	 *
 	 * @param id
 	 * @return
@@ -102,38 +207,46 @@ public class PetController {
             petDto = petService.findById(id);
 
 		} catch (PetNotFoundException e) {
+			notFoundMetrics.record(e, "pets.findById");
 			return ResponseEntity.notFound().build();
 		}
-		return ResponseEntity.ok(petDto);
+		// Spring answers 304 itself when If-None-Match matches this ETag
+		return ResponseEntity.ok().eTag(ETags.of(petDto.getVersion())).body(petDto);
 	}
 
 	/**
-	 * Update and create pet
+	 * Update pet. With If-Match the pet is only updated if its ETag still
+	 * matches (412 otherwise), and the new ETag is returned. An unknown
+	 * type or owner gives a 400.
 	 *
 	 * @param petTO
 	 * @param id
+	 * @param ifMatch
 	 * @return
 	 */
 	@PutMapping(value = "/pets/{id}")
-	ResponseEntity<PetDTO>  update(@RequestBody PetDTO petTO, @PathVariable Integer id) {
+	ResponseEntity<PetDTO>  update(@RequestBody PetDTO petTO, @PathVariable Integer id,
+								   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
 		PetDTO updatePetDto = null;
 
 		try {
 
-            updatePetDto = petService.findById(id);
+			petTO.setId(id);
+			petTO.setVersion(ETags.version(ifMatch));
 
-            updatePetDto.setName(petTO.getName());
-            updatePetDto.setOwnerId(petTO.getOwnerId());
-            updatePetDto.setTypeId(petTO.getTypeId());
-
-			petService.update(updatePetDto);
+			updatePetDto = petService.update(petTO);
 
 		} catch (PetNotFoundException e) {
+			notFoundMetrics.record(e, "pets.update");
 			return ResponseEntity.notFound().build();
+		} catch (OptimisticLockingFailureException e) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+		} catch (InvalidReferenceException e) {
+			return ResponseEntity.badRequest().build();
 		}
 
-		return ResponseEntity.ok(updatePetDto);
+		return ResponseEntity.ok().eTag(ETags.of(updatePetDto.getVersion())).body(updatePetDto);
 	}
 
 	/**
@@ -148,8 +261,41 @@ public class PetController {
 			petService.delete(id);
 			return ResponseEntity.ok(" Delete ID :" + id);
 		} catch (PetNotFoundException e) {
+			notFoundMetrics.record(e, "pets.delete");
 			return ResponseEntity.notFound().build();
 		}
 	}
 
+	/**
+	 * Create, update (PUT) or delete (DELETE) pets in bulk.
+	 * The body is a JSON array or NDJSON, of pets for POST/PUT and of ids for DELETE.
+	 *
+	 * @param method
+	 * @param body
+	 * @return one result per item
+	 * @throws IOException
+	 */
+	@RequestMapping(value = "/pets/batch", method = { RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE },
+			consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	ResponseEntity<List<BatchItemResult>> batch(HttpMethod method, InputStream body) throws IOException {
+
+		try {
+			List<BatchItemResult> results;
+
+			if (HttpMethod.DELETE.equals(method)) {
+				try (MappingIterator<Integer> ids = objectMapper.readerFor(Integer.class).readValues(body)) {
+					results = petService.deleteAll(ids);
+				}
+			} else {
+				try (MappingIterator<PetDTO> petsTO = objectMapper.readerFor(PetDTO.class).readValues(body)) {
+					results = HttpMethod.POST.equals(method) ? petService.createAll(petsTO) : petService.updateAll(petsTO);
+				}
+			}
+			return ResponseEntity.ok(results);
+
+		} catch (RuntimeJsonMappingException e) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
 }
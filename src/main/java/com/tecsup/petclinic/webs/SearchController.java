@@ -0,0 +1,61 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.dtos.SearchHitDTO;
+import com.tecsup.petclinic.services.SearchIndex;
+import com.tecsup.petclinic.services.SearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 
+ * @author jgomezm
+ *
+ */
+@RestController
+@Slf4j
+public class SearchController {
+
+	static final int MAX_QUERY_LENGTH = 100;
+
+	static final int MAX_LIMIT = 50;
+
+	private static final Set<String> TYPES = Set.of(SearchIndex.PET, SearchIndex.OWNER, SearchIndex.VET);
+
+	private SearchService searchService;
+
+	/**
+	 *
+	 * @param searchService
+	 */
+	public SearchController(SearchService searchService) {
+		this.searchService = searchService;
+	}
+
+	/**
+	 * Pets, owners and vets by name, best matches first,
+	 * e.g. /search?q=frankln or /search?q=geo&type=owner
+	 *
+	 * @param q words of the names; partial words and typos are accepted
+	 * @param type pet, owner or vet (all when missing)
+	 * @param limit
+	 * @return
+	 */
+	@GetMapping(value = "/search")
+	ResponseEntity<List<SearchHitDTO>> search(@RequestParam String q,
+											  @RequestParam(required = false) String type,
+											  @RequestParam(defaultValue = "10") int limit) {
+
+		if (q.isBlank() || q.length() > MAX_QUERY_LENGTH || limit < 1 || limit > MAX_LIMIT
+				|| (type != null && !TYPES.contains(type)))
+			return ResponseEntity.badRequest().build();
+
+		return ResponseEntity.ok(searchService.search(q, type, limit));
+	}
+
+}
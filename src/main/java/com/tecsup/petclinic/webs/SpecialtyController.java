@@ -0,0 +1,157 @@
+package com.tecsup.petclinic.webs;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
+import com.tecsup.petclinic.dtos.VetSpecialtyDTO;
+import com.tecsup.petclinic.exceptions.SpecialtyNotFoundException;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.metrics.NotFoundMetrics;
+import com.tecsup.petclinic.services.SpecialtyService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * REST Controller para Specialty y la relación veterinario-especialidad
+ * 
+ * @author jgomezm
+ *
+ */
+@RestController
+@Slf4j
+public class SpecialtyController {
+
+	private SpecialtyService specialtyService;
+
+	private NotFoundMetrics notFoundMetrics;
+
+	/**
+	 * 
+	 * @param specialtyService
+	 * @param notFoundMetrics
+	 */
+	public SpecialtyController(SpecialtyService specialtyService, NotFoundMetrics notFoundMetrics) {
+		this.specialtyService = specialtyService;
+		this.notFoundMetrics = notFoundMetrics;
+	}
+
+	/**
+	 * Obtener todas las especialidades
+	 * 
+	 * @return
+	 */
+	@GetMapping(value = "/specialties")
+	public ResponseEntity<List<SpecialtyDTO>> findAllSpecialties() {
+		return ResponseEntity.ok(specialtyService.findAll());
+	}
+
+	/**
+	 * Crear especialidad
+	 * 
+	 * @param specialtyTO
+	 * @return
+	 */
+	@PostMapping(value = "/specialties")
+	ResponseEntity<SpecialtyDTO> create(@RequestBody SpecialtyDTO specialtyTO) {
+		return ResponseEntity.status(HttpStatus.CREATED).body(specialtyService.create(specialtyTO));
+	}
+
+	/**
+	 * Buscar especialidad por id
+	 * 
+	 * @param id
+	 * @return
+	 */
+	@GetMapping(value = "/specialties/{id}")
+	ResponseEntity<SpecialtyDTO> findById(@PathVariable Integer id) {
+
+		try {
+			return ResponseEntity.ok(specialtyService.findById(id));
+		} catch (SpecialtyNotFoundException e) {
+			notFoundMetrics.record(e, "specialties.findById");
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Actualizar especialidad
+	 * 
+	 * @param specialtyTO
+	 * @param id
+	 * @return
+	 */
+	@PutMapping(value = "/specialties/{id}")
+	ResponseEntity<SpecialtyDTO> update(@RequestBody SpecialtyDTO specialtyTO, @PathVariable Integer id) {
+
+		try {
+			specialtyTO.setId(id);
+			return ResponseEntity.ok(specialtyService.update(specialtyTO));
+		} catch (SpecialtyNotFoundException e) {
+			notFoundMetrics.record(e, "specialties.update");
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Eliminar especialidad por id
+	 * 
+	 * @param id
+	 * @return
+	 */
+	@DeleteMapping(value = "/specialties/{id}")
+	ResponseEntity<String> delete(@PathVariable Integer id) {
+
+		try {
+			specialtyService.delete(id);
+			return ResponseEntity.ok(" Delete ID :" + id);
+		} catch (SpecialtyNotFoundException e) {
+			notFoundMetrics.record(e, "specialties.delete");
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Veterinarios de una especialidad, los de más experiencia primero
+	 * 
+	 * @param id
+	 * @return
+	 */
+	@GetMapping(value = "/specialties/{id}/vets")
+	ResponseEntity<List<VetSpecialtyDTO>> findVets(@PathVariable Integer id) {
+
+		try {
+			return ResponseEntity.ok(specialtyService.findVetsBySpecialtyId(id));
+		} catch (SpecialtyNotFoundException e) {
+			notFoundMetrics.record(e, "specialties.findVets");
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Especialidades de un veterinario, la principal primero
+	 * 
+	 * @param id
+	 * @return
+	 */
+	@GetMapping(value = "/vets/{id}/specialties")
+	ResponseEntity<List<VetSpecialtyDTO>> findSpecialtiesByVet(@PathVariable Integer id) {
+
+		try {
+			return ResponseEntity.ok(specialtyService.findByVetId(id));
+		} catch (VetNotFoundException e) {
+			notFoundMetrics.record(e, "specialties.findByVetId");
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+}
@@ -1,8 +1,15 @@
 package com.tecsup.petclinic.webs;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,13 +17,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.tecsup.petclinic.dtos.BatchItemResult;
 import com.tecsup.petclinic.dtos.VetDTO;
-import com.tecsup.petclinic.entities.Vet;
 import com.tecsup.petclinic.exceptions.VetNotFoundException;
-import com.tecsup.petclinic.mapper.VetMapper;
+import com.tecsup.petclinic.logging.QueryLogger;
+import com.tecsup.petclinic.metrics.NotFoundMetrics;
 import com.tecsup.petclinic.services.VetService;
 
 import lombok.extern.slf4j.Slf4j;
@@ -31,39 +49,100 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class VetController {
 
+	static final int DEFAULT_PAGE_SIZE = 50;
+
+	static final int MAX_PAGE_SIZE = 1000;
+
 	private VetService vetService;
 
-	private VetMapper mapper;
+	private ObjectMapper objectMapper;
+
+	private QueryLogger queryLogger;
+
+	private NotFoundMetrics notFoundMetrics;
 
 	/**
 	 * Constructor con inyección de dependencias
 	 * @param vetService
-	 * @param mapper
+	 * @param objectMapper
+	 * @param queryLogger
+	 * @param notFoundMetrics
 	 */
-	public VetController(VetService vetService, VetMapper mapper) {
+	public VetController(VetService vetService, ObjectMapper objectMapper, QueryLogger queryLogger,
+						 NotFoundMetrics notFoundMetrics) {
 		this.vetService = vetService;
-		this.mapper = mapper;
+		this.objectMapper = objectMapper;
+		this.queryLogger = queryLogger;
+		this.notFoundMetrics = notFoundMetrics;
 	}
 
 	/**
-	 * Get all vets
+	 * Get all vets.
+	 * Con after o limit se devuelve una sola página (keyset) y la
+	 * siguiente se anuncia en la cabecera Link.
 	 *
+	 * @param after último id leído
+	 * @param limit tamaño de página
 	 * @return Lista de VetDTO
 	 */
 	@GetMapping(value = "/vets")
-	public ResponseEntity<List<VetDTO>> findAllVets() {
+	public ResponseEntity<List<VetDTO>> findAllVets(@RequestParam(required = false) Integer after,
+													@RequestParam(required = false) Integer limit) {
 
-		List<Vet> vets = vetService.findAll();
-		log.info("vets: " + vets);
-		vets.forEach(item -> log.info("Vet >>  {} ", item));
+		if (after != null || limit != null)
+			return findVetsPage(after, limit);
 
-		List<VetDTO> vetsDTO = this.mapper.mapToDtoList(vets);
-		log.info("vetsDTO: " + vetsDTO);
-		vetsDTO.forEach(item -> log.info("VetDTO >>  {} ", item));
+		long start = queryLogger.start();
+
+		List<VetDTO> vetsDTO = queryLogger.rows(log, "GET /vets", start, vetService.findAllDtos());
 
 		return ResponseEntity.ok(vetsDTO);
 	}
 
+	private ResponseEntity<List<VetDTO>> findVetsPage(Integer after, Integer limit) {
+
+		int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+		long start = queryLogger.start();
+
+		List<VetDTO> vetsDTO = queryLogger.rows(log, "GET /vets page", start, vetService.findPage(after, pageSize));
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (vetsDTO.size() == pageSize) {
+			String next = ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("after", vetsDTO.get(vetsDTO.size() - 1).getId())
+					.replaceQueryParam("limit", pageSize)
+					.toUriString();
+			response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+		}
+		return response.body(vetsDTO);
+	}
+
+	/**
+	 * Stream all vets como un arreglo JSON escrito veterinario por veterinario
+	 *
+	 * @return cuerpo de respuesta en streaming
+	 */
+	@GetMapping(value = "/vets/stream")
+	public ResponseEntity<StreamingResponseBody> streamAllVets() {
+
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+				generator.writeStartArray();
+				vetService.streamAll(vetDTO -> {
+					try {
+						generator.writeObject(vetDTO);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+				generator.writeEndArray();
+			}
+		};
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+	}
+
 	/**
 	 * Create vet
 	 *
@@ -95,40 +174,43 @@ public class VetController {
 			vetDTO = vetService.findById(id);
 
 		} catch (VetNotFoundException e) {
+			notFoundMetrics.record(e, "vets.findById");
 			return ResponseEntity.notFound().build();
 		}
-		return ResponseEntity.ok(vetDTO);
+		// Spring responde 304 si If-None-Match coincide con este ETag
+		return ResponseEntity.ok().eTag(ETags.of(vetDTO.getVersion())).body(vetDTO);
 	}
 
 	/**
-	 * Update vet
+	 * Update vet. Con If-Match solo se actualiza si el ETag sigue vigente
+	 * (412 si no) y se devuelve el nuevo ETag.
 	 *
 	 * @param vetDTO
 	 * @param id
+	 * @param ifMatch
 	 * @return VetDTO actualizado
 	 */
 	@PutMapping(value = "/vets/{id}")
-	ResponseEntity<VetDTO> update(@RequestBody VetDTO vetDTO, @PathVariable Integer id) {
+	ResponseEntity<VetDTO> update(@RequestBody VetDTO vetDTO, @PathVariable Integer id,
+								  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
 		VetDTO updateVetDTO = null;
 
 		try {
 
-			updateVetDTO = vetService.findById(id);
+			vetDTO.setId(id);
+			vetDTO.setVersion(ETags.version(ifMatch));
 
-			updateVetDTO.setFirstName(vetDTO.getFirstName());
-			updateVetDTO.setLastName(vetDTO.getLastName());
-			updateVetDTO.setEmail(vetDTO.getEmail());
-			updateVetDTO.setPhone(vetDTO.getPhone());
-			updateVetDTO.setActive(vetDTO.getActive());
-
-			vetService.update(updateVetDTO);
+			updateVetDTO = vetService.update(vetDTO);
 
 		} catch (VetNotFoundException e) {
+			notFoundMetrics.record(e, "vets.update");
 			return ResponseEntity.notFound().build();
+		} catch (OptimisticLockingFailureException e) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
 		}
 
-		return ResponseEntity.ok(updateVetDTO);
+		return ResponseEntity.ok().eTag(ETags.of(updateVetDTO.getVersion())).body(updateVetDTO);
 	}
 
 	/**
@@ -144,8 +226,41 @@ public class VetController {
 			vetService.delete(id);
 			return ResponseEntity.ok("Delete ID: " + id);
 		} catch (VetNotFoundException e) {
+			notFoundMetrics.record(e, "vets.delete");
 			return ResponseEntity.notFound().build();
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Crear (POST), actualizar (PUT) o eliminar (DELETE) veterinarios en lote.
+	 * El cuerpo es un arreglo JSON o NDJSON: veterinarios para POST/PUT e ids para DELETE.
+	 *
+	 * @param method
+	 * @param body
+	 * @return un resultado por elemento
+	 * @throws IOException
+	 */
+	@RequestMapping(value = "/vets/batch", method = { RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE },
+			consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	ResponseEntity<List<BatchItemResult>> batch(HttpMethod method, InputStream body) throws IOException {
+
+		try {
+			List<BatchItemResult> results;
+
+			if (HttpMethod.DELETE.equals(method)) {
+				try (MappingIterator<Integer> ids = objectMapper.readerFor(Integer.class).readValues(body)) {
+					results = vetService.deleteAll(ids);
+				}
+			} else {
+				try (MappingIterator<VetDTO> vetsDTO = objectMapper.readerFor(VetDTO.class).readValues(body)) {
+					results = HttpMethod.POST.equals(method) ? vetService.createAll(vetsDTO) : vetService.updateAll(vetsDTO);
+				}
+			}
+			return ResponseEntity.ok(results);
+
+		} catch (RuntimeJsonMappingException e) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.exceptions.VisitConflictException;
+import com.tecsup.petclinic.metrics.NotFoundMetrics;
+import com.tecsup.petclinic.services.VetAvailabilityIndex;
+import com.tecsup.petclinic.services.VisitService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 
+ * @author jgomezm
+ *
+ */
+@RestController
+@Slf4j
+public class VisitController {
+
+	static final int MAX_PET_IDS = 1000;
+
+	private VisitService visitService;
+
+	private NotFoundMetrics notFoundMetrics;
+
+	/**
+	 *
+	 * @param visitService
+	 * @param notFoundMetrics
+	 */
+	public VisitController(VisitService visitService, NotFoundMetrics notFoundMetrics) {
+		this.visitService = visitService;
+		this.notFoundMetrics = notFoundMetrics;
+	}
+
+	/**
+	 * Visit history of a pet, most recent first
+	 *
+	 * @param id
+	 * @return
+	 */
+	@GetMapping(value = "/pets/{id}/visits")
+	ResponseEntity<List<VisitDTO>> findByPetId(@PathVariable Integer id) {
+
+		try {
+			return ResponseEntity.ok(visitService.findByPetId(id));
+		} catch (PetNotFoundException e) {
+			notFoundMetrics.record(e, "visits.findByPetId");
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Visit history of several pets, e.g. /pets/visits?petIds=1,7,8
+	 *
+	 * @param petIds
+	 * @return visits by pet id; unknown pets are left out
+	 */
+	@GetMapping(value = "/pets/visits")
+	ResponseEntity<Map<Integer, List<VisitDTO>>> findByPetIds(@RequestParam List<Integer> petIds) {
+
+		Set<Integer> ids = new LinkedHashSet<>(petIds);
+		if (ids.size() > MAX_PET_IDS)
+			return ResponseEntity.badRequest().build();
+
+		return ResponseEntity.ok(visitService.findByPetIds(ids));
+	}
+
+	/**
+	 * Book a visit: 400 when visitDate is not a yyyy-MM-dd date or visitTime is
+	 * not the start of a slot, 404 for an
+	 * unknown pet or vet, 409 when the vet is inactive, the slot is taken or,
+	 * without visitTime, the day is full
+	 *
+	 * @param visitTO
+	 * @return
+	 */
+	@PostMapping(value = "/visits")
+	ResponseEntity<VisitDTO> book(@RequestBody VisitDTO visitTO) {
+
+		if (visitTO.getPetId() == null || visitTO.getVetId() == null || !isDate(visitTO.getVisitDate()))
+			return ResponseEntity.badRequest().build();
+		if (visitTO.getVisitTime() != null && !isSlot(visitTO.getVisitTime()))
+			return ResponseEntity.badRequest().build();
+
+		try {
+			return ResponseEntity.status(HttpStatus.CREATED).body(visitService.book(visitTO));
+		} catch (PetNotFoundException | VetNotFoundException e) {
+			notFoundMetrics.record(e, "visits.book");
+			return ResponseEntity.notFound().build();
+		} catch (VisitConflictException e) {
+			log.info("op=visits.book conflict: {}", e.getMessage());
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
+	}
+
+	/**
+	 * Active vets with a free slot on a day, e.g. /vets/available?date=2024-05-20,
+	 * or free in a slot, e.g. /vets/available?date=2024-05-20&time=10:30
+	 *
+	 * @param date
+	 * @param time
+	 * @return
+	 */
+	@GetMapping(value = "/vets/available")
+	ResponseEntity<List<VetDTO>> findAvailableVets(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+												   @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime time) {
+
+		if (time != null && !VetAvailabilityIndex.isSlot(time))
+			return ResponseEntity.badRequest().build();
+
+		return ResponseEntity.ok(visitService.findAvailableVets(date, time));
+	}
+
+	private static boolean isDate(String date) {
+		try {
+			return date != null && LocalDate.parse(date) != null;
+		} catch (DateTimeParseException e) {
+			return false;
+		}
+	}
+
+	private static boolean isSlot(String time) {
+		try {
+			return VetAvailabilityIndex.isSlot(LocalTime.parse(time));
+		} catch (DateTimeParseException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,17 @@
+-- ===============================================
+-- A visit takes a 30-minute slot starting at visit_time, so a vet sees
+-- several pets a day. Existing visits take the slots of their day from
+-- 09:00 on, in id order, so visits of a vet already sharing a day get
+-- one slot each. A double booking of a slot fails on uq_visits_vet_slot,
+-- which replaces idx_visits_vet_date, its prefix.
+-- ===============================================
+ALTER TABLE visits ADD COLUMN visit_time TIME NOT NULL DEFAULT '09:00:00' AFTER visit_date;
+
+UPDATE visits v
+   SET visit_time = DATEADD(MINUTE, 30 * (SELECT COUNT(*) FROM visits o
+                                          WHERE o.vet_id = v.vet_id AND o.visit_date = v.visit_date
+                                            AND o.id < v.id), TIME '09:00:00')
+ WHERE v.vet_id IS NOT NULL;
+
+CREATE UNIQUE INDEX uq_visits_vet_slot ON visits(vet_id, visit_date, visit_time);
+DROP INDEX idx_visits_vet_date;
@@ -3,20 +3,9 @@
 -- ===============================================
 -- Author: PetClinic Team
 -- Description: H2 Database schema for Pet Clinic Management System
--- Version: 2.0
+-- Version: 2.0 (Flyway V1)
 -- ===============================================
 
--- ===============================================
--- DROP TABLES (Orden inverso por dependencias)
--- ===============================================
-DROP TABLE IF EXISTS visits;
-DROP TABLE IF EXISTS pets;
-DROP TABLE IF EXISTS vet_specialties;
-DROP TABLE IF EXISTS owners;
-DROP TABLE IF EXISTS types;
-DROP TABLE IF EXISTS specialties;
-DROP TABLE IF EXISTS vets;
-
 -- ===============================================
 -- TABLE: vets (Veterinarios)
 -- Description: Stores veterinarian information
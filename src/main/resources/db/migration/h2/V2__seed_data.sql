@@ -3,7 +3,7 @@
 -- ===============================================
 -- Author: PetClinic Team
 -- Description: Sample data for Pet Clinic Management System
--- Version: 2.0
+-- Version: 2.0 (Flyway V2)
 -- ===============================================
 
 -- ===============================================
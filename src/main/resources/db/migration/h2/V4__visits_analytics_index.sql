@@ -0,0 +1,7 @@
+-- ===============================================
+-- Analytics over a date range (AnalyticsService) group visits by day,
+-- vet and month and sum their cost: the range is read from this index
+-- alone. It replaces idx_visits_date, which is its prefix.
+-- ===============================================
+CREATE INDEX idx_visits_date_vet_cost ON visits(visit_date, vet_id, cost);
+DROP INDEX idx_visits_date;
@@ -0,0 +1,7 @@
+-- ===============================================
+-- Composite indexes for /pets/search (owner + name prefix,
+-- type + birth-date range, birth-date range)
+-- ===============================================
+CREATE INDEX idx_pets_owner_name ON pets(owner_id, name);
+CREATE INDEX idx_pets_type_birth_date ON pets(type_id, birth_date);
+CREATE INDEX idx_pets_birth_date ON pets(birth_date);
@@ -0,0 +1,7 @@
+-- ===============================================
+-- Visits of a vet on a day, for the availability checks. It replaces
+-- idx_visits_vet_id, which is its prefix. Not unique: existing data may
+-- hold several visits of a vet on the same day (see V10).
+-- ===============================================
+CREATE INDEX idx_visits_vet_date ON visits(vet_id, visit_date);
+DROP INDEX idx_visits_vet_id;
@@ -0,0 +1,20 @@
+-- ===============================================
+-- A visit takes a 30-minute slot starting at visit_time, so a vet sees
+-- several pets a day. Existing visits take the slots of their day from
+-- 09:00 on, in id order, so visits of a vet already sharing a day get
+-- one slot each. A double booking of a slot fails on uq_visits_vet_slot,
+-- which replaces idx_visits_vet_date, its prefix.
+-- ===============================================
+ALTER TABLE visits
+  ADD COLUMN visit_time TIME NOT NULL DEFAULT '09:00:00' AFTER visit_date;
+
+UPDATE visits v
+  JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY vet_id, visit_date ORDER BY id) - 1 AS slot
+          FROM visits
+         WHERE vet_id IS NOT NULL) s ON s.id = v.id
+   SET v.visit_time = ADDTIME('09:00:00', SEC_TO_TIME(s.slot * 1800))
+ WHERE s.slot > 0;
+
+ALTER TABLE visits
+  ADD UNIQUE KEY uq_visits_vet_slot (vet_id, visit_date, visit_time),
+  DROP INDEX idx_visits_vet_date;
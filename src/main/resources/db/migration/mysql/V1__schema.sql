@@ -3,23 +3,18 @@
 -- ===============================================
 -- Author: PetClinic Team
 -- Description: Database schema for Pet Clinic Management System
--- Version: 2.0
+-- Version: 2.0 (Flyway V1)
 -- ===============================================
 
 -- ===============================================
 -- DATABASE SETUP
+-- Flyway runs in the database of the JDBC URL
+-- (created by createDatabaseIfNotExist=true)
 -- ===============================================
-
-DROP DATABASE IF EXISTS PETCLINIC_DB;
-
-CREATE DATABASE IF NOT EXISTS PETCLINIC_DB;
-
-ALTER DATABASE PETCLINIC_DB
+ALTER DATABASE
   DEFAULT CHARACTER SET utf8
   DEFAULT COLLATE utf8_general_ci;
 
-USE PETCLINIC_DB;
-
 -- ===============================================
 -- TABLE: vets (Veterinarios)
 -- Description: Stores veterinarian information
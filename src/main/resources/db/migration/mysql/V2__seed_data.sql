@@ -3,11 +3,9 @@
 -- ===============================================
 -- Author: PetClinic Team
 -- Description: Sample data for Pet Clinic Management System
--- Version: 2.0
+-- Version: 2.0 (Flyway V2)
 -- ===============================================
 
-USE PETCLINIC_DB;
-
 -- ===============================================
 -- 1. INSERT VETS (Veterinarios)
 -- ===============================================
@@ -96,4 +94,4 @@ INSERT INTO visits (id, pet_id, vet_id, visit_date, description, cost) VALUES
 
 -- ===============================================
 -- END OF DATA INSERTION
--- ===============================================
\ No newline at end of file
+-- ===============================================
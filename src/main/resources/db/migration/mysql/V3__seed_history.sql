@@ -0,0 +1,12 @@
+-- ===============================================
+-- TABLE: seed_history
+-- Description: Fixture files loaded by SeedLoader, one row per file,
+-- so a restart never loads the same file twice
+-- ===============================================
+CREATE TABLE IF NOT EXISTS seed_history (
+  file_name     VARCHAR(255) NOT NULL,
+  checksum      BIGINT NOT NULL,
+  row_count     BIGINT NOT NULL,
+  loaded_at     TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (file_name)
+) ENGINE=InnoDB;
@@ -0,0 +1,8 @@
+-- ===============================================
+-- Analytics over a date range (AnalyticsService) group visits by day,
+-- vet and month and sum their cost: the range is read from this index
+-- alone. It replaces idx_visits_date, which is its prefix.
+-- ===============================================
+ALTER TABLE visits
+  ADD INDEX idx_visits_date_vet_cost (visit_date, vet_id, cost),
+  DROP INDEX idx_visits_date;
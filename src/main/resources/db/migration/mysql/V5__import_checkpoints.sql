@@ -0,0 +1,17 @@
+-- ===============================================
+-- TABLE: import_checkpoints
+-- Description: Progress of the CSV imports, one row per table and file
+-- content. Updated in the transaction of every chunk, so an interrupted
+-- import resumes after the last committed line
+-- ===============================================
+CREATE TABLE IF NOT EXISTS import_checkpoints (
+  table_name    VARCHAR(30) NOT NULL,
+  checksum      BIGINT NOT NULL,
+  file_name     VARCHAR(255),
+  line_count    BIGINT NOT NULL DEFAULT 0,
+  imported      BIGINT NOT NULL DEFAULT 0,
+  rejected      BIGINT NOT NULL DEFAULT 0,
+  completed     BOOLEAN NOT NULL DEFAULT FALSE,
+  updated_at    TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (table_name, checksum)
+) ENGINE=InnoDB;
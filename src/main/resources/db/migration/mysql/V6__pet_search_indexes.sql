@@ -0,0 +1,8 @@
+-- ===============================================
+-- Composite indexes for /pets/search (owner + name prefix,
+-- type + birth-date range, birth-date range)
+-- ===============================================
+ALTER TABLE pets
+  ADD INDEX idx_pets_owner_name (owner_id, name),
+  ADD INDEX idx_pets_type_birth_date (type_id, birth_date),
+  ADD INDEX idx_pets_birth_date (birth_date);
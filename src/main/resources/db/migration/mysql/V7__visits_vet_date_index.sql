@@ -0,0 +1,8 @@
+-- ===============================================
+-- Visits of a vet on a day, for the availability checks. It replaces
+-- idx_visits_vet_id, which is its prefix. Not unique: existing data may
+-- hold several visits of a vet on the same day (see V10).
+-- ===============================================
+ALTER TABLE visits
+  ADD INDEX idx_visits_vet_date (vet_id, visit_date),
+  DROP INDEX idx_visits_vet_id;
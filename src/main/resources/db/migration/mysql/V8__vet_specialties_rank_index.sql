@@ -0,0 +1,7 @@
+-- ===============================================
+-- Vets of a specialty ranked by experience are read from this index alone:
+-- it holds every vet_specialties column the ranking selects (is_primary,
+-- certification_date), only the names come from vets by primary key
+-- ===============================================
+ALTER TABLE vet_specialties
+  ADD INDEX idx_vet_specialties_rank (specialty_id, years_experience, vet_id, is_primary, certification_date);
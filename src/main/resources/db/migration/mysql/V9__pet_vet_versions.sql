@@ -0,0 +1,9 @@
+-- ===============================================
+-- Optimistic locking: bumped by every update of a pet or a vet,
+-- published as the ETag of /pets/{id} and /vets/{id}
+-- ===============================================
+ALTER TABLE vets
+  ADD COLUMN version INT NOT NULL DEFAULT 0;
+
+ALTER TABLE pets
+  ADD COLUMN version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,126 @@
+package com.tecsup.petclinic.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.PetTypeVisitsDTO;
+import com.tecsup.petclinic.dtos.VetMonthRevenueDTO;
+import com.tecsup.petclinic.dtos.VisitDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rollups (no range) against the GROUP BY queries (widest range)
+ */
+@SpringBootTest
+@Slf4j
+public class AnalyticsServiceTest {
+
+    private static final LocalDate FROM = AnalyticsServiceImpl.FIRST_DAY;
+
+    private static final LocalDate TO = AnalyticsServiceImpl.LAST_DAY;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * A booking and a change of type reach the rollups without a rebuild,
+     * and the rollups keep matching the database
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRollupsFollowWrites() throws Exception {
+
+        PetDTO pet = this.petService.create(PetDTO.builder().name("Rollup").typeId(3).ownerId(1).build());
+        try {
+            long typeThree = visits(this.analyticsService.visitsByPetType(null, null), 3);
+            long typeFour = visits(this.analyticsService.visitsByPetType(null, null), 4);
+
+            this.visitService.book(VisitDTO.builder().petId(pet.getId()).vetId(5).visitDate("2032-03-10")
+                    .cost(new BigDecimal("80")).build());
+
+            assertEquals(List.of(new VetMonthRevenueDTO(5, "2032-03", 1, new BigDecimal("80.00"))),
+                    this.analyticsService.revenueByVetAndMonth(null, null).stream()
+                            .filter(row -> row.getMonth().equals("2032-03")).toList());
+            assertEquals(typeThree + 1, visits(this.analyticsService.visitsByPetType(null, null), 3));
+            assertEquals(this.analyticsService.revenueByVetAndMonth(FROM, TO),
+                    this.analyticsService.revenueByVetAndMonth(null, null));
+            assertEquals(this.analyticsService.busiestDays(FROM, TO, 366),
+                    this.analyticsService.busiestDays(null, null, 366));
+
+            pet.setTypeId(4);
+            this.petService.update(pet);
+
+            assertEquals(typeThree, visits(this.analyticsService.visitsByPetType(null, null), 3));
+            assertEquals(typeFour + 1, visits(this.analyticsService.visitsByPetType(null, null), 4));
+            assertEquals(this.analyticsService.visitsByPetType(FROM, TO),
+                    this.analyticsService.visitsByPetType(null, null));
+        } finally {
+            this.petService.delete(pet.getId());
+        }
+
+        // The visit went with the pet: it is taken out of the rollups
+        assertEquals(List.of(), this.analyticsService.revenueByVetAndMonth(null, null).stream()
+                .filter(row -> row.getMonth().equals("2032-03")).toList());
+        assertEquals(this.analyticsService.revenueByVetAndMonth(FROM, TO),
+                this.analyticsService.revenueByVetAndMonth(null, null));
+        assertEquals(this.analyticsService.visitsByPetType(FROM, TO),
+                this.analyticsService.visitsByPetType(null, null));
+        assertEquals(this.analyticsService.busiestDays(FROM, TO, 366),
+                this.analyticsService.busiestDays(null, null, 366));
+    }
+
+    /**
+     * Deleting a pet subtracts its visits instead of reading all of them again
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDeletePetSubtractsVisits() throws Exception {
+
+        PetDTO pet = this.petService.create(PetDTO.builder().name("Subtract").typeId(2).ownerId(1).build());
+        this.visitService.book(VisitDTO.builder().petId(pet.getId()).vetId(2).visitDate("2033-04-11")
+                .cost(new BigDecimal("40")).build());
+        long typeTwo = visits(this.analyticsService.visitsByPetType(null, null), 2);
+
+        // Written behind the rollups: a rebuild would count it
+        this.jdbcTemplate.update("INSERT INTO visits (pet_id, vet_id, visit_date, cost) VALUES (1, 2, '2033-05-11', 10)");
+        try {
+            this.petService.delete(pet.getId());
+
+            assertEquals(typeTwo - 1, visits(this.analyticsService.visitsByPetType(null, null), 2));
+            assertEquals(List.of(), this.analyticsService.revenueByVetAndMonth(null, null).stream()
+                    .filter(row -> row.getMonth().startsWith("2033-")).toList());
+        } finally {
+            this.jdbcTemplate.update("DELETE FROM visits WHERE visit_date = '2033-05-11'");
+        }
+
+        assertEquals(this.analyticsService.revenueByVetAndMonth(FROM, TO),
+                this.analyticsService.revenueByVetAndMonth(null, null));
+    }
+
+    private static long visits(List<PetTypeVisitsDTO> byType, int typeId) {
+        return byType.stream().filter(row -> row.getTypeId() == typeId)
+                .mapToLong(PetTypeVisitsDTO::getVisits).findFirst().orElse(0);
+    }
+
+}
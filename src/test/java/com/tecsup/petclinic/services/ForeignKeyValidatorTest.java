@@ -0,0 +1,112 @@
+package com.tecsup.petclinic.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.tecsup.petclinic.dtos.BatchItemResult;
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.exceptions.InvalidReferenceException;
+import com.tecsup.petclinic.exceptions.OwnerNotFoundException;
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+
+import lombok.extern.slf4j.Slf4j;
+
+@SpringBootTest
+@Slf4j
+public class ForeignKeyValidatorTest {
+
+    @Autowired
+    private ForeignKeyValidator foreignKeys;
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private OwnerService ownerService;
+
+    @Autowired
+    private VetService vetService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * A pet with an unknown owner or type is refused and nothing is written
+     */
+    @Test
+    public void testRejectUnknownReferences() {
+
+        int OWNER_ID_NOT_EXIST = 999_999;
+        int TYPE_ID_NOT_EXIST = 999;
+        int pets = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pets", Integer.class);
+
+        assertThrows(InvalidReferenceException.class, () -> this.petService.create(
+                PetDTO.builder().name("Nobody").typeId(1).ownerId(OWNER_ID_NOT_EXIST).build()));
+        assertThrows(InvalidReferenceException.class, () -> this.petService.create(
+                PetDTO.builder().name("Nobody").typeId(TYPE_ID_NOT_EXIST).ownerId(1).build()));
+        assertThrows(InvalidReferenceException.class, () -> this.petService.create(
+                PetDTO.builder().name("Nobody").ownerId(1).build()));
+
+        assertEquals(pets, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pets", Integer.class));
+        assertTrue(foreignKeys.exists(ForeignKeyValidator.VETS, 1));
+        assertFalse(foreignKeys.exists(ForeignKeyValidator.VETS, 999));
+    }
+
+    /**
+     * Owners created and deleted through the service are seen at once
+     *
+     * @throws OwnerNotFoundException
+     * @throws PetNotFoundException
+     */
+    @Test
+    public void testFollowsWrites() throws OwnerNotFoundException, PetNotFoundException {
+
+        OwnerDTO owner = this.ownerService.create(OwnerDTO.builder().firstName("Ida").lastName("Keys").build());
+        assertTrue(foreignKeys.exists(ForeignKeyValidator.OWNERS, owner.getId()));
+
+        PetDTO pet = this.petService.create(PetDTO.builder().name("Keyed").typeId(1).ownerId(owner.getId()).build());
+        this.petService.delete(pet.getId());
+
+        this.ownerService.delete(owner.getId());
+        assertFalse(foreignKeys.exists(ForeignKeyValidator.OWNERS, owner.getId()));
+        assertThrows(InvalidReferenceException.class, () -> this.petService.create(
+                PetDTO.builder().name("Orphan").typeId(1).ownerId(owner.getId()).build()));
+    }
+
+    /**
+     * Vets of a batch are added and removed one by one, without reading the ids again
+     */
+    @Test
+    public void testFollowsVetBatches() {
+
+        int VET_ID_BEHIND = 999_990;
+        foreignKeys.rebuild();
+        // Written behind the sets: reading them again would find it
+        jdbcTemplate.update("INSERT INTO vets (id, first_name, last_name) VALUES (?, 'Behind', 'Keys')", VET_ID_BEHIND);
+        try {
+            List<BatchItemResult> created = this.vetService.createAll(
+                    List.of(VetDTO.builder().firstName("Batch").lastName("Keys").build()).iterator());
+            Integer vetId = created.get(0).getId();
+            assertTrue(foreignKeys.exists(ForeignKeyValidator.VETS, vetId));
+
+            this.vetService.deleteAll(List.of(vetId).iterator());
+            assertFalse(foreignKeys.exists(ForeignKeyValidator.VETS, vetId));
+            assertFalse(foreignKeys.exists(ForeignKeyValidator.VETS, VET_ID_BEHIND));
+        } finally {
+            jdbcTemplate.update("DELETE FROM vets WHERE id = ?", VET_ID_BEHIND);
+        }
+    }
+
+}
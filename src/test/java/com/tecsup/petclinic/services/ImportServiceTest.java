@@ -0,0 +1,190 @@
+package com.tecsup.petclinic.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.tecsup.petclinic.dtos.ImportJobDTO;
+import com.tecsup.petclinic.dtos.SearchHitDTO;
+
+import lombok.extern.slf4j.Slf4j;
+
+@SpringBootTest
+@Slf4j
+public class ImportServiceTest {
+
+    private static final int FIRST_ID = 900_001;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @TempDir
+    Path importDir;
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM pets WHERE id >= ? OR name = 'Ramiro'", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM owners WHERE id >= ? OR last_name = 'Importado'", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM import_checkpoints");
+        // Deleted behind the search index
+        searchIndex.invalidate();
+    }
+
+    /**
+     * Bad rows are rejected one by one, the others are imported
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testImportRejectsBadRows() throws IOException {
+
+        Path owners = importDir.resolve("owners.csv");
+        Files.writeString(owners, """
+                id,first_name,last_name,address,city,telephone
+                900001,Ada,Import,1 Main St.,Lima,5550001
+                """);
+        Path pets = importDir.resolve("pets.csv");
+        Files.writeString(pets, """
+                id,name,birth_date,type_id,owner_id
+                900001,Import One,2020-01-01,1,900001
+                900002,No Owner,2020-01-01,1,899999
+                900003,Bad Date,2020-13-01,1,900001
+
+                900004,A name far too long for the pets.name column,,1,900001
+                900005,"Import, Five",,2,1
+                """);
+
+        assertEquals(ImportJobDTO.Status.COMPLETED, importService.run("owners", owners).getStatus());
+        ImportJobDTO job = importService.run("pets", pets);
+
+        assertEquals(ImportJobDTO.Status.COMPLETED, job.getStatus());
+        assertEquals(6, job.getLines());
+        assertEquals(2, job.getImported());
+        assertEquals(3, job.getRejected());
+        assertTrue(job.getErrors().get(0).startsWith("line 3: owner_id 899999"), job.getErrors().get(0));
+        assertTrue(job.getErrors().stream().anyMatch(error -> error.startsWith("line 6: ")), job.getErrors().toString());
+
+        assertEquals("Import, Five", jdbcTemplate.queryForObject("SELECT name FROM pets WHERE id = 900005", String.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pets WHERE id >= ?", Integer.class, FIRST_ID));
+    }
+
+    /**
+     * Rows with generated ids reach the search index and the foreign key
+     * checks of the next file, chunk by chunk
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testImportIndexesRows() throws IOException {
+
+        // Read now, so the rows have to reach it without another rebuild
+        searchIndex.rebuild();
+
+        Path owners = importDir.resolve("owners.csv");
+        Files.writeString(owners, """
+                first_name,last_name,address,city,telephone
+                Evaristo,Importado,,Lima,5550009
+                """);
+        assertEquals(ImportJobDTO.Status.COMPLETED, importService.run("owners", owners).getStatus());
+
+        List<SearchHitDTO> hits = searchIndex.search("Evaristo Importado", SearchIndex.OWNER, 5);
+        assertEquals(1, hits.size());
+        Integer ownerId = hits.get(0).getId();
+        assertEquals(ownerId, jdbcTemplate.queryForObject(
+                "SELECT id FROM owners WHERE last_name = 'Importado'", Integer.class));
+
+        Path pets = importDir.resolve("pets.csv");
+        Files.writeString(pets, "name,birth_date,type_id,owner_id\nRamiro,,1," + ownerId + "\n");
+        ImportJobDTO job = importService.run("pets", pets);
+
+        assertEquals(1, job.getImported());
+        assertEquals(0, job.getRejected());
+        assertEquals(List.of("Ramiro"), searchIndex.search("Ramiro", SearchIndex.PET, 5).stream()
+                .map(SearchHitDTO::getLabel).toList());
+    }
+
+    /**
+     * A quoted field may span lines, as /export writes it
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testImportMultiLineField() throws IOException {
+
+        Path owners = importDir.resolve("owners.csv");
+        Files.writeString(owners, """
+                id,first_name,last_name,address,city,telephone
+                900001,Ada,Import,"1 Main St.
+                Apt. ""B""\",Lima,5550001
+                900002,Alan,Import,,Lima,5550002
+                x,Bad,Import,,Lima,5550003
+                """);
+
+        ImportJobDTO job = importService.run("owners", owners);
+
+        assertEquals(ImportJobDTO.Status.COMPLETED, job.getStatus());
+        assertEquals(4, job.getLines());
+        assertEquals(2, job.getImported());
+        assertTrue(job.getErrors().get(0).startsWith("line 5: "), job.getErrors().get(0));
+        assertEquals("1 Main St.\nApt. \"B\"",
+                jdbcTemplate.queryForObject("SELECT address FROM owners WHERE id = 900001", String.class));
+    }
+
+    /**
+     * A file is resumed after its checkpoint, and skipped once completed
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testResumeFromCheckpoint() throws IOException {
+
+        Path owners = importDir.resolve("owners.csv");
+        Files.writeString(owners, """
+                id,first_name,last_name,address,city,telephone
+                900001,Ada,Import,,Lima,5550001
+                900002,Alan,Import,,Lima,5550002
+                900003,Grace,Import,,Lima,5550003
+                """);
+
+        // An earlier run committed the first line before it stopped
+        long checksum = SeedLoader.checksum(new FileSystemResource(owners));
+        jdbcTemplate.update("INSERT INTO import_checkpoints (table_name, checksum, file_name, line_count, imported) "
+                + "VALUES ('owners', ?, 'owners.csv', 1, 1)", checksum);
+        jdbcTemplate.update("INSERT INTO owners (id, first_name, last_name, city, telephone) "
+                + "VALUES (900001, 'Ada', 'Import', 'Lima', '5550001')");
+
+        ImportJobDTO job = importService.run("owners", owners);
+
+        assertEquals(ImportJobDTO.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getResumedAt());
+        assertEquals(3, job.getImported());
+        assertEquals(0, job.getRejected());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owners WHERE id >= ?", Integer.class, FIRST_ID));
+
+        // Completed: nothing to do
+        job = importService.run("owners", owners);
+        assertEquals(3, job.getResumedAt());
+        assertEquals(0, job.getRejected());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owners WHERE id >= ?", Integer.class, FIRST_ID));
+    }
+
+}
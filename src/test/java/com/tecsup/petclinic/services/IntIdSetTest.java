@@ -0,0 +1,44 @@
+package com.tecsup.petclinic.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class IntIdSetTest {
+
+    /**
+     * Dense ids in the bits, grown on demand; others in the sorted array
+     */
+    @Test
+    public void testAddContainsRemove() {
+
+        IntIdSet ids = new IntIdSet();
+
+        int[] values = { 0, 1, 63, 64, 1_000, 1_000_000, IntIdSet.DENSE_LIMIT - 1, IntIdSet.DENSE_LIMIT,
+                Integer.MAX_VALUE, -1, Integer.MIN_VALUE };
+
+        for (int id : values)
+            assertTrue(ids.add(id), "add " + id);
+        assertFalse(ids.add(1_000));
+        assertEquals(values.length, ids.size());
+
+        for (int id : values)
+            assertTrue(ids.contains(id), "contains " + id);
+        assertFalse(ids.contains(2));
+        assertFalse(ids.contains(999));
+        assertFalse(ids.contains(IntIdSet.DENSE_LIMIT + 1));
+        assertFalse(ids.contains(-2));
+
+        assertTrue(ids.remove(1_000_000));
+        assertTrue(ids.remove(Integer.MAX_VALUE));
+        assertFalse(ids.remove(1_000_000));
+        assertFalse(ids.remove(Integer.MAX_VALUE - 1));
+        assertFalse(ids.contains(1_000_000));
+        assertFalse(ids.contains(Integer.MAX_VALUE));
+        assertTrue(ids.contains(IntIdSet.DENSE_LIMIT));
+        assertEquals(values.length - 2, ids.size());
+    }
+
+}
@@ -1,10 +1,137 @@
 package com.tecsup.petclinic.services;
 
-import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.OwnerPetCountDTO;
+import com.tecsup.petclinic.exceptions.OwnerNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import lombok.extern.slf4j.Slf4j;
+
 @SpringBootTest
 @Slf4j
 public class OwnerServiceTest {
-	// TO DO
+
+    @Autowired
+    private OwnerService ownerService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * @throws OwnerNotFoundException
+     */
+    @Test
+    public void testFindOwnerById() throws OwnerNotFoundException {
+
+        OwnerDTO owner = this.ownerService.findById(1);
+
+        assertEquals("George", owner.getFirstName());
+        assertEquals("Franklin", owner.getLastName());
+        assertNull(owner.getPets());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testFindOwnerByIdKO() {
+
+        assertThrows(OwnerNotFoundException.class, () -> this.ownerService.findById(666));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testFindOwnersByLastName() {
+
+        List<OwnerDTO> owners = this.ownerService.findByLastName("Dav");
+
+        assertEquals(2, owners.size());
+        assertEquals("Betty", owners.get(0).getFirstName());
+        assertEquals("Harold", owners.get(1).getFirstName());
+    }
+
+    /**
+     * Owner and pets come from a single statement
+     *
+     * @throws OwnerNotFoundException
+     */
+    @Test
+    public void testFindOwnerWithPets() throws OwnerNotFoundException {
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            OwnerDTO owner = this.ownerService.findWithPets(3);
+
+            assertEquals("Rodriquez", owner.getLastName());
+            assertEquals(2, owner.getPets().size());
+            assertEquals("Rosy", owner.getPets().get(0).getName());
+            assertEquals("Jewel", owner.getPets().get(1).getName());
+            assertEquals(1, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testCountPets() {
+
+        List<OwnerPetCountDTO> counts = this.ownerService.countPets(null);
+
+        assertEquals(10, counts.size());
+        assertEquals(3, counts.get(2).getOwnerId());
+        assertEquals(2, counts.get(2).getPetCount());
+
+        List<OwnerPetCountDTO> davis = this.ownerService.countPets("Dav");
+
+        assertEquals(2, davis.size());
+        assertEquals(1, davis.get(0).getPetCount());
+    }
+
+    /**
+     * An owner without pets is still counted, with zero
+     *
+     * @throws OwnerNotFoundException
+     */
+    @Test
+    public void testCreateUpdateDeleteOwner() throws OwnerNotFoundException {
+
+        OwnerDTO owner = this.ownerService.create(OwnerDTO.builder()
+                .firstName("Ana").lastName("Zevallos").address("Av. Cascanueces 2221")
+                .city("Lima").telephone("999888777").build());
+
+        assertNotNull(owner.getId());
+
+        List<OwnerPetCountDTO> counts = this.ownerService.countPets("Zevallos");
+        assertEquals(1, counts.size());
+        assertEquals(0, counts.get(0).getPetCount());
+
+        owner.setCity("Arequipa");
+        this.ownerService.update(owner);
+        assertEquals("Arequipa", this.ownerService.findById(owner.getId()).getCity());
+
+        this.ownerService.delete(owner.getId());
+        assertThrows(OwnerNotFoundException.class, () -> this.ownerService.findById(owner.getId()));
+        assertThrows(OwnerNotFoundException.class, () -> this.ownerService.delete(owner.getId()));
+    }
+
 }
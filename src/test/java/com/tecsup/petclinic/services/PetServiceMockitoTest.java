@@ -183,12 +183,22 @@ public class PetServiceMockitoTest {
         PetDTO newPetDTOUpdate = newPetDTOCreate;
         Pet newPetUpdate = this.petMapper.mapToEntity(newPetDTOUpdate);
 
-        // Create
-        Mockito.when(this.repository.save(newPetUpdate))
-                .thenReturn(newPetUpdate);
+        // Update : one row affected
+        Mockito.when(this.repository.updatePet(newPetUpdate.getId(), UP_PET_NAME, UP_TYPE_ID, UP_OWNER_ID,
+                        newPetUpdate.getBirthDate(), newPetUpdate.getVersion()))
+                .thenReturn(1);
+
+        // The updated row is read back
+        Mockito.when(this.repository.findStoredById(newPetUpdate.getId()))
+                .thenReturn(Optional.of(newPetUpdate));
 
         // Execute update
-        PetDTO petDTOUpdate = this.petService.update(newPetDTOCreate);
+        PetDTO petDTOUpdate = null;
+        try {
+            petDTOUpdate = this.petService.update(newPetDTOCreate);
+        } catch (PetNotFoundException e) {
+            fail(e.getMessage());
+        }
         log.info("{}" + petDTOUpdate);
 
         //            EXPECTED           ACTUAL
@@ -218,9 +228,8 @@ public class PetServiceMockitoTest {
 
         // ------------ Delete ---------------
 
-        Mockito.doNothing().when(this.repository).delete(newPetCreate);
-        Mockito.when(this.repository.findById(newPetCreate.getId()))
-                .thenReturn(Optional.of(newPetCreate));
+        Mockito.when(this.repository.deletePet(newPetCreate.getId()))
+                .thenReturn(1);
 
         try {
             this.petService.delete(petDTOCreate.getId());
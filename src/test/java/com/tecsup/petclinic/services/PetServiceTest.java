@@ -2,15 +2,19 @@ package com.tecsup.petclinic.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import com.tecsup.petclinic.config.CacheConfig;
 import com.tecsup.petclinic.dtos.PetDTO;
 import org.junit.jupiter.api.Test;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 
 import com.tecsup.petclinic.entities.Pet;
 import com.tecsup.petclinic.exceptions.PetNotFoundException;
@@ -24,6 +28,9 @@ public class PetServiceTest {
     @Autowired
     private PetService petService ;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Test
     public void testFindPetById() {
 
@@ -147,7 +154,12 @@ public class PetServiceTest {
         petDTOCreated.setTypeId(UP_TYPE_ID);
 
         // Execute update
-        PetDTO upgradePetDTO = this.petService.update(petDTOCreated);
+        PetDTO upgradePetDTO = null;
+        try {
+            upgradePetDTO = this.petService.update(petDTOCreated);
+        } catch (PetNotFoundException e) {
+            fail(e.getMessage());
+        }
         log.info(">>>>" + upgradePetDTO);
 
         //            EXPECTED        ACTUAL
@@ -195,4 +207,36 @@ public class PetServiceTest {
         }
 
     }
+
+    /**
+     *
+     */
+    @Test
+    public void testFindPetByIdIsCachedUntilDelete() {
+
+        String PET_NAME = "Cached";
+        int OWNER_ID = 1;
+        int TYPE_ID = 1;
+
+        PetDTO petDTO = PetDTO.builder()
+                .name(PET_NAME)
+                .ownerId(OWNER_ID)
+                .typeId(TYPE_ID)
+                .build();
+
+        PetDTO newPetDTO = this.petService.create(petDTO);
+
+        Cache pets = cacheManager.getCache(CacheConfig.PETS);
+
+        try {
+            this.petService.findById(newPetDTO.getId());
+            assertNotNull(pets.get(newPetDTO.getId()));
+
+            this.petService.delete(newPetDTO.getId());
+        } catch (PetNotFoundException e) {
+            fail(e.getMessage());
+        }
+
+        assertNull(pets.get(newPetDTO.getId()));
+    }
 }
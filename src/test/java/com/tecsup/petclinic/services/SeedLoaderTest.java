@@ -0,0 +1,133 @@
+package com.tecsup.petclinic.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+@SpringBootTest
+@Slf4j
+public class SeedLoaderTest {
+
+    private static final int FIRST_ID = 900_001;
+
+    @Autowired
+    private SeedLoader seedLoader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VetAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private VisitRollups rollups;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private ForeignKeyValidator foreignKeys;
+
+    @TempDir
+    Path seedDir;
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM pets WHERE id >= ?", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM owners WHERE id >= ?", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM seed_history WHERE file_name LIKE 'owners%' OR file_name LIKE 'pets%'");
+        // Deleted behind the indexes the load rebuilt
+        availabilityIndex.invalidate();
+        rollups.invalidate();
+        searchIndex.invalidate();
+        foreignKeys.invalidate();
+    }
+
+    /**
+     * Loads the files in foreign key order, then skips them on the next run
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLoadOnce() throws IOException {
+
+        Files.writeString(seedDir.resolve("pets.csv"), """
+                id,name,birth_date,type_id,owner_id,age
+                900001,Seed One,2020-01-01,1,900001,5
+                900002,"Seed, Two",,2,900002,
+                """);
+        Files.writeString(seedDir.resolve("owners.csv"), """
+                id,first_name,last_name,address,city,telephone
+                900001,Ada,Seed,1 Main St.,Lima,5550001
+                900002,Alan,Seed,,Lima,5550002
+                """);
+
+        Map<String, Long> loaded = seedLoader.load(seedDir.toUri().toString());
+
+        assertEquals(List.of("owners.csv", "pets.csv"), List.copyOf(loaded.keySet()));
+        assertEquals(2L, loaded.get("owners.csv"));
+        assertEquals(2L, loaded.get("pets.csv"));
+
+        // Empty fields are NULL, quoted fields keep their commas
+        assertNull(jdbcTemplate.queryForObject("SELECT address FROM owners WHERE id = 900002", String.class));
+        assertEquals("Seed, Two", jdbcTemplate.queryForObject("SELECT name FROM pets WHERE id = 900002", String.class));
+        assertNull(jdbcTemplate.queryForObject("SELECT birth_date FROM pets WHERE id = 900002", String.class));
+
+        // Second run: nothing to load
+        assertTrue(seedLoader.load(seedDir.toUri().toString()).isEmpty());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pets WHERE id >= ?", Integer.class, FIRST_ID));
+    }
+
+    /**
+     * \r\n line endings are not kept in the last column, a quoted "" is an
+     * empty string and a quoted line break belongs to its field
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLoadCrlf() throws IOException {
+
+        Files.writeString(seedDir.resolve("owners.csv"), "id,first_name,last_name,address,city,telephone\r\n"
+                + "900001,Ada,Seed,\"\",Lima,5550001\r\n"
+                + "900002,Alan,Seed,\"1 Main St.\r\nApt. 2\",Lima,5550002\r\n");
+
+        assertEquals(2L, seedLoader.load(seedDir.toUri().toString()).get("owners.csv"));
+
+        assertEquals("5550001", jdbcTemplate.queryForObject("SELECT telephone FROM owners WHERE id = 900001", String.class));
+        assertEquals("", jdbcTemplate.queryForObject("SELECT address FROM owners WHERE id = 900001", String.class));
+        assertTrue(jdbcTemplate.queryForObject("SELECT address FROM owners WHERE id = 900002", String.class)
+                .startsWith("1 Main St."));
+    }
+
+    /**
+     * Fields split by the CSV parser used by the batched path
+     */
+    @Test
+    public void testParseLine() {
+
+        List<String> fields = SeedLoader.parseLine("1,\"a \"\"quoted\"\", name\",,\"\"");
+
+        assertEquals(4, fields.size());
+        assertEquals("1", fields.get(0));
+        assertEquals("a \"quoted\", name", fields.get(1));
+        assertNull(fields.get(2));
+        assertEquals("", fields.get(3));
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.tecsup.petclinic.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.dtos.VetDTO;
+import com.tecsup.petclinic.dtos.VisitDTO;
+import com.tecsup.petclinic.entities.Pet;
+import com.tecsup.petclinic.exceptions.PetNotFoundException;
+import com.tecsup.petclinic.exceptions.VetNotFoundException;
+import com.tecsup.petclinic.exceptions.VisitConflictException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Query counts are read from the Hibernate statistics
+ */
+@SpringBootTest
+@Slf4j
+public class VisitServiceTest {
+
+    @Autowired
+    private VisitService visitService;
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private VetAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    /**
+     * @throws PetNotFoundException
+     */
+    @Test
+    public void testFindVisitsByPetId() throws PetNotFoundException {
+
+        Integer PET_ID = 7;
+        int SIZE_EXPECTED = 2;
+
+        List<VisitDTO> visits = this.visitService.findByPetId(PET_ID);
+
+        assertEquals(SIZE_EXPECTED, visits.size());
+        assertEquals("2010-03-04", visits.get(0).getVisitDate());   // most recent first
+        assertEquals("2008-09-04", visits.get(1).getVisitDate());
+        assertEquals(PET_ID, visits.get(0).getPetId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testFindVisitsByPetIdKO() {
+
+        assertThrows(PetNotFoundException.class, () -> this.visitService.findByPetId(666));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testFindVisitsByPetIds() {
+
+        Map<Integer, List<VisitDTO>> visits = this.visitService.findByPetIds(List.of(8, 1, 2, 666));
+
+        assertEquals(List.of(8, 1, 2), List.copyOf(visits.keySet()));
+        assertEquals(2, visits.get(8).size());
+        assertEquals(1, visits.get(1).size());
+        assertTrue(visits.get(2).isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * toString/hashCode must not load the lazy visits
+     */
+    @Test
+    public void testPetToStringDoesNotLoadVisits() {
+
+        List<Pet> pets = this.petService.findAll();
+        pets.forEach(pet -> log.debug("{} {}", pet, pet.hashCode()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * A vet takes one visit per slot
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBookVisit() throws Exception {
+
+        VisitDTO visit = VisitDTO.builder().petId(9).vetId(1).visitDate("2030-05-05").visitTime("10:30")
+                .description("vaccination").cost(new BigDecimal("40.00")).build();
+
+        VisitDTO booked = this.visitService.book(visit);
+
+        assertNotNull(booked.getId());
+        assertEquals(9, booked.getPetId());
+        assertEquals("2030-05-05", booked.getVisitDate());
+        assertEquals("10:30", booked.getVisitTime());
+        assertEquals(List.of(2, 3, 4, 5), this.visitService.findAvailableVets(LocalDate.of(2030, 5, 5), LocalTime.of(10, 30))
+                .stream().map(VetDTO::getId).toList());
+        // the other slots of the day are still free
+        assertEquals(List.of(1, 2, 3, 4, 5), this.visitService.findAvailableVets(LocalDate.of(2030, 5, 5), null)
+                .stream().map(VetDTO::getId).toList());
+
+        assertThrows(VisitConflictException.class, () -> this.visitService.book(visit));
+    }
+
+    /**
+     * Without a time, visits take the free slots of the day in order until it is full
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBookFirstFreeSlot() throws Exception {
+
+        LocalDate day = LocalDate.of(2030, 5, 8);
+        VisitDTO visit = VisitDTO.builder().petId(9).vetId(3).visitDate(day.toString()).build();
+
+        assertEquals("09:00", this.visitService.book(visit).getVisitTime());
+        assertEquals("09:30", this.visitService.book(visit).getVisitTime());
+
+        for (int i = 2; i < VetAvailabilityIndex.SLOTS_PER_DAY; i++)
+            this.visitService.book(visit);
+
+        assertEquals("17:30", availabilityIndex.bookedSlots(3, day).last().toLocalTime().toString());
+        assertEquals(List.of(1, 2, 4, 5), this.visitService.findAvailableVets(day, null)
+                .stream().map(VetDTO::getId).toList());
+        assertThrows(VisitConflictException.class, () -> this.visitService.book(visit));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testBookVisitKO() {
+
+        assertThrows(PetNotFoundException.class, () -> this.visitService.book(
+                VisitDTO.builder().petId(666).vetId(1).visitDate("2030-05-06").build()));
+        assertThrows(VetNotFoundException.class, () -> this.visitService.book(
+                VisitDTO.builder().petId(9).vetId(666).visitDate("2030-05-06").build()));
+        // vet 6 is inactive
+        assertThrows(VisitConflictException.class, () -> this.visitService.book(
+                VisitDTO.builder().petId(9).vetId(6).visitDate("2030-05-06").build()));
+        // not on the slot grid
+        assertThrows(IllegalArgumentException.class, () -> this.visitService.book(
+                VisitDTO.builder().petId(9).vetId(1).visitDate("2030-05-06").visitTime("10:15").build()));
+        // not a date
+        assertThrows(IllegalArgumentException.class, () -> this.visitService.book(
+                VisitDTO.builder().petId(9).vetId(1).visitDate("2030-13-06").build()));
+    }
+
+    /**
+     * A slot the index holds but the database does not is still bookable
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBookVisitOnStaleSlot() throws Exception {
+
+        LocalDate day = LocalDate.of(2030, 5, 7);
+        availabilityIndex.tryBook(5, day, LocalTime.of(11, 0));
+
+        VisitDTO booked = this.visitService.book(VisitDTO.builder().petId(9).vetId(5).visitDate(day.toString())
+                .visitTime("11:00").build());
+
+        assertNotNull(booked.getId());
+    }
+
+    /**
+     * Deleting a pet releases the slots of its visits, without reading the table again
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDeletePetReleasesSlots() throws Exception {
+
+        LocalDate day = LocalDate.of(2030, 5, 9);
+        LocalTime time = LocalTime.of(10, 0);
+        PetDTO pet = this.petService.create(PetDTO.builder().name("Slot").typeId(1).ownerId(1).build());
+        this.visitService.book(VisitDTO.builder().petId(pet.getId()).vetId(4).visitDate(day.toString())
+                .visitTime("10:00").build());
+        // stored behind the index: only a rebuild would see it
+        jdbcTemplate.update("INSERT INTO visits (pet_id, vet_id, visit_date, visit_time) VALUES (9, 5, ?, ?)", day, time);
+        assertFalse(availabilityIndex.isFree(4, day, time));
+
+        this.petService.delete(pet.getId());
+
+        assertTrue(availabilityIndex.isFree(4, day, time));
+        assertTrue(availabilityIndex.isFree(5, day, time));
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testFindAvailableVets() {
+
+        // vet 2 has a visit in the 09:00 slot, vet 6 is inactive
+        List<VetDTO> vets = this.visitService.findAvailableVets(LocalDate.of(2010, 3, 4), LocalTime.of(9, 0));
+
+        assertEquals(List.of(1, 3, 4, 5), vets.stream().map(VetDTO::getId).toList());
+    }
+
+}
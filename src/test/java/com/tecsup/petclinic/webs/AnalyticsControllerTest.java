@@ -0,0 +1,95 @@
+package com.tecsup.petclinic.webs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Ranges over the seeded visits (2008 - 2024), which no test changes
+ */
+@AutoConfigureMockMvc
+@SpringBootTest
+@Slf4j
+public class AnalyticsControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testRevenueByVetAndMonth() throws Exception {
+
+		this.mockMvc.perform(get("/analytics/revenue").param("from", "2008-01-01").param("to", "2011-12-31"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(4)))
+				.andExpect(jsonPath("$[0].vetId", is(3)))
+				.andExpect(jsonPath("$[0].month", is("2008-09")))
+				.andExpect(jsonPath("$[0].visits", is(1)))
+				.andExpect(jsonPath("$[0].revenue", is(275.00)))
+				.andExpect(jsonPath("$[3].vetId", is(2)))
+				.andExpect(jsonPath("$[3].month", is("2011-03")));
+
+		this.mockMvc.perform(get("/analytics/revenue").param("from", "2024-02-01").param("to", "2024-02-29"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].vetId", is(4)))
+				.andExpect(jsonPath("$[0].revenue", is(150.00)));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testVisitsByPetType() throws Exception {
+
+		this.mockMvc.perform(get("/analytics/visits-by-type").param("from", "2008-01-01").param("to", "2024-12-31"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].typeId", is(1)))
+				.andExpect(jsonPath("$[0].visits", is(5)))
+				.andExpect(jsonPath("$[1].typeId", is(2)))
+				.andExpect(jsonPath("$[1].visits", is(1)));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testBusiestDays() throws Exception {
+
+		this.mockMvc.perform(get("/analytics/busiest-days").param("to", "2024-12-31").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].day", is("2008-09-04")))
+				.andExpect(jsonPath("$[0].visits", is(1)))
+				.andExpect(jsonPath("$[1].day", is("2009-06-04")));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testAnalyticsKO() throws Exception {
+
+		mockMvc.perform(get("/analytics/revenue").param("from", "2024-02-01").param("to", "2024-01-01"))
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/analytics/busiest-days").param("limit", "0"))
+				.andExpect(status().isBadRequest());
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.tecsup.petclinic.webs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 
+ */
+@AutoConfigureMockMvc
+@SpringBootTest
+@Slf4j
+public class ExportControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/**
+	 * CSV with a header line, NULL as an empty field
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testExportCsv() throws Exception {
+
+		MvcResult result = this.mockMvc.perform(get("/export/vets"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String[] lines = this.mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("text/csv"))
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"vets.csv\""))
+				.andReturn().getResponse().getContentAsString().split("\n");
+
+		assertEquals("id,first_name,last_name,email,phone,active", lines[0]);
+		assertEquals("1,James,Carter,james.carter@petclinic.com,6085551234,true", lines[1]);
+	}
+
+	/**
+	 * One JSON object per line with the DTO field names, gzip on request
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testExportNdjsonGzip() throws Exception {
+
+		MvcResult result = this.mockMvc.perform(get("/export/visits").param("format", "ndjson").param("gzip", "true"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		byte[] body = this.mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/gzip"))
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"visits.ndjson.gz\""))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		String[] lines;
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+		}
+
+		assertTrue(lines.length >= 6);
+		JsonNode first = objectMapper.readTree(lines[0]);
+		assertEquals(1, first.get("id").asInt());
+		assertEquals(7, first.get("petId").asInt());
+		assertEquals(2, first.get("vetId").asInt());
+		assertEquals("2010-03-04", first.get("visitDate").asText());
+		// Decimals keep their scale
+		assertTrue(lines[0].endsWith("\"cost\":45.00}"));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testExportKO() throws Exception {
+
+		mockMvc.perform(get("/export/specialties"))
+				.andExpect(status().isNotFound());
+
+		mockMvc.perform(get("/export/pets").param("format", "xml"))
+				.andExpect(status().isBadRequest());
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.tecsup.petclinic.webs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 
+ */
+@AutoConfigureMockMvc
+@SpringBootTest
+@Slf4j
+public class ImportControllerTest {
+
+	private static final String CSV = "text/csv";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	public void cleanUp() {
+		jdbcTemplate.update("DELETE FROM owners WHERE id >= 900001");
+		jdbcTemplate.update("DELETE FROM import_checkpoints");
+	}
+
+	/**
+	 * The import runs in the background, its progress is at the Location
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testImportOwners() throws Exception {
+
+		String location = this.mockMvc.perform(post("/imports/owners").contentType(CSV)
+						.content("id,first_name,last_name,city\n900001,Ada,Upload,Lima\n900002,Alan,Upload,Lima\n"))
+				.andExpect(status().isAccepted())
+				.andExpect(jsonPath("$.entity").value("owners"))
+				.andReturn().getResponse().getHeader("Location");
+
+		JsonNode job;
+		long deadline = System.currentTimeMillis() + 10_000;
+		do {
+			Thread.sleep(50);
+			job = objectMapper.readTree(this.mockMvc.perform(get(location))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString());
+		} while ("RUNNING".equals(job.get("status").asText()) && System.currentTimeMillis() < deadline);
+
+		assertEquals("COMPLETED", job.get("status").asText());
+		assertEquals(2, job.get("imported").asInt());
+		assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owners WHERE last_name = 'Upload'", Integer.class));
+	}
+
+	@Test
+	public void testImportKO() throws Exception {
+
+		this.mockMvc.perform(post("/imports/visits").contentType(CSV).content("id\n1\n"))
+				.andExpect(status().isNotFound());
+
+		this.mockMvc.perform(post("/imports/pets").contentType(CSV).content("id,name,color\n1,Leo,red\n"))
+				.andExpect(status().isBadRequest());
+
+		this.mockMvc.perform(post("/imports/owners").contentType(CSV).content(""))
+				.andExpect(status().isBadRequest());
+
+		this.mockMvc.perform(get("/imports/unknown"))
+				.andExpect(status().isNotFound());
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.tecsup.petclinic.webs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The metrics profile exposes request timers, not-found counters,
+ * Hibernate statistics and pool gauges through /actuator/prometheus
+ */
+@AutoConfigureMockMvc
+@SpringBootTest
+@ActiveProfiles({ "h2", "metrics" })
+@Slf4j
+public class MetricsProfileTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testPrometheusEndpoint() throws Exception {
+
+		mockMvc.perform(get("/pets/1"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/pets/666"))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(get("/vets/666"))
+				.andExpect(status().isNotFound());
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+				.andExpect(content().string(containsString("uri=\"/pets/{id}\"")))
+				.andExpect(content().string(containsString(
+						"petclinic_not_found_total{application=\"petclinic\",exception=\"PetNotFoundException\",operation=\"pets.findById\"}")))
+				.andExpect(content().string(containsString("exception=\"VetNotFoundException\",operation=\"vets.findById\"")))
+				.andExpect(content().string(containsString("hibernate_statements_total")))
+				.andExpect(content().string(containsString("hikaricp_connections_active")));
+	}
+
+}
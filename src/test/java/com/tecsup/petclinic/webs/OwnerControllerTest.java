@@ -0,0 +1,128 @@
+package com.tecsup.petclinic.webs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 
+ */
+@AutoConfigureMockMvc
+@SpringBootTest
+@Slf4j
+public class OwnerControllerTest {
+
+	private static final ObjectMapper om = new ObjectMapper();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFindOwnersByLastName() throws Exception {
+
+		this.mockMvc.perform(get("/owners").param("lastName", "Davis"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].id", is(2)))
+				.andExpect(jsonPath("$[1].id", is(4)))
+				.andExpect(jsonPath("$[0].pets").doesNotExist());
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFindOwnerWithPets() throws Exception {
+
+		this.mockMvc.perform(get("/owners/3/details"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.lastName", is("Rodriquez")))
+				.andExpect(jsonPath("$.pets", hasSize(2)))
+				.andExpect(jsonPath("$.pets[0].name", is("Rosy")))
+				.andExpect(jsonPath("$.pets[1].name", is("Jewel")));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFindOwnerKO() throws Exception {
+
+		mockMvc.perform(get("/owners/666"))
+				.andExpect(status().isNotFound());
+
+		mockMvc.perform(get("/owners/666/details"))
+				.andExpect(status().isNotFound());
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testCountPets() throws Exception {
+
+		this.mockMvc.perform(get("/owners/pet-counts"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(10)))
+				.andExpect(jsonPath("$[5].ownerId", is(6)))
+				.andExpect(jsonPath("$[5].lastName", is("Coleman")))
+				.andExpect(jsonPath("$[5].petCount", is(2)));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateUpdateDeleteOwner() throws Exception {
+
+		OwnerDTO newOwner = OwnerDTO.builder()
+				.firstName("Ana").lastName("Zevallos").address("Av. Cascanueces 2221")
+				.city("Lima").telephone("999888777").build();
+
+		MvcResult result = this.mockMvc.perform(post("/owners")
+						.content(om.writeValueAsString(newOwner))
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.lastName", is("Zevallos")))
+				.andReturn();
+
+		Integer id = om.readValue(result.getResponse().getContentAsString(), OwnerDTO.class).getId();
+
+		newOwner.setCity("Cusco");
+		mockMvc.perform(put("/owners/" + id)
+						.content(om.writeValueAsString(newOwner))
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.city", is("Cusco")));
+
+		mockMvc.perform(delete("/owners/" + id))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(put("/owners/" + id)
+						.content(om.writeValueAsString(newOwner))
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+	}
+
+}
@@ -11,9 +11,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -42,7 +47,83 @@ public class PetControllerTest {
 				//		    .andExpect(jsonPath("$", hasSize(NRO_RECORD)))
 				.andExpect(jsonPath("$[0].id", is(ID_FIRST_RECORD)));
 	}
-	
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFindPetsPage() throws Exception {
+
+		final int LIMIT = 2;
+		final int AFTER = 3;
+
+		this.mockMvc.perform(get("/pets").param("after", String.valueOf(AFTER)).param("limit", String.valueOf(LIMIT)))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(jsonPath("$", hasSize(LIMIT)))
+				.andExpect(jsonPath("$[0].id", is(4)))
+				.andExpect(jsonPath("$[1].id", is(5)))
+				.andExpect(header().string(HttpHeaders.LINK, containsString("after=5")));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testStreamAllPets() throws Exception {
+
+		final int ID_FIRST_RECORD = 1;
+
+		MvcResult result = this.mockMvc.perform(get("/pets/stream"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		this.mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(jsonPath("$[0].id", is(ID_FIRST_RECORD)))
+				.andExpect(jsonPath("$[0].name", is("Leo")));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testSearchPets() throws Exception {
+
+		// name prefix
+		this.mockMvc.perform(get("/pets/search").param("name", "Lu"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].id", is(9)))
+				.andExpect(jsonPath("$[1].id", is(12)));
+
+		// owner + name prefix
+		this.mockMvc.perform(get("/pets/search").param("ownerId", "10").param("name", "S"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].name", is("Sly")));
+
+		// type + birth-date range
+		this.mockMvc.perform(get("/pets/search")
+						.param("typeId", "1")
+						.param("bornFrom", "1995-01-01")
+						.param("bornTo", "1999-12-31"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].id", is(7)))
+				.andExpect(jsonPath("$[1].id", is(8)));
+
+		// paging by id
+		this.mockMvc.perform(get("/pets/search").param("name", "Lu").param("after", "9"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id", is(12)));
+	}
+
 
 	/**
 	 * 
@@ -147,6 +228,42 @@ public class PetControllerTest {
 				.andExpect(status().isOk());
 	}
 
+	/**
+	 * A pet without birth date reads the same from the list and by id
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testPetWithoutBirthDate() throws Exception {
+
+		PetDTO newPetTO = PetDTO.builder()
+                .name("Undated")
+                .typeId(1)
+                .ownerId(1)
+                .build();
+
+		String response = mockMvc.perform(post("/pets")
+						.content(om.writeValueAsString(newPetTO))
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		Integer id = JsonPath.parse(response).read("$.id");
+
+		try {
+			mockMvc.perform(get("/pets/" + id))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.birthDate", is("")));
+
+			mockMvc.perform(get("/pets").param("after", String.valueOf(id - 1)).param("limit", "1"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$[0].id", is(id)))
+					.andExpect(jsonPath("$[0].birthDate", is("")));
+		} finally {
+			mockMvc.perform(delete("/pets/" + id))
+					.andExpect(status().isOk());
+		}
+	}
+
 	@Test
 	public void testDeletePetKO() throws Exception {
 
@@ -200,7 +317,12 @@ public class PetControllerTest {
 						.content(om.writeValueAsString(upPetTO))
 						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
 				.andDo(print())
-				.andExpect(status().isOk());
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id", is(id)))
+				.andExpect(jsonPath("$.name", is(UP_PET_NAME)))
+				.andExpect(jsonPath("$.typeId", is(UP_TYPE_ID)))
+				.andExpect(jsonPath("$.ownerId", is(UP_OWNER_ID)))
+				.andExpect(jsonPath("$.birthDate", is(BIRTH_DATE)));
 
 		// FIND
 		mockMvc.perform(get("/pets/" + id))  //
@@ -210,7 +332,8 @@ public class PetControllerTest {
 				.andExpect(jsonPath("$.id", is(id)))
 				.andExpect(jsonPath("$.name", is(UP_PET_NAME)))
 				.andExpect(jsonPath("$.typeId", is(UP_TYPE_ID)))
-				.andExpect(jsonPath("$.ownerId", is(UP_OWNER_ID)));
+				.andExpect(jsonPath("$.ownerId", is(UP_OWNER_ID)))
+				.andExpect(jsonPath("$.birthDate", is(BIRTH_DATE)));
 
 		// DELETE
 		mockMvc.perform(delete("/pets/" + id))
@@ -218,5 +341,180 @@ public class PetControllerTest {
 				.andExpect(status().isOk());
 	}
 
+	/**
+	 * @throws Exception
+	 */
+	@Test
+	public void testUpdatePetKO() throws Exception {
+
+		PetDTO upPetTO = PetDTO.builder()
+				.name("Ghost")
+				.typeId(1)
+				.ownerId(1)
+				.build();
+
+		mockMvc.perform(put("/pets/" + "1000")
+						.content(om.writeValueAsString(upPetTO))
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+	}
+
+	/**
+	 * Pets and vets are only written through their controllers, which evict the caches
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testRepositoriesNotExported() throws Exception {
+
+		mockMvc.perform(get("/api/pets/1")).andExpect(status().isNotFound());
+		mockMvc.perform(post("/api/vets")
+						.content("{\"firstName\":\"Rest\",\"lastName\":\"Api\"}")
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+	}
+
+	/**
+	 * An unknown owner or type is refused before the database is asked
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreatePetInvalidReference() throws Exception {
+
+		int OWNER_ID_NOT_EXIST = 999999;
+		int TYPE_ID_NOT_EXIST = 999;
+
+		mockMvc.perform(post("/pets")
+						.content(om.writeValueAsString(PetDTO.builder().name("Nobody").typeId(1).ownerId(OWNER_ID_NOT_EXIST).build()))
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(put("/pets/1")
+						.content(om.writeValueAsString(PetDTO.builder().name("Leo").typeId(TYPE_ID_NOT_EXIST).ownerId(1).build()))
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	@Test
+	public void testConditionalRequestsPet() throws Exception {
+
+		PetDTO newPetTO = PetDTO.builder()
+				.name("Beethoven6")
+				.typeId(1)
+				.ownerId(1)
+				.birthDate("2020-05-20")
+				.build();
+
+		// CREATE
+		String response = mockMvc.perform(post("/pets")
+						.content(om.writeValueAsString(newPetTO))
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		Integer id = JsonPath.parse(response).read("$.id");
+
+		// FIND : the ETag is the row version
+		mockMvc.perform(get("/pets/" + id))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "W/\"0\""));
+
+		// FIND again with the same ETag : not modified
+		mockMvc.perform(get("/pets/" + id).header(HttpHeaders.IF_NONE_MATCH, "W/\"0\""))
+				.andExpect(status().isNotModified());
+
+		PetDTO upPetTO = PetDTO.builder()
+				.id(id)
+				.name("Beethoven7")
+				.typeId(1)
+				.ownerId(1)
+				.build();
+
+		// UPDATE with the current ETag
+		mockMvc.perform(put("/pets/" + id)
+						.content(om.writeValueAsString(upPetTO))
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, "W/\"0\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "W/\"1\""));
+
+		// UPDATE again with the stale ETag
+		mockMvc.perform(put("/pets/" + id)
+						.content(om.writeValueAsString(upPetTO))
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, "W/\"0\""))
+				.andExpect(status().isPreconditionFailed());
+
+		// FIND with the old ETag : modified
+		mockMvc.perform(get("/pets/" + id).header(HttpHeaders.IF_NONE_MATCH, "W/\"0\""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name", is("Beethoven7")))
+				.andExpect(header().string(HttpHeaders.ETAG, "W/\"1\""));
+
+		// DELETE
+		mockMvc.perform(delete("/pets/" + id))
+				.andExpect(status().isOk());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	@Test
+	public void testBatchPets() throws Exception {
+
+		int TYPE_ID = 1;
+		int OWNER_ID = 1;
+		int TYPE_ID_NOT_EXIST = 999;
+
+		String newPets = om.writeValueAsString(List.of(
+				PetDTO.builder().name("Batch1").typeId(TYPE_ID).ownerId(OWNER_ID).birthDate("2020-01-01").build(),
+				PetDTO.builder().name("Batch2").typeId(TYPE_ID_NOT_EXIST).ownerId(OWNER_ID).build(),
+				PetDTO.builder().name("Batch3").typeId(TYPE_ID).ownerId(OWNER_ID).build()));
+
+		// CREATE (JSON array)
+		String response = mockMvc.perform(post("/pets/batch")
+						.content(newPets)
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(3)))
+				.andExpect(jsonPath("$[0].status", is("CREATED")))
+				.andExpect(jsonPath("$[1].index", is(1)))
+				.andExpect(jsonPath("$[1].status", is("FAILED")))
+				.andExpect(jsonPath("$[2].status", is("CREATED")))
+				.andReturn().getResponse().getContentAsString();
+
+		Integer id1 = JsonPath.parse(response).read("$[0].id");
+		Integer id3 = JsonPath.parse(response).read("$[2].id");
+
+		// UPDATE (NDJSON)
+		String upPets = om.writeValueAsString(PetDTO.builder().id(id1).name("Batch1b").typeId(2).ownerId(2).build())
+				+ "\n" + om.writeValueAsString(PetDTO.builder().id(1000).name("Ghost").typeId(1).ownerId(1).build());
+
+		mockMvc.perform(put("/pets/batch")
+						.content(upPets)
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].status", is("UPDATED")))
+				.andExpect(jsonPath("$[1].status", is("NOT_FOUND")));
+
+		mockMvc.perform(get("/pets/" + id1))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name", is("Batch1b")))
+				.andExpect(jsonPath("$.birthDate", is("2020-01-01")));
+
+		// DELETE
+		mockMvc.perform(delete("/pets/batch")
+						.content(om.writeValueAsString(List.of(id1, id3)))
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].status", is("DELETED")))
+				.andExpect(jsonPath("$[1].status", is("DELETED")));
+
+		mockMvc.perform(get("/pets/" + id3))
+				.andExpect(status().isNotFound());
+	}
+
 }
-    
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.tecsup.petclinic.webs;
+
+import com.tecsup.petclinic.dtos.OwnerDTO;
+import com.tecsup.petclinic.dtos.PetDTO;
+import com.tecsup.petclinic.services.OwnerService;
+import com.tecsup.petclinic.services.PetService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 
+ */
+@AutoConfigureMockMvc
+@SpringBootTest
+@Slf4j
+public class SearchControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PetService petService;
+
+	@Autowired
+	private OwnerService ownerService;
+
+	/**
+	 * A typo, a fragment from the middle of a name and an accent-free query
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testSearchTolerant() throws Exception {
+
+		this.mockMvc.perform(get("/search").param("q", "geroge frankln"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].type", is("owner")))
+				.andExpect(jsonPath("$[0].id", is(1)))
+				.andExpect(jsonPath("$[0].label", is("George Franklin")));
+
+		this.mockMvc.perform(get("/search").param("q", "tavi"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].label", is("Peter McTavish")));
+
+		this.mockMvc.perform(get("/search").param("q", "rafael ortega"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].type", is("vet")))
+				.andExpect(jsonPath("$[0].id", is(4)));
+	}
+
+	/**
+	 * Exact words first, then filtered by type
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testSearchRankedByType() throws Exception {
+
+		this.mockMvc.perform(get("/search").param("q", "leo").param("type", "pet"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id", is(1)))
+				.andExpect(jsonPath("$[0].label", is("Leo")));
+
+		this.mockMvc.perform(get("/search").param("q", "davis").param("type", "owner").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].label", is("Betty Davis")))
+				.andExpect(jsonPath("$[1].label", is("Harold Davis")));
+	}
+
+	/**
+	 * Service writes are found (or gone) on the next search
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testSearchFollowsWrites() throws Exception {
+
+		OwnerDTO owner = this.ownerService.create(OwnerDTO.builder().firstName("Zoltan").lastName("Quixby")
+				.city("Lima").telephone("5550000").build());
+		PetDTO pet = this.petService.create(PetDTO.builder().name("Zanzibar").typeId(1).ownerId(owner.getId()).build());
+
+		this.mockMvc.perform(get("/search").param("q", "zanzibr"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id", is(pet.getId())));
+
+		pet.setName("Kilimanjaro");
+		this.petService.update(pet);
+
+		this.mockMvc.perform(get("/search").param("q", "zanzibar"))
+				.andExpect(jsonPath("$", hasSize(0)));
+		this.mockMvc.perform(get("/search").param("q", "kilimanjaro"))
+				.andExpect(jsonPath("$[0].id", is(pet.getId())));
+
+		// The pets go with their owner
+		this.ownerService.delete(owner.getId());
+
+		this.mockMvc.perform(get("/search").param("q", "quixby"))
+				.andExpect(jsonPath("$", hasSize(0)));
+		this.mockMvc.perform(get("/search").param("q", "kilimanjaro"))
+				.andExpect(jsonPath("$", hasSize(0)));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testSearchKO() throws Exception {
+
+		mockMvc.perform(get("/search").param("q", " "))
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/search").param("q", "leo").param("type", "visit"))
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/search").param("q", "leo").param("limit", "0"))
+				.andExpect(status().isBadRequest());
+	}
+
+}
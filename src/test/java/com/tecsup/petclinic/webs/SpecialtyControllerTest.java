@@ -0,0 +1,128 @@
+package com.tecsup.petclinic.webs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecsup.petclinic.dtos.SpecialtyDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Pruebas de integración para SpecialtyController
+ */
+@AutoConfigureMockMvc
+@SpringBootTest
+@Slf4j
+public class SpecialtyControllerTest {
+
+	private static final ObjectMapper om = new ObjectMapper();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	/**
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testFindVetsBySpecialty() throws Exception {
+
+		// surgery: Douglas (11 años) antes que Ortega (9 años)
+		this.mockMvc.perform(get("/specialties/2/vets"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].vetId", is(3)))
+				.andExpect(jsonPath("$[0].lastName", is("Douglas")))
+				.andExpect(jsonPath("$[0].yearsExperience", is(11)))
+				.andExpect(jsonPath("$[0].primary", is(true)))
+				.andExpect(jsonPath("$[0].certificationDate", is("2012-03-20")))
+				.andExpect(jsonPath("$[1].vetId", is(4)));
+	}
+
+	/**
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testFindSpecialtiesByVet() throws Exception {
+
+		this.mockMvc.perform(get("/vets/3/specialties"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].specialtyName", is("surgery")))
+				.andExpect(jsonPath("$[0].primary", is(true)))
+				.andExpect(jsonPath("$[1].specialtyName", is("dentistry")))
+				.andExpect(jsonPath("$[1].yearsExperience", is(5)));
+
+		this.mockMvc.perform(get("/vets/1/specialties"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(0)));
+	}
+
+	/**
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testNotFound() throws Exception {
+
+		mockMvc.perform(get("/specialties/666")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/specialties/666/vets")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/vets/666/specialties")).andExpect(status().isNotFound());
+	}
+
+	/**
+	 * El catálogo refleja altas, cambios y bajas
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateUpdateDeleteSpecialty() throws Exception {
+
+		SpecialtyDTO newSpecialty = SpecialtyDTO.builder()
+				.name("cardiology").office("Lima").openHour(9).closeHour(17).build();
+
+		MvcResult result = this.mockMvc.perform(post("/specialties")
+						.content(om.writeValueAsString(newSpecialty))
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isCreated())
+				.andReturn();
+
+		Integer id = om.readValue(result.getResponse().getContentAsString(), SpecialtyDTO.class).getId();
+
+		this.mockMvc.perform(get("/specialties"))
+				.andExpect(jsonPath("$[*].name", hasItem("cardiology")));
+
+		newSpecialty.setName("cardiology and imaging");
+		this.mockMvc.perform(put("/specialties/" + id)
+						.content(om.writeValueAsString(newSpecialty))
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+
+		this.mockMvc.perform(get("/specialties/" + id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name", is("cardiology and imaging")))
+				.andExpect(jsonPath("$.closeHour", is(17)));
+
+		this.mockMvc.perform(delete("/specialties/" + id))
+				.andExpect(status().isOk());
+
+		this.mockMvc.perform(get("/specialties/" + id))
+				.andExpect(status().isNotFound());
+		this.mockMvc.perform(get("/specialties"))
+				.andExpect(jsonPath("$[*].name", not(hasItem("cardiology and imaging"))));
+	}
+
+}
@@ -11,9 +11,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,6 +53,45 @@ public class VetControllerTest {
                 .andExpect(jsonPath("$[0].id", is(ID_FIRST_RECORD)));
     }
 
+    /**
+     * Test: Obtener una página de veterinarios (keyset)
+     * Verifica que GET /vets?after=&limit= retorne la página y el enlace a la siguiente
+     */
+    @Test
+    public void testFindVetsPage() throws Exception {
+
+        final int LIMIT = 2;
+        final int AFTER = 1;
+
+        this.mockMvc.perform(get("/vets").param("after", String.valueOf(AFTER)).param("limit", String.valueOf(LIMIT)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(LIMIT)))
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[1].id", is(3)))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("after=3")));
+    }
+
+    /**
+     * Test: Obtener todos los veterinarios en streaming
+     * Verifica que GET /vets/stream escriba el arreglo JSON completo
+     */
+    @Test
+    public void testStreamAllVets() throws Exception {
+
+        final int ID_FIRST_RECORD = 1;
+
+        MvcResult result = this.mockMvc.perform(get("/vets/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].id", is(ID_FIRST_RECORD)))
+                .andExpect(jsonPath("$[0].firstName", is("James")));
+    }
+
     /**
      * Test: Obtener un veterinario por ID
      * Verifica que el endpoint GET /vets/{id} retorne un veterinario específico
@@ -205,11 +249,16 @@ public class VetControllerTest {
                 .active(ACTIVE)
                 .build();
 
+        // sin If-Match también se responde la fila guardada y su ETag
         mockMvc.perform(put("/vets/" + id)
                         .content(om.writeValueAsString(upVetDTO))
                         .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
                 .andDo(print())
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1\""))
+                .andExpect(jsonPath("$.id", is(id)))
+                .andExpect(jsonPath("$.firstName", is(UP_FIRST_NAME)))
+                .andExpect(jsonPath("$.active", is(ACTIVE)));
 
         // FIND
         mockMvc.perform(get("/vets/" + id))
@@ -227,4 +276,132 @@ public class VetControllerTest {
                 .andExpect(status().isOk());
     }
 
-}
\ No newline at end of file
+    /**
+     * Test: Actualizar un veterinario inexistente
+     * Verifica que retorne status 404 cuando el ID no existe
+     */
+    @Test
+    public void testUpdateVetKO() throws Exception {
+
+        VetDTO upVetDTO = VetDTO.builder()
+                .firstName("Ghost")
+                .lastName("Vet")
+                .active(true)
+                .build();
+
+        mockMvc.perform(put("/vets/1000")
+                        .content(om.writeValueAsString(upVetDTO))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test: GET y PUT condicionales
+     * Verifica el ETag de la versión, el 304 con If-None-Match y el 412 con un If-Match obsoleto
+     */
+    @Test
+    public void testConditionalRequestsVet() throws Exception {
+
+        VetDTO newVetDTO = VetDTO.builder()
+                .firstName("Etag")
+                .lastName("Test")
+                .email("etag@petclinic.com")
+                .active(true)
+                .build();
+
+        // CREATE
+        String response = mockMvc.perform(post("/vets")
+                        .content(om.writeValueAsString(newVetDTO))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer id = JsonPath.parse(response).read("$.id");
+
+        // FIND
+        mockMvc.perform(get("/vets/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"0\""));
+
+        mockMvc.perform(get("/vets/" + id).header(HttpHeaders.IF_NONE_MATCH, "W/\"0\""))
+                .andExpect(status().isNotModified());
+
+        VetDTO upVetDTO = VetDTO.builder()
+                .id(id)
+                .firstName("Etag")
+                .lastName("Updated")
+                .email("etag@petclinic.com")
+                .active(true)
+                .build();
+
+        // UPDATE
+        mockMvc.perform(put("/vets/" + id)
+                        .content(om.writeValueAsString(upVetDTO))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1\""));
+
+        mockMvc.perform(put("/vets/" + id)
+                        .content(om.writeValueAsString(upVetDTO))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/vets/" + id).header(HttpHeaders.IF_NONE_MATCH, "W/\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName", is("Updated")));
+
+        // DELETE
+        mockMvc.perform(delete("/vets/" + id))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test: Crear, actualizar y eliminar veterinarios en lote
+     * Verifica que /vets/batch devuelva un resultado por elemento
+     */
+    @Test
+    public void testBatchVets() throws Exception {
+
+        String newVets = om.writeValueAsString(VetDTO.builder().firstName("Batch").lastName("One").build())
+                + "\n" + om.writeValueAsString(VetDTO.builder().firstName("Batch").lastName("Two").active(false).build());
+
+        // CREATE (NDJSON)
+        String response = mockMvc.perform(post("/vets/batch")
+                        .content(newVets)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("CREATED")))
+                .andReturn().getResponse().getContentAsString();
+
+        Integer id1 = JsonPath.parse(response).read("$[0].id");
+        Integer id2 = JsonPath.parse(response).read("$[1].id");
+
+        mockMvc.perform(get("/vets/" + id1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName", is("One")))
+                .andExpect(jsonPath("$.active", is(true)));
+
+        // UPDATE (JSON array)
+        String upVets = om.writeValueAsString(List.of(
+                VetDTO.builder().id(id2).firstName("Batch").lastName("Two2").active(true).build()));
+
+        mockMvc.perform(put("/vets/batch")
+                        .content(upVets)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("UPDATED")));
+
+        // DELETE
+        mockMvc.perform(delete("/vets/batch")
+                        .content(om.writeValueAsString(List.of(id1, id2, 1000)))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("DELETED")))
+                .andExpect(jsonPath("$[1].status", is("DELETED")))
+                .andExpect(jsonPath("$[2].status", is("NOT_FOUND")));
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.tecsup.petclinic.webs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 
+ */
+@AutoConfigureMockMvc
+@SpringBootTest
+@Slf4j
+public class VisitControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFindVisitsByPetId() throws Exception {
+
+		this.mockMvc.perform(get("/pets/8/visits"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].id", is(2)))
+				.andExpect(jsonPath("$[0].petId", is(8)))
+				.andExpect(jsonPath("$[0].vetId", is(2)))
+				.andExpect(jsonPath("$[0].visitDate", is("2011-03-04")))
+				.andExpect(jsonPath("$[0].description", is("rabies shot")))
+				.andExpect(jsonPath("$[1].id", is(3)));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFindVisitsByPetIdKO() throws Exception {
+
+		mockMvc.perform(get("/pets/666/visits"))
+				.andExpect(status().isNotFound());
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFindVisitsByPetIds() throws Exception {
+
+		this.mockMvc.perform(get("/pets/visits").param("petIds", "1,3,2,666"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.1", hasSize(1)))
+				.andExpect(jsonPath("$.1[0].description", is("general checkup")))
+				.andExpect(jsonPath("$.3[0].description", is("dental cleaning")))
+				.andExpect(jsonPath("$.2", hasSize(0)))
+				.andExpect(jsonPath("$.666").doesNotExist());
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testBookVisit() throws Exception {
+
+		String visit = "{\"petId\":9,\"vetId\":4,\"visitDate\":\"2030-06-06\",\"visitTime\":\"16:00\","
+				+ "\"description\":\"checkup\",\"cost\":55.00}";
+
+		this.mockMvc.perform(post("/visits").content(visit).contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.petId", is(9)))
+				.andExpect(jsonPath("$.vetId", is(4)))
+				.andExpect(jsonPath("$.visitDate", is("2030-06-06")))
+				.andExpect(jsonPath("$.visitTime", is("16:00")));
+
+		this.mockMvc.perform(post("/visits").content(visit).contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isConflict());
+
+		this.mockMvc.perform(get("/vets/available").param("date", "2030-06-06").param("time", "16:00"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].id", contains(1, 2, 3, 5)));
+
+		this.mockMvc.perform(get("/vets/available").param("date", "2030-06-06"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].id", contains(1, 2, 3, 4, 5)));
+	}
+
+	/**
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testBookVisitKO() throws Exception {
+
+		this.mockMvc.perform(post("/visits").content("{\"petId\":666,\"vetId\":1,\"visitDate\":\"2030-06-07\"}")
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+
+		this.mockMvc.perform(post("/visits").content("{\"petId\":9,\"vetId\":1}")
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+
+		this.mockMvc.perform(post("/visits").content("{\"petId\":9,\"vetId\":1,\"visitDate\":\"2030-02-30\"}")
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+
+		this.mockMvc.perform(post("/visits").content("{\"petId\":9,\"vetId\":1,\"visitDate\":\"07/06/2030\"}")
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+
+		this.mockMvc.perform(post("/visits").content("{\"petId\":9,\"vetId\":1,\"visitDate\":\"2030-06-07\",\"visitTime\":\"18:00\"}")
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+
+		this.mockMvc.perform(get("/vets/available").param("date", "2030-06-07").param("time", "09:10"))
+				.andExpect(status().isBadRequest());
+	}
+
+}